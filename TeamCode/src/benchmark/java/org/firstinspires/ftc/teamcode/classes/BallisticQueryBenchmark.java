@@ -0,0 +1,68 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Cost of the online RPM query once the BallisticSolver has extended the
+ * table, against the 20 us budget, with and without a 2-D grid loaded. A
+ * full solve is timed too, to show why it runs at init and not in the loop.
+ */
+public class BallisticQueryBenchmark {
+  private static final double QUERY_BUDGET_MICROS = 20.0;
+  private static final double MAX_DISTANCE_METERS = 4.5;
+  private static final int CALLS_PER_BATCH = 100000;
+  // LauncherHelper's built-in table, put back afterwards
+  private static final double[][] DEFAULT_TABLE = {
+      {1.0, 2000}, {1.5, 2800}, {2.0, 3500}, {2.5, 4200}, {3.0, 5000}};
+
+  @Before
+  public void setUp() {
+    assertTrue(LauncherHelper.extendRpmTable(new BallisticSolver(), MAX_DISTANCE_METERS) > 0);
+  }
+
+  @After
+  public void tearDown() {
+    LauncherHelper.clearRpmGrid();
+    LauncherHelper.setRpmTable(DEFAULT_TABLE);
+  }
+
+  /** Distances sweeping the measured range, the extension and past its end. */
+  private static double distance(int i) {
+    return 0.8 + 4.0 * (i % 1000) / 1000.0;
+  }
+
+  private static double timeQuery(String name) {
+    double nanos = Benchmark.nanosPerCall(
+        i -> LauncherHelper.lookupRPM(distance(i), 0.8), CALLS_PER_BATCH);
+    Benchmark.report(name, nanos);
+    return nanos;
+  }
+
+  @Test
+  public void tableQueryStaysInBudget() {
+    double nanos = timeQuery("lookupRPM, extended table");
+    assertTrue(nanos / 1000.0 + " us", nanos < QUERY_BUDGET_MICROS * 1000.0);
+  }
+
+  @Test
+  public void gridQueryStaysInBudget() {
+    double[] distances = {1.0, 2.0, 3.0, 4.0};
+    double[] heights = {0.6, 0.8, 1.0};
+    double[][] rpm = {{2000, 2100, 2200}, {3500, 3600, 3700}, {5000, 5100, 5200},
+        {5900, 6000, 6100}};
+    LauncherHelper.setRpmGrid(new LookupGrid2D(distances, heights, rpm));
+    double nanos = timeQuery("lookupRPM, 2-D grid");
+    assertTrue(nanos / 1000.0 + " us", nanos < QUERY_BUDGET_MICROS * 1000.0);
+  }
+
+  @Test
+  public void solve() {
+    final BallisticSolver solver = new BallisticSolver();
+    Benchmark.report("BallisticSolver.solve", Benchmark.nanosPerCall(
+        i -> solver.solve(1.0 + 3.5 * (i % 100) / 100.0, 0.8).rpm, 200));
+  }
+}
@@ -0,0 +1,50 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+/**
+ * Minimal timing harness for the benchmarks in src/benchmark/java: warm the
+ * code up, then time several batches and report the median cost per call.
+ * The median keeps a single GC pause from skewing a result.
+ *
+ * Benchmarks only join the unit tests with -Pbenchmarks (see
+ * TeamCode/build.gradle), so wall-clock numbers never gate the normal run.
+ */
+final class Benchmark {
+  private static final int WARMUP_BATCHES = 10;
+  private static final int MEASURED_BATCHES = 15;
+
+  /** Code under test; return something derived from the work so it is not optimized away. */
+  interface Body {
+    double run(int i);
+  }
+
+  // Written so the JIT cannot drop the benchmarked calls
+  static volatile double sink;
+
+  private Benchmark() {}
+
+  /** Median nanoseconds per call of body over batches of the given size. */
+  static double nanosPerCall(Body body, int callsPerBatch) {
+    double total = 0;
+    for (int b = 0; b < WARMUP_BATCHES; b++) {
+      for (int i = 0; i < callsPerBatch; i++) {
+        total += body.run(i);
+      }
+    }
+    double[] batches = new double[MEASURED_BATCHES];
+    for (int b = 0; b < MEASURED_BATCHES; b++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < callsPerBatch; i++) {
+        total += body.run(i);
+      }
+      batches[b] = (double) (System.nanoTime() - start) / callsPerBatch;
+    }
+    sink = total;
+    java.util.Arrays.sort(batches);
+    return batches[MEASURED_BATCHES / 2];
+  }
+
+  /** Print a result line, e.g. "Vision.update 16 tags FUSED: 1.23 us/call". */
+  static void report(String name, double nanosPerCall) {
+    System.out.printf(java.util.Locale.US, "%s: %.3f us/call%n", name, nanosPerCall / 1000.0);
+  }
+}
@@ -0,0 +1,67 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import org.junit.Test;
+
+/**
+ * MonotoneCubicCurve lookups against the linear scan with piecewise-linear
+ * interpolation that LauncherHelper.lookupRPM() used to run, on a small and
+ * a large table. The curve's cost should stay flat as the table grows while
+ * the scan's grows with it.
+ */
+public class RpmLookupBenchmark {
+  private static final int CALLS_PER_BATCH = 200000;
+  private static final int CURVE_SAMPLES = 256;
+
+  /** {distance, rpm} rows from 1 m, rising and flattening like a measured table. */
+  private static double[][] table(int rows) {
+    double[][] table = new double[rows][];
+    for (int i = 0; i < rows; i++) {
+      double distance = 1.0 + 3.0 * i / (rows - 1);
+      table[i] = new double[] {distance, 1500 + 1600 * distance - 80 * distance * distance};
+    }
+    return table;
+  }
+
+  /** The old lookupRPM(): linear scan for the segment, then linear interpolation. */
+  private static double scan(double[][] table, double distance) {
+    if (distance <= table[0][0]) {
+      return table[0][1];
+    }
+    for (int i = 0; i < table.length - 1; i++) {
+      if (distance <= table[i + 1][0]) {
+        double d0 = table[i][0];
+        double rpm0 = table[i][1];
+        double t = (distance - d0) / (table[i + 1][0] - d0);
+        return rpm0 + t * (table[i + 1][1] - rpm0);
+      }
+    }
+    return table[table.length - 1][1];
+  }
+
+  /** Query distances sweeping the table range and a little past both ends. */
+  private static double query(int i) {
+    return 0.9 + 3.2 * (i % 1024) / 1024.0;
+  }
+
+  private static double timeCurve(int rows) {
+    final MonotoneCubicCurve curve = MonotoneCubicCurve.fromTable(table(rows), CURVE_SAMPLES);
+    double nanos = Benchmark.nanosPerCall(i -> curve.evaluate(query(i)), CALLS_PER_BATCH);
+    Benchmark.report("curve, " + rows + " rows", nanos);
+    return nanos;
+  }
+
+  private static double timeScan(int rows) {
+    final double[][] table = table(rows);
+    double nanos = Benchmark.nanosPerCall(i -> scan(table, query(i)), CALLS_PER_BATCH);
+    Benchmark.report("scan, " + rows + " rows", nanos);
+    return nanos;
+  }
+
+  @Test
+  public void curveAgainstScan() {
+    for (int rows : new int[] {5, 96}) {
+      timeCurve(rows);
+      timeScan(rows);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Per-update cost of Vision with a full frame of VisionFrame.MAX_TAGS (16)
+ * tags, under every tag policy, against a fixed budget. Each call publishes
+ * a frame through FakeVisionSource (one array copy) and processes it with
+ * the filters on.
+ */
+public class VisionTagBenchmark {
+  // Per update on a desktop JVM; the Control Hub is several times slower
+  private static final double UPDATE_BUDGET_MICROS = 10.0;
+  private static final int CALLS_PER_BATCH = 20000;
+
+  private final FakeVisionSource source = new FakeVisionSource();
+  private final Vision vision = new Vision(source);
+  private final VisionFrame frame = new VisionFrame();
+  private Vision.TagPolicy savedPolicy;
+  private boolean savedFilterEnabled;
+
+  @Before
+  public void setUp() {
+    savedPolicy = Vision.TAG_POLICY;
+    savedFilterEnabled = Vision.FILTER_ENABLED;
+    Vision.FILTER_ENABLED = true;
+    // Accept every tag so all 16 go through selection (and fusion)
+    vision.setTargetTagId(-1);
+    frame.valid = true;
+    // Worst case for FUSED: every detection belongs to the chosen goal
+    for (int i = 0; i < VisionFrame.MAX_TAGS; i++) {
+      double range = 1.0 + 0.2 * i;
+      assertTrue(frame.addTag(Vision.RED_GOAL_TAG_ID, 0.5 / (1 + i), 0.3 * i, 5.0, true,
+          0.05 * i, 0.6, range));
+    }
+  }
+
+  @After
+  public void tearDown() {
+    Vision.TAG_POLICY = savedPolicy;
+    Vision.FILTER_ENABLED = savedFilterEnabled;
+  }
+
+  private double timeUpdate(Vision.TagPolicy policy) {
+    Vision.TAG_POLICY = policy;
+    double nanos = Benchmark.nanosPerCall(i -> {
+      frame.receivedNanos = System.nanoTime();
+      source.publish(frame);
+      vision.update();
+      return vision.getSnapshot().distanceMeters;
+    }, CALLS_PER_BATCH);
+    Benchmark.report("Vision.update, 16 tags, " + policy, nanos);
+    return nanos;
+  }
+
+  @Test
+  public void sixteenTagUpdateStaysInBudget() {
+    for (Vision.TagPolicy policy : Vision.TagPolicy.values()) {
+      double nanos = timeUpdate(policy);
+      assertTrue(policy + " took " + nanos / 1000.0 + " us", nanos < UPDATE_BUDGET_MICROS * 1000.0);
+    }
+  }
+}
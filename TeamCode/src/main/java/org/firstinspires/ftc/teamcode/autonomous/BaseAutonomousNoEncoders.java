@@ -2,142 +2,211 @@ package org.firstinspires.ftc.teamcode.autonomous;
 
 import com.acmerobotics.dashboard.config.Config;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
-import com.qualcomm.robotcore.hardware.DcMotor;
-import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.util.ElapsedTime;
+import com.qualcomm.robotcore.util.RobotLog;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.Future;
+import org.firstinspires.ftc.teamcode.classes.Alliance;
+import org.firstinspires.ftc.teamcode.classes.BallisticSolver;
 import org.firstinspires.ftc.teamcode.classes.DefaultRobot;
+import org.firstinspires.ftc.teamcode.classes.InitPrecompute;
+import org.firstinspires.ftc.teamcode.classes.LauncherTableFile;
+import org.firstinspires.ftc.teamcode.classes.LoopProfiler;
+import org.firstinspires.ftc.teamcode.classes.TelemetryManager;
+import org.firstinspires.ftc.teamcode.classes.actions.ActionScheduler;
+import org.firstinspires.ftc.teamcode.classes.actions.Route;
+import org.firstinspires.ftc.teamcode.classes.trajectory.TrajectoryBuilder;
 
 /**
- * Base time-based autonomous: drives backward, fires the shooter, then strafes.
- * Subclasses specify the strafe direction via getStrafePower().
+ * Base autonomous that runs a route file (see Route), ROUTE_NAME.route in
+ * Route.DIRECTORY. Edit the file on the robot to change the route without
+ * rebuilding. Without a valid file it runs the built-in time-based route:
+ * drive backward while the shooter spins up, fire, then strafe while the
+ * flywheel coasts down.
+ * Subclasses specify the alliance; the route is mirrored to it and the goal
+ * tag follows it.
  *
- * Tune the timing and power constants on the actual robot via FTC Dashboard.
+ * The route is parsed, and the launcher tables and vision set up, on a
+ * background thread during init (see InitPrecompute); the run starts once
+ * they are ready. The steps run as actions on an ActionScheduler, so the
+ * subsystems, vision and telemetry are updated every loop.
+ *
+ * Tune the built-in route's timing and power constants via FTC Dashboard.
  */
 @Config
 public abstract class BaseAutonomousNoEncoders extends LinearOpMode {
   private final DefaultRobot robot = new DefaultRobot();
-  private final ElapsedTime timer = new ElapsedTime();
-  private DcMotorEx shooterMotor;
-
+  private final ElapsedTime runtime = new ElapsedTime();
+  private final LoopProfiler profiler = new LoopProfiler();
+  private final ActionScheduler scheduler = new ActionScheduler();
+  private TelemetryManager telemetryManager;
+  private InitPrecompute precompute;
+  private Future<Route> route;
+  private String builtIn;
+  private String routeSource;
+  private Route.Run run;
+
+  // Route file to run, without the .route extension
+  public static String ROUTE_NAME = "basic";
+
+  // Built-in route, used without a route file.
   // Drive power (0.0 to 1.0). Lower = more controllable but slower.
   public static double DRIVE_POWER = 0.5;
 
   // Shooter config
-  public static double SHOOTER_TICKS_PER_REV = 28.0;
+  public static boolean SHOOT_IN_AUTO = true;
   public static double SHOOTER_TARGET_RPM = 6000.0;
+  public static int SHOTS_TO_FIRE = 1;
 
   // Time in seconds for each step. Tune via FTC Dashboard.
   public static double DRIVE_BACKWARD_TIME_SEC = 2.0;
-  // public static double SHOOTER_SPINUP_PAUSE_SEC = 2.0;
-  // public static double LOADER_FIRE_PAUSE_SEC = 5.0;
   public static double STRAFE_TIME_SEC = 2.0;
 
-  /** Returns the strafe power: negative for left (blue), positive for right (red). */
-  protected abstract double getStrafePower();
+  private static final String TAG = "Autonomous";
+  private static final double MAX_SHOT_DISTANCE_METERS = 4.5;
+
+  /** The alliance this OpMode plays for. */
+  protected abstract Alliance getAlliance();
 
   @Override
   public void runOpMode() {
     robot.init(hardwareMap);
-    shooterMotor = initShooterMotor();
-
-    telemetry.addData("Status", "Initialized - Ready to run");
-    telemetry.addData("Shooter", shooterMotor != null ? "OK" : "NOT FOUND");
-    telemetry.update();
-
+    startPrecompute();
+    setupTelemetry();
+
+    while (opModeInInit()) {
+      if (run == null && route.isDone()) {
+        resolveRoute();
+      }
+      telemetryManager.update();
+      sleep(20);
+    }
     waitForStart();
-
-    // Step 1: Drive backward
-    telemetry.addData("Step", "1 - Driving backward");
-    telemetry.update();
-    driveForTime(-DRIVE_POWER, 0, 0, DRIVE_BACKWARD_TIME_SEC);
-
-    /*
-    // Step 2: Start the shooter motor
-    telemetry.addData("Step", "2 - Spinning up shooter");
-    telemetry.update();
-    startShooter();
-
-    // Step 3: Pause to let the shooter spin up
-    pauseForTime(SHOOTER_SPINUP_PAUSE_SEC);
-
-    // Step 4: Raise the loader to fire the ball
-    telemetry.addData("Step", "3 - Raising loader to fire");
-    telemetry.update();
-    robot.raiseLoader();
-
-    // Step 5: Pause while the ball fires
-    pauseForTime(LOADER_FIRE_PAUSE_SEC);
-
-    // Step 6: Lower loader (leave shooter spinning until explicitly stopped)
-    pauseForTime(2.5);
-    robot.lowerLoader();
-    */
-
-    // Step 2: Strafe
-    telemetry.addData("Step", "2 - Strafing");
-    telemetry.update();
-    driveForTime(0, getStrafePower(), 0, STRAFE_TIME_SEC);
+    // Usually a no-op: everything finished during init
+    if (!precompute.awaitAll(this::opModeIsActive)) {
+      return;
+    }
+    if (run == null) {
+      resolveRoute();
+    }
+    runtime.reset();
+    profiler.reset();
+    robot.setPose(0, 0, 0);
+    scheduler.schedule(run);
+
+    while (opModeIsActive() && scheduler.isBusy()) {
+      profiler.startLoop();
+      robot.beginLoop();
+      scheduler.update();
+      profiler.mark(LoopProfiler.Section.DRIVE);
+      robot.update();
+      profiler.mark(LoopProfiler.Section.UPDATE);
+      robot.getVision().update();
+      profiler.mark(LoopProfiler.Section.VISION);
+      telemetryManager.update();
+      profiler.mark(LoopProfiler.Section.TELEMETRY);
+    }
 
     // Stop and report
+    scheduler.cancelAll();
     robot.stopMovement();
-    stopShooter();
+    robot.stopShooter();
     telemetry.addData("Status", "Autonomous complete");
     telemetry.update();
   }
 
-  private DcMotorEx initShooterMotor() {
-    try {
-      DcMotorEx m = hardwareMap.get(DcMotorEx.class, "shooter");
-      // ensure motor is in a mode that supports velocity control
-      m.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-      m.setPower(0.0);
-      return m;
-    } catch (Exception e) {
-      return null;
-    }
+  private void startPrecompute() {
+    precompute = new InitPrecompute(getAlliance());
+    // Keyed by the file's timestamp so a newly tuned table is loaded
+    precompute.submitShared("launcher tables@" + LauncherTableFile.TABLE.lastModified(), () -> {
+      LauncherTableFile.load(new BallisticSolver(), MAX_SHOT_DISTANCE_METERS);
+      return true;
+    });
+    final int goalTagId = getAlliance().getGoalTagId();
+    precompute.run("vision", () -> robot.getVision().setTargetTagId(goalTagId));
+    // Keyed by everything the parsed route depends on
+    final String name = ROUTE_NAME;
+    final String builtIn = builtInRoute();
+    final Alliance alliance = getAlliance();
+    this.builtIn = builtIn;
+    route = precompute.submit("route " + name + "@" + Route.getFile(name).lastModified() + "/"
+            + TrajectoryBuilder.getLimitsKey() + "/" + builtIn,
+        () -> loadRoute(name, builtIn, alliance));
   }
 
-  private void startShooter() {
-    if (shooterMotor == null)
-      return;
-    double ticksPerSec = SHOOTER_TARGET_RPM * SHOOTER_TICKS_PER_REV / 60.0;
-    shooterMotor.setVelocity(-ticksPerSec);
+  /** The built-in route, written for the blue alliance (strafes left). */
+  private static String builtInRoute() {
+    StringBuilder text = new StringBuilder("alliance blue\n");
+    String driveBackward =
+        String.format(Locale.US, "drivefor %s 0 0 %s\n", -DRIVE_POWER, DRIVE_BACKWARD_TIME_SEC);
+    if (SHOOT_IN_AUTO) {
+      // Spin the flywheel up on the way, then fire once it holds speed
+      text.append("parallel deadline\n").append(driveBackward)
+          .append(String.format(Locale.US, "spinup %s\n", SHOOTER_TARGET_RPM))
+          .append("end\n");
+      if (SHOTS_TO_FIRE > 0) {
+        text.append("shoot ").append(SHOTS_TO_FIRE).append('\n');
+      }
+      text.append("stopshooter\n");
+    } else {
+      text.append(driveBackward);
+    }
+    text.append(String.format(Locale.US, "drivefor 0 %s 0 %s\n", -DRIVE_POWER, STRAFE_TIME_SEC));
+    return text.toString();
   }
 
-  private void stopShooter() {
-    if (shooterMotor == null)
-      return;
-    shooterMotor.setVelocity(0);
+  private static Route loadRoute(String name, String builtIn, Alliance alliance) {
+    File file = Route.getFile(name);
+    if (file.isFile()) {
+      try {
+        return Route.load(name, alliance);
+      } catch (IOException | IllegalArgumentException e) {
+        RobotLog.ww(TAG, e, "Running the built-in route instead of %s", file);
+        return Route.parse(builtIn, alliance, "built-in (" + file.getName() + " " + e.getMessage()
+            + ")");
+      }
+    }
+    return Route.parse(builtIn, alliance, "built-in");
   }
 
   /**
-   * Drives at the given power for the specified duration, then stops.
-   * Exits early if the OpMode is stopped.
+   * Build the run from the precomputed route. If the task failed, run the
+   * built-in route instead; the Route line shows why.
    */
-  private void driveForTime(double forward, double strafe, double rotate, double seconds) {
-    timer.reset();
-    // Re-assert drive power each loop iteration to ensure motor controllers
-    // keep the commanded power (prevents external code or mode changes
-    // from briefly zeroing outputs).
-    while (opModeIsActive() && timer.seconds() < seconds) {
-      robot.drive(forward, strafe, rotate);
-      telemetry.addData("Time", "%.1f / %.1f sec", timer.seconds(), seconds);
-      telemetry.update();
-      sleep(50);
+  private void resolveRoute() {
+    Route loaded;
+    try {
+      loaded = InitPrecompute.get(route);
+    } catch (IllegalStateException e) {
+      RobotLog.ww(TAG, e, "Route setup failed, running the built-in route");
+      loaded = Route.parse(builtIn, getAlliance(), "built-in (" + e.getMessage() + ")");
     }
+    routeSource = loaded.getSource();
+    run = loaded.toAction(robot);
+  }
 
-    robot.stopMovement();
+  private StringBuilder appendRoute(StringBuilder out) {
+    return out.append(routeSource != null ? routeSource : "loading");
   }
 
-  /**
-   * Pauses for the specified duration. Exits early if the OpMode is stopped.
-   */
-  private void pauseForTime(double seconds) {
-    timer.reset();
-    while (opModeIsActive() && timer.seconds() < seconds) {
-      telemetry.addData("Pause", "%.1f / %.1f sec", timer.seconds(), seconds);
-      telemetry.update();
-      sleep(50);
-    }
+  private void setupTelemetry() {
+    telemetryManager = new TelemetryManager(telemetry);
+    telemetryManager.addLine("Alliance", out -> out.append(getAlliance()));
+    telemetryManager.addLine("Setup", precompute::appendProgress);
+    telemetryManager.addLine("Shooter init",
+        out -> out.append(robot.isShooterInitialized() ? "OK" : "NOT FOUND"));
+    telemetryManager.addLine("Route", this::appendRoute);
+    telemetryManager.addLine("Step",
+        out -> out.append(scheduler.isBusy() ? run.getCurrentStep() : "Waiting for start"));
+    telemetryManager.addLine("Time",
+        out -> TelemetryManager.appendFixed(out, runtime.seconds(), 1).append(" s"));
+    profiler.addTo(telemetryManager);
+    telemetryManager.addLine("Shooter", out -> {
+      TelemetryManager.appendFixed(out.append("Target: "), robot.getShooterTargetRpm(), 0);
+      TelemetryManager.appendFixed(out.append(" RPM | Actual: "), robot.getShooterRpm(), 0);
+      out.append(" RPM | ").append(robot.getShooterState());
+    });
   }
 }
@@ -1,11 +1,12 @@
 package org.firstinspires.ftc.teamcode.autonomous;
 
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
+import org.firstinspires.ftc.teamcode.classes.Alliance;
 
 @Autonomous(name = "Basic Autonomous - Blue (No Encoders)", group = "1 - Team Code")
 public class BasicAutonomousNoEncodersBlue extends BaseAutonomousNoEncoders {
   @Override
-  protected double getStrafePower() {
-    return -DRIVE_POWER;
+  protected Alliance getAlliance() {
+    return Alliance.BLUE;
   }
 }
\ No newline at end of file
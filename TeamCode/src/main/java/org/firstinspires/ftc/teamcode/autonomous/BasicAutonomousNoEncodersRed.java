@@ -1,11 +1,12 @@
 package org.firstinspires.ftc.teamcode.autonomous;
 
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
+import org.firstinspires.ftc.teamcode.classes.Alliance;
 
 @Autonomous(name = "Basic Autonomous - Red (No Encoders)", group = "1 - Team Code")
 public class BasicAutonomousNoEncodersRed extends BaseAutonomousNoEncoders {
   @Override
-  protected double getStrafePower() {
-    return DRIVE_POWER;
+  protected Alliance getAlliance() {
+    return Alliance.RED;
   }
 }
\ No newline at end of file
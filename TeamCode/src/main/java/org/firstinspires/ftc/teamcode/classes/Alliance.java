@@ -0,0 +1,18 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+/** Which side of the field an OpMode plays for. */
+public enum Alliance {
+  RED(Vision.RED_GOAL_TAG_ID),
+  BLUE(Vision.BLUE_GOAL_TAG_ID);
+
+  private final int goalTagId;
+
+  Alliance(int goalTagId) {
+    this.goalTagId = goalTagId;
+  }
+
+  /** AprilTag ID on this alliance's goal. */
+  public int getGoalTagId() {
+    return goalTagId;
+  }
+}
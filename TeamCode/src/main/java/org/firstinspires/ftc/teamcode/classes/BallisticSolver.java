@@ -0,0 +1,123 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import com.acmerobotics.dashboard.config.Config;
+
+/**
+ * Drag-aware ballistic model of the launcher, used off the control loop to
+ * precompute or extend RPM tables and to sanity-check measured points.
+ *
+ * The ball leaves at a fixed LAUNCH_ANGLE_DEG with a speed proportional to the
+ * flywheel surface speed. Flight is integrated with quadratic air drag, and
+ * bisection on the exit speed finds the shot that passes through the goal
+ * point. Each solve is bounded by MAX_ITERATIONS simulations of at most
+ * MAX_FLIGHT_TIME_SEC, so it is too slow for every loop but fine at init or on
+ * a background thread.
+ */
+@Config
+public class BallisticSolver {
+  private static final double GRAVITY = 9.81; // m/s^2
+  private static final double TIME_STEP_SEC = 0.002;
+
+  public static double LAUNCH_ANGLE_DEG = 45.0;
+  public static double FLYWHEEL_RADIUS_M = 0.048;
+  // Ball exit speed as a fraction of flywheel surface speed
+  public static double EXIT_SPEED_EFFICIENCY = 0.5;
+  public static double BALL_MASS_KG = 0.075;
+  public static double BALL_DIAMETER_M = 0.127;
+  public static double DRAG_COEFFICIENT = 0.5;
+  public static double AIR_DENSITY = 1.2; // kg/m^3
+  public static double MAX_EXIT_SPEED_MPS = 20.0;
+  public static int MAX_ITERATIONS = 30;
+  public static double MAX_FLIGHT_TIME_SEC = 3.0;
+  // Exit speed tolerance at which bisection stops
+  public static double SPEED_TOLERANCE_MPS = 0.005;
+
+  /** Result of one solve. */
+  public static final class Solution {
+    public final boolean solved;
+    public final double exitSpeedMps;
+    public final double rpm;
+    public final double timeOfFlightSec;
+
+    Solution(boolean solved, double exitSpeedMps, double rpm, double timeOfFlightSec) {
+      this.solved = solved;
+      this.exitSpeedMps = exitSpeedMps;
+      this.rpm = rpm;
+      this.timeOfFlightSec = timeOfFlightSec;
+    }
+  }
+
+  private static final Solution UNREACHABLE = new Solution(false, 0, 0, 0);
+
+  // Scratch output of simulate(), so the bisection loop does not allocate
+  private double simulatedHeight;
+  private double simulatedTime;
+
+  /**
+   * Find the flywheel RPM that puts the ball through a point at the given
+   * horizontal distance and height relative to the launcher exit.
+   *
+   * @return the solution, or one with solved == false if the point is out of
+   *     reach below MAX_EXIT_SPEED_MPS
+   */
+  public Solution solve(double distanceMeters, double heightMeters) {
+    if (!(distanceMeters > 0)) {
+      return UNREACHABLE;
+    }
+    double low = 0;
+    double high = MAX_EXIT_SPEED_MPS;
+    if (!simulate(high, distanceMeters) || simulatedHeight < heightMeters) {
+      return UNREACHABLE;
+    }
+    for (int i = 0; i < MAX_ITERATIONS && high - low > SPEED_TOLERANCE_MPS; i++) {
+      double mid = 0.5 * (low + high);
+      if (simulate(mid, distanceMeters) && simulatedHeight >= heightMeters) {
+        high = mid;
+      } else {
+        low = mid;
+      }
+    }
+    simulate(high, distanceMeters);
+    return new Solution(true, high, exitSpeedToRpm(high), simulatedTime);
+  }
+
+  /** Flywheel RPM that gives the ball this exit speed. */
+  public static double exitSpeedToRpm(double exitSpeedMps) {
+    double surfaceSpeed = exitSpeedMps / EXIT_SPEED_EFFICIENCY;
+    return surfaceSpeed / (2 * Math.PI * FLYWHEEL_RADIUS_M) * 60.0;
+  }
+
+  /**
+   * Fly a ball launched at the given speed until it reaches the distance.
+   * Sets simulatedHeight and simulatedTime.
+   *
+   * @return false if the ball never gets that far
+   */
+  private boolean simulate(double exitSpeed, double distance) {
+    double angle = Math.toRadians(LAUNCH_ANGLE_DEG);
+    double area = Math.PI * BALL_DIAMETER_M * BALL_DIAMETER_M / 4;
+    double dragPerMass = 0.5 * AIR_DENSITY * DRAG_COEFFICIENT * area / BALL_MASS_KG;
+    double x = 0, y = 0, t = 0;
+    double vx = exitSpeed * Math.cos(angle);
+    double vy = exitSpeed * Math.sin(angle);
+    double dt = TIME_STEP_SEC;
+    while (t < MAX_FLIGHT_TIME_SEC && vx > 0) {
+      double speed = Math.sqrt(vx * vx + vy * vy);
+      // Semi-implicit Euler: update velocity first, then position
+      vx -= dragPerMass * speed * vx * dt;
+      vy -= (GRAVITY + dragPerMass * speed * vy) * dt;
+      double nextX = x + vx * dt;
+      double nextY = y + vy * dt;
+      if (nextX >= distance) {
+        double f = (distance - x) / (nextX - x);
+        simulatedHeight = y + f * (nextY - y);
+        simulatedTime = t + f * dt;
+        return true;
+      }
+      x = nextX;
+      y = nextY;
+      t += dt;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,113 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+/**
+ * One-dimensional constant-velocity Kalman filter.
+ *
+ * State is {value, rate} with white-noise acceleration as the process model.
+ * Call predict() with the time since the last step, then correct() with a
+ * measurement. Measurements further than gateSigma standard deviations from
+ * the prediction are rejected as outliers; after maxRejects rejections in a
+ * row the filter assumes the target really moved and restarts on the new
+ * measurement. Everything is primitive math, so no step allocates.
+ */
+public class ConstantVelocityFilter {
+  private double accelStd = 1.0;
+  private double measurementStd = 0.1;
+
+  private boolean initialized = false;
+  private double value, rate;
+  private double p00, p01, p11;
+  private int rejectedInRow = 0;
+
+  /**
+   * Set the noise model. Safe to call every step so tunables apply live.
+   *
+   * @param accelStd expected acceleration of the true value (units/s^2)
+   * @param measurementStd measurement noise (units)
+   */
+  public void configure(double accelStd, double measurementStd) {
+    this.accelStd = Math.max(accelStd, 1e-9);
+    this.measurementStd = Math.max(measurementStd, 1e-9);
+  }
+
+  /** Forget the state; the next measurement is taken as-is. */
+  public void reset() {
+    initialized = false;
+    rejectedInRow = 0;
+  }
+
+  /** Restart on a measurement with zero rate. */
+  public void reset(double measurement) {
+    initialized = true;
+    rejectedInRow = 0;
+    value = measurement;
+    rate = 0;
+    p00 = measurementStd * measurementStd;
+    p01 = 0;
+    // Rate is unknown: allow about a second's worth of acceleration
+    p11 = accelStd * accelStd;
+  }
+
+  /** Advance the state by dtSec seconds. */
+  public void predict(double dtSec) {
+    if (!initialized || dtSec <= 0) {
+      return;
+    }
+    double q = accelStd * accelStd;
+    double dt2 = dtSec * dtSec;
+    value += rate * dtSec;
+    p00 += 2 * dtSec * p01 + dt2 * p11 + q * dt2 * dt2 / 4;
+    p01 += dtSec * p11 + q * dt2 * dtSec / 2;
+    p11 += q * dt2;
+  }
+
+  /**
+   * Fuse a measurement.
+   *
+   * @param gateSigma outlier gate in standard deviations, or 0 to disable
+   * @param maxRejects consecutive outliers tolerated before restarting
+   * @return false if the measurement was rejected as an outlier
+   */
+  public boolean correct(double measurement, double gateSigma, int maxRejects) {
+    if (!initialized) {
+      reset(measurement);
+      return true;
+    }
+    double s = p00 + measurementStd * measurementStd;
+    double innovation = measurement - value;
+    if (gateSigma > 0 && innovation * innovation > gateSigma * gateSigma * s) {
+      if (++rejectedInRow <= maxRejects) {
+        return false;
+      }
+      reset(measurement);
+      return true;
+    }
+    rejectedInRow = 0;
+    double k0 = p00 / s;
+    double k1 = p01 / s;
+    value += k0 * innovation;
+    rate += k1 * innovation;
+    p11 -= k1 * p01;
+    p01 -= k0 * p01;
+    p00 -= k0 * p00;
+    return true;
+  }
+
+  public boolean isInitialized() {
+    return initialized;
+  }
+
+  public double getValue() {
+    return value;
+  }
+
+  /** Estimated rate of change (units/s). */
+  public double getRate() {
+    return rate;
+  }
+
+  /** Variance of the value estimate (units^2). */
+  public double getVariance() {
+    return p00;
+  }
+}
@@ -1,34 +1,152 @@
 package org.firstinspires.ftc.teamcode.classes;
 
 import com.acmerobotics.dashboard.config.Config;
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.hardware.DcMotor;
-import com.qualcomm.robotcore.hardware.DcMotorSimple;
 import com.qualcomm.robotcore.hardware.HardwareMap;
+import java.util.List;
+import org.firstinspires.ftc.teamcode.classes.robot.CachingMotor;
 import org.firstinspires.ftc.teamcode.classes.robot.DriveSubsystem;
+import org.firstinspires.ftc.teamcode.classes.robot.ImuReader;
+import org.firstinspires.ftc.teamcode.classes.robot.LoaderSubsystem;
+import org.firstinspires.ftc.teamcode.classes.robot.Localizer;
+import org.firstinspires.ftc.teamcode.classes.robot.MecanumOdometry;
+import org.firstinspires.ftc.teamcode.classes.robot.OctoQuadLocalizer;
+import org.firstinspires.ftc.teamcode.classes.robot.PinpointLocalizer;
+import org.firstinspires.ftc.teamcode.classes.robot.PoseSnapshot;
+import org.firstinspires.ftc.teamcode.classes.robot.ShooterSubsystem;
+import org.firstinspires.ftc.teamcode.classes.robot.TurretSubsystem;
 
 @Config
 public class DefaultRobot {
   private DriveSubsystem drive = null;
-  private DcMotor intakeMotor = null;
-  private DcMotor loaderMotor = null;
+  private CachingMotor intakeMotor = null;
+  private LoaderSubsystem loader = null;
+  private ShooterSubsystem shooter = null;
+  private TurretSubsystem turret = null;
   private Vision vision = null;
+  private Localizer localizer = null;
+  private ImuReader imuReader = null;
+  private final LeadCompensator lead = new LeadCompensator();
+  private String localizerInitError = null;
+  private String imuInitError = null;
   private String loaderInitError = null;
+  private String shooterInitError = null;
+  private String turretInitError = null;
 
   public static double LOADER_MOTOR_POWER = 0.5;
 
+  /** Where the field pose comes from. */
+  public enum LocalizerType { DRIVE_ENCODERS, PINPOINT, OCTOQUAD }
+
+  // Read at init. A dead-wheel localizer that fails to init falls back to the
+  // drive encoders.
+  public static LocalizerType LOCALIZER = LocalizerType.DRIVE_ENCODERS;
+
+  // Hold heading with the IMU in driveWithGamepad() while the rotate stick is centered
+  public static boolean GAMEPAD_HEADING_HOLD = false;
+
+  private static final double METERS_PER_INCH = 0.0254;
+
+  // Read each hub's sensor data in one bulk transaction per loop. Turn off on
+  // the dashboard to compare loop times against per-call hub reads.
+  public static boolean BULK_CACHING_ENABLED = true;
+
   private double lastForward, lastStrafe, lastRotate;
   private double intakePower = 0.0;
 
+  // Array rather than List so the per-loop cache clear does not allocate an iterator
+  private LynxModule[] hubs = new LynxModule[0];
+  private LynxModule.BulkCachingMode hubCachingMode = null;
+
   public void init(HardwareMap hardwareMap) {
+    initHubs(hardwareMap);
     drive = new DriveSubsystem(hardwareMap);
+    initImu(hardwareMap);
+    initLocalizer(hardwareMap);
     initIntakeMotor(hardwareMap);
     initLoaderMotor(hardwareMap);
+    initShooter(hardwareMap);
+    initTurret(hardwareMap);
     vision = new Vision(hardwareMap);
+    // Odometry poses let Vision predict stale camera results forward
+    vision.setPoseHistory(localizer.getHistory());
+  }
+
+  private void initHubs(HardwareMap hardwareMap) {
+    List<LynxModule> allHubs = hardwareMap.getAll(LynxModule.class);
+    hubs = allHubs.toArray(new LynxModule[0]);
+    hubCachingMode = null;
+    applyBulkCachingMode();
+  }
+
+  private void applyBulkCachingMode() {
+    LynxModule.BulkCachingMode mode =
+        BULK_CACHING_ENABLED ? LynxModule.BulkCachingMode.MANUAL : LynxModule.BulkCachingMode.OFF;
+    if (mode == hubCachingMode) {
+      return;
+    }
+    for (LynxModule hub : hubs) {
+      hub.setBulkCachingMode(mode);
+    }
+    hubCachingMode = mode;
+  }
+
+  /**
+   * Start a control loop iteration. Clears the hub bulk caches so this loop's
+   * encoder, velocity and busy reads come from one fresh bulk read per hub.
+   * Call exactly once at the top of every loop iteration, before reading any
+   * sensors. Loop timing is measured with LoopProfiler.
+   */
+  public void beginLoop() {
+    applyBulkCachingMode();
+    if (hubCachingMode == LynxModule.BulkCachingMode.MANUAL) {
+      for (LynxModule hub : hubs) {
+        hub.clearBulkCache();
+      }
+    }
+  }
+
+  /** True when hub reads are served from a per-loop bulk cache. */
+  public boolean isBulkCaching() {
+    return hubCachingMode == LynxModule.BulkCachingMode.MANUAL;
+  }
+
+  private void initLocalizer(HardwareMap hardwareMap) {
+    localizer = null;
+    localizerInitError = null;
+    try {
+      if (LOCALIZER == LocalizerType.PINPOINT) {
+        localizer = new PinpointLocalizer(hardwareMap);
+      } else if (LOCALIZER == LocalizerType.OCTOQUAD) {
+        localizer = new OctoQuadLocalizer(hardwareMap);
+      }
+    } catch (Exception e) {
+      localizerInitError = e.getMessage();
+    }
+    if (localizer == null) {
+      if (imuReader == null && localizerInitError == null) {
+        localizerInitError = imuInitError;
+      }
+      localizer = new MecanumOdometry(drive, imuReader);
+    }
+  }
+
+  /** The hub IMU, read in the background, for odometry heading and heading hold. */
+  private void initImu(HardwareMap hardwareMap) {
+    imuReader = null;
+    imuInitError = null;
+    try {
+      imuReader = new ImuReader(MecanumOdometry.initImu(hardwareMap));
+    } catch (Exception e) {
+      imuInitError = e.getMessage();
+    }
+    drive.setImu(imuReader);
   }
 
   private void initIntakeMotor(HardwareMap hardwareMap) {
     try {
-      intakeMotor = hardwareMap.get(DcMotor.class, "intake");
+      intakeMotor = new CachingMotor(hardwareMap.get(DcMotor.class, "intake"));
       intakeMotor.setPower(0.0);
     } catch (Exception ignored) {
       intakeMotor = null;
@@ -37,40 +155,120 @@ public class DefaultRobot {
 
   private void initLoaderMotor(HardwareMap hardwareMap) {
     try {
-      loaderMotor = hardwareMap.get(DcMotor.class, "loader");
-      loaderMotor.setDirection(DcMotorSimple.Direction.FORWARD);
-      loaderMotor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
-      loaderMotor.setPower(0.0);
+      loader = new LoaderSubsystem(hardwareMap);
     } catch (Exception e) {
-      loaderMotor = null;
+      loader = null;
       loaderInitError = e.getMessage();
     }
   }
 
+  private void initShooter(HardwareMap hardwareMap) {
+    try {
+      shooter = new ShooterSubsystem(hardwareMap);
+    } catch (Exception e) {
+      shooter = null;
+      shooterInitError = e.getMessage();
+    }
+  }
+
+  private void initTurret(HardwareMap hardwareMap) {
+    try {
+      turret = new TurretSubsystem(hardwareMap);
+    } catch (Exception e) {
+      turret = null;
+      turretInitError = e.getMessage();
+    }
+  }
+
   public boolean isLoaderInitialized() {
-    return loaderMotor != null;
+    return loader != null;
   }
   public String getLoaderInitError() {
     return loaderInitError;
   }
 
   public int getLoaderPosition() {
-    if (loaderMotor != null) {
-      return loaderMotor.getCurrentPosition();
+    if (loader != null) {
+      return loader.getPosition();
     }
     return -1;
   }
 
+  /**
+   * Advance per-loop subsystem state (localizer, shot lead, flywheel control,
+   * turret aim, loader position moves). A shot detected by the shooter ends
+   * the loader's fire stroke right away. Call once per loop.
+   */
+  public void update() {
+    drive.updateVelocity();
+    localizer.update();
+    VisionSnapshot snapshot = vision.getSnapshot();
+    // A camera on the turret measures tx from the turret, not the chassis
+    vision.setCameraMountHistory(
+        turret != null && TurretSubsystem.CAMERA_ON_TURRET ? turret.getAngleHistory() : null);
+    updateLead(snapshot);
+    if (shooter != null) {
+      shooter.update();
+    }
+    if (turret != null) {
+      turret.setLeadDegrees(lead.getLeadDegrees());
+      turret.update(snapshot, getYawRateDegPerSec());
+    }
+    if (loader != null) {
+      if (shooter != null && shooter.wasShotDetected()) {
+        loader.onShotReleased();
+      }
+      loader.update();
+    }
+  }
+
+  /**
+   * Lead the goal by the chassis velocity. The goal bearing is the turret's
+   * tracked bearing while it has a lock (the turret's zero must face robot
+   * forward), else the camera's -tx, turned by the turret angle when the
+   * camera rides on the turret.
+   */
+  private void updateLead(VisionSnapshot snapshot) {
+    if (!vision.hasTarget()) {
+      lead.reset();
+      return;
+    }
+    double bearing;
+    if (turret != null && turret.hasLock()) {
+      bearing = turret.getGoalBearingDegrees();
+    } else if (turret != null && TurretSubsystem.CAMERA_ON_TURRET) {
+      bearing = turret.getAngleDegrees() - snapshot.tx;
+    } else {
+      bearing = -snapshot.tx;
+    }
+    PoseSnapshot pose = localizer.getPose();
+    lead.update(vision.getPredictedDistanceToGoalMeters(), bearing,
+        pose.getForwardVelocity() * METERS_PER_INCH, pose.getLeftVelocity() * METERS_PER_INCH);
+  }
+
+  /** Open-loop drive, for callers with their own heading control. */
   public void drive(double forward, double strafe, double rotate) {
     drive.drive(forward, strafe, rotate);
   }
 
+  /** Drive, holding the heading with the IMU while rotate is zero. */
+  public void driveHoldingHeading(double forward, double strafe, double rotate) {
+    drive.driveHoldingHeading(forward, strafe, rotate);
+  }
+
   public void driveWithGamepad(double forward, double strafe, double rotate) {
     lastForward = forward;
     lastStrafe = strafe;
     lastRotate = rotate;
-    drive.drive(forward, strafe, rotate);
-    drive.updateTelemetryPowers();
+    if (GAMEPAD_HEADING_HOLD) {
+      drive.driveHoldingHeading(forward, strafe, rotate);
+    } else {
+      drive.drive(forward, strafe, rotate);
+    }
+  }
+
+  public boolean isHoldingHeading() {
+    return drive.isHoldingHeading();
   }
 
   public void stopMovement() {
@@ -102,6 +300,34 @@ public class DefaultRobot {
     return intakePower;
   }
 
+  /** Motor power writes sent to the hubs by the drive and mechanism motors. */
+  public long getSentMotorWrites() {
+    long sent = drive.getSentWrites();
+    if (intakeMotor != null)
+      sent += intakeMotor.getSentWrites();
+    if (loader != null)
+      sent += loader.getSentWrites();
+    if (shooter != null)
+      sent += shooter.getSentWrites();
+    if (turret != null)
+      sent += turret.getSentWrites();
+    return sent;
+  }
+
+  /** Motor power writes skipped because the commanded value had not changed. */
+  public long getSuppressedMotorWrites() {
+    long suppressed = drive.getSuppressedWrites();
+    if (intakeMotor != null)
+      suppressed += intakeMotor.getSuppressedWrites();
+    if (loader != null)
+      suppressed += loader.getSuppressedWrites();
+    if (shooter != null)
+      suppressed += shooter.getSuppressedWrites();
+    if (turret != null)
+      suppressed += turret.getSuppressedWrites();
+    return suppressed;
+  }
+
   public void setIntakePower(double power) {
     intakePower = Utilities.clamp(power);
     if (intakeMotor != null) {
@@ -110,10 +336,8 @@ public class DefaultRobot {
   }
 
   public void setLoaderPower(double power) {
-    if (loaderMotor != null) {
-      // Use Encoders
-      loaderMotor.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-      loaderMotor.setPower(power);
+    if (loader != null) {
+      loader.setManualPower(power);
     }
   }
 
@@ -129,12 +353,186 @@ public class DefaultRobot {
     setLoaderPower(0.0);
   }
 
+  /**
+   * Fire one ball: raise the loader to its fire position, then return it home.
+   * Ignored while a previous fire is still in progress.
+   */
+  public void fireLoader() {
+    if (loader != null) {
+      loader.fire();
+    }
+  }
+
+  /** Lower the loader to its home position under position control. */
+  public void homeLoader() {
+    if (loader != null) {
+      loader.lowerToHome();
+    }
+  }
+
+  /** True while the loader is running a position move (fire or home). */
+  public boolean isLoaderMoving() {
+    return loader != null && loader.isMoving();
+  }
+
+  public LoaderSubsystem.State getLoaderState() {
+    return loader != null ? loader.getState() : LoaderSubsystem.State.IDLE;
+  }
+
+  public boolean isShooterInitialized() {
+    return shooter != null;
+  }
+  public String getShooterInitError() {
+    return shooterInitError;
+  }
+
+  /** Spin the flywheel toward the given RPM; 0 lets it coast down. */
+  public void setShooterRpm(double rpm) {
+    if (shooter != null) {
+      shooter.setTargetRpm(rpm);
+    }
+  }
+
+  public void stopShooter() {
+    if (shooter != null) {
+      shooter.stop();
+    }
+  }
+
+  /** True once the flywheel has held its target RPM long enough to fire. */
+  public boolean isShooterReady() {
+    return shooter != null && shooter.isReady();
+  }
+
+  public double getShooterRpm() {
+    return shooter != null ? shooter.getMeasuredRpm() : 0.0;
+  }
+  public double getShooterTargetRpm() {
+    return shooter != null ? shooter.getTargetRpm() : 0.0;
+  }
+  public int getShotCount() {
+    return shooter != null ? shooter.getShotCount() : 0;
+  }
+  public double getLastReleaseRpm() {
+    return shooter != null ? shooter.getLastReleaseRpm() : 0.0;
+  }
+  public ShooterSubsystem.State getShooterState() {
+    return shooter != null ? shooter.getState() : ShooterSubsystem.State.STOPPED;
+  }
+
+  /** Robot yaw rate (deg/s, CCW positive) from the localizer. */
+  public double getYawRateDegPerSec() {
+    return Math.toDegrees(localizer.getPose().yawRate);
+  }
+
+  /** Latest field pose and velocity (inches, radians). Safe from any thread. */
+  public PoseSnapshot getPose() {
+    return localizer.getPose();
+  }
+
+  /** Move the tracked pose, e.g. to the autonomous start position. */
+  public void setPose(double xInches, double yInches, double headingRadians) {
+    localizer.setPose(xInches, yInches, headingRadians);
+  }
+
+  public String getLocalizerName() {
+    return localizer.getName();
+  }
+  /** Why the configured localizer (or the IMU) did not initialize, or null. */
+  public String getLocalizerInitError() {
+    return localizerInitError;
+  }
+  public boolean isImuInitialized() {
+    return imuReader != null;
+  }
+  public String getImuInitError() {
+    return imuInitError;
+  }
+  /** Duration of the last background IMU read in milliseconds, or 0 without an IMU. */
+  public double getImuReadMs() {
+    return imuReader != null ? imuReader.getReadLatencyNanos() / 1e6 : 0;
+  }
+  /** Time the localizer spent reading its device this loop, in milliseconds. */
+  public double getLocalizerReadMs() {
+    return localizer.getReadLatencyNanos() / 1e6;
+  }
+
+  /**
+   * Flywheel RPM for the lead-compensated (virtual) goal distance, or 0 if no
+   * goal is in view. Uses the distance computed in the last update().
+   */
+  public double getRequiredShooterRpm() {
+    if (!vision.hasTarget() || lead.getDistanceMeters() <= 0) {
+      return 0.0;
+    }
+    return LauncherHelper.lookupRPM(lead.getDistanceMeters(), vision.getHeightToGoalMeters());
+  }
+
+  /** Turret aim offset for shooting on the move, degrees CCW. */
+  public double getLeadDegrees() {
+    return lead.getLeadDegrees();
+  }
+
+  public boolean isTurretInitialized() {
+    return turret != null;
+  }
+  public String getTurretInitError() {
+    return turretInitError;
+  }
+
+  /** Turn the turret open-loop (positive = CCW). Cancels auto-aim. */
+  public void setTurretPower(double power) {
+    if (turret != null) {
+      turret.setManualPower(power);
+    }
+  }
+
+  /** Lock the turret onto the goal seen by Vision, or release it. */
+  public void setTurretAutoAim(boolean enabled) {
+    if (turret != null) {
+      turret.setAutoAim(enabled);
+    }
+  }
+
+  public boolean isTurretAutoAim() {
+    return turret != null && turret.isAutoAim();
+  }
+  public boolean isTurretOnTarget() {
+    return turret != null && turret.isOnTarget();
+  }
+  public boolean hasTurretLock() {
+    return turret != null && turret.hasLock();
+  }
+  public double getTurretAngleDegrees() {
+    return turret != null ? turret.getAngleDegrees() : 0.0;
+  }
+  public double getTurretSetpointDegrees() {
+    return turret != null ? turret.getSetpointDegrees() : 0.0;
+  }
+
+  public void stopTurret() {
+    if (turret != null) {
+      turret.stop();
+    }
+  }
+
   public Vision getVision() {
     return vision;
   }
 
+  /**
+   * Zero the drive encoders. The bulk caches are cleared too, so the
+   * localizer's new baseline comes from a read after the reset rather than
+   * this loop's cached pre-reset ticks.
+   */
   public void resetEncoders() {
     drive.resetEncoders();
+    if (hubCachingMode == LynxModule.BulkCachingMode.MANUAL) {
+      for (LynxModule hub : hubs) {
+        hub.clearBulkCache();
+      }
+    }
+    localizer.onDriveEncodersReset();
   }
   public void setTargetPositions(int fl, int fr, int bl, int br) {
     drive.setTargetPositions(fl, fr, bl, br);
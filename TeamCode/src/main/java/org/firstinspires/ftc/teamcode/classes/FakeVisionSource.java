@@ -0,0 +1,70 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+/**
+ * Scriptable VisionSource for running Vision without a Limelight, e.g. on a
+ * desktop JVM or on a robot with the camera unplugged.
+ *
+ * Each call to publish() makes one new result available to the next read();
+ * reads in between return false, like a camera that has not produced a new
+ * frame. Safe to call from a different thread than the reader.
+ */
+public class FakeVisionSource implements VisionSource {
+  private final VisionFrame pending = new VisionFrame();
+  private boolean hasPending = false;
+  private boolean connected = true;
+  private int pipeline = 0;
+
+  /** Publish a result with a single tag seen at the given target-space pose. */
+  public synchronized void publishTag(
+      int tagId, double x, double y, double z, double tx, double ty, double area) {
+    pending.clear();
+    pending.valid = true;
+    pending.tx = tx;
+    pending.ty = ty;
+    pending.addTag(tagId, area, tx, ty, true, x, y, z);
+    pending.receivedNanos = System.nanoTime();
+    hasPending = true;
+  }
+
+  /** Publish a valid result that contains no tags. */
+  public synchronized void publishNoTarget() {
+    pending.clear();
+    pending.valid = true;
+    pending.receivedNanos = System.nanoTime();
+    hasPending = true;
+  }
+
+  /** Publish an arbitrary frame (copied). */
+  public synchronized void publish(VisionFrame frame) {
+    pending.copyFrom(frame);
+    hasPending = true;
+  }
+
+  public synchronized void setConnected(boolean connected) {
+    this.connected = connected;
+  }
+
+  public synchronized int getPipeline() {
+    return pipeline;
+  }
+
+  @Override
+  public synchronized boolean isConnected() {
+    return connected;
+  }
+
+  @Override
+  public synchronized boolean read(VisionFrame frame) {
+    if (!connected || !hasPending) {
+      return false;
+    }
+    frame.copyFrom(pending);
+    hasPending = false;
+    return true;
+  }
+
+  @Override
+  public synchronized void setPipeline(int pipeline) {
+    this.pipeline = pipeline;
+  }
+}
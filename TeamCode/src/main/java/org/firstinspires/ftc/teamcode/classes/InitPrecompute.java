@@ -0,0 +1,186 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import com.qualcomm.robotcore.util.RobotLog;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs an autonomous OpMode's setup work (trajectories, launcher tables,
+ * vision configuration) on a background thread during init, so none of it
+ * costs match time.
+ *
+ * Submit the tasks right after robot.init(), show getProgress() while
+ * waiting for start, then call awaitAll() after waitForStart(): the run
+ * phase only begins once every task has finished. Results are read with
+ * get(), which never blocks after awaitAll().
+ *
+ * Results of submit() are cached for the life of the app, keyed by alliance
+ * and name, so running the Blue OpMode after the Red one only computes the
+ * Blue results once. Fold any tunables a result depends on into its name so
+ * a Dashboard change computes a fresh result. Tasks that fail are not
+ * cached.
+ */
+public class InitPrecompute {
+  private static final String TAG = "InitPrecompute";
+  private static final String SHARED = "ANY";
+
+  // One daemon thread shared by all OpModes: tasks run in submission order
+  private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(work -> {
+    Thread thread = new Thread(work, "Init precompute");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private static final ConcurrentHashMap<String, Future<?>> CACHE = new ConcurrentHashMap<>();
+
+  private final Alliance alliance;
+  private final ArrayList<String> names = new ArrayList<>();
+  private final ArrayList<Future<?>> tasks = new ArrayList<>();
+
+  /** @param alliance key for cached results, or null if nothing is per-alliance */
+  public InitPrecompute(Alliance alliance) {
+    this.alliance = alliance;
+  }
+
+  /**
+   * Compute a result for this OpMode's alliance, or reuse the cached one.
+   *
+   * @throws IllegalStateException if the OpMode has no alliance
+   */
+  public <T> Future<T> submit(String name, Callable<T> work) {
+    if (alliance == null) {
+      throw new IllegalStateException("no alliance set for " + name);
+    }
+    return cached(alliance.name(), name, work);
+  }
+
+  /** Compute a result that is the same for both alliances, or reuse the cached one. */
+  public <T> Future<T> submitShared(String name, Callable<T> work) {
+    return cached(SHARED, name, work);
+  }
+
+  /** Run setup work that must happen every init, e.g. configuring hardware. */
+  public Future<?> run(String name, Runnable work) {
+    return track(name, EXECUTOR.submit(work));
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Future<T> cached(String side, String name, Callable<T> work) {
+    String key = side + "/" + name;
+    Future<?> future = CACHE.get(key);
+    if (future == null || failed(future)) {
+      future = EXECUTOR.submit(work);
+      CACHE.put(key, future);
+    } else {
+      RobotLog.ii(TAG, "Reusing %s", key);
+    }
+    return track(name, (Future<T>) future);
+  }
+
+  private <F extends Future<?>> F track(String name, F future) {
+    names.add(name);
+    tasks.add(future);
+    return future;
+  }
+
+  private static boolean failed(Future<?> future) {
+    if (!future.isDone()) {
+      return false;
+    }
+    try {
+      future.get();
+      return false;
+    } catch (ExecutionException | InterruptedException | RuntimeException e) {
+      return true;
+    }
+  }
+
+  /** Number of submitted tasks that have finished (or failed). */
+  public int getDoneCount() {
+    int done = 0;
+    for (int i = 0; i < tasks.size(); i++) {
+      if (tasks.get(i).isDone()) {
+        done++;
+      }
+    }
+    return done;
+  }
+
+  public int getTaskCount() {
+    return tasks.size();
+  }
+
+  public boolean isDone() {
+    return getDoneCount() == tasks.size();
+  }
+
+  /** Append e.g. "2/3 (trajectories)" naming the first unfinished task. */
+  public StringBuilder appendProgress(StringBuilder out) {
+    out.append(getDoneCount()).append('/').append(tasks.size());
+    for (int i = 0; i < tasks.size(); i++) {
+      if (!tasks.get(i).isDone()) {
+        return out.append(" (").append(names.get(i)).append(')');
+      }
+    }
+    return out.append(" ready");
+  }
+
+  /**
+   * Block until every task has finished, checking keepWaiting between short
+   * waits so a stop request is not held up.
+   *
+   * @return true if all tasks finished, false if keepWaiting turned false
+   */
+  public boolean awaitAll(BooleanSupplier keepWaiting) {
+    for (int i = 0; i < tasks.size(); i++) {
+      Future<?> task = tasks.get(i);
+      while (!task.isDone()) {
+        if (!keepWaiting.getAsBoolean()) {
+          return false;
+        }
+        try {
+          task.get(10, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+          // Check keepWaiting again
+        } catch (ExecutionException e) {
+          break;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Result of a finished task.
+   *
+   * @throws IllegalStateException if the task failed or has not finished
+   */
+  public static <T> T get(Future<T> future) {
+    if (!future.isDone()) {
+      throw new IllegalStateException("precompute task still running");
+    }
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("precompute task failed: " + e.getCause(), e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("interrupted", e);
+    }
+  }
+
+  /** Drop every cached result, e.g. after changing a file they were built from. */
+  public static void clearCache() {
+    CACHE.clear();
+  }
+}
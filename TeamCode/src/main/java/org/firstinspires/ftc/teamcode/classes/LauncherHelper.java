@@ -1,9 +1,26 @@
 package org.firstinspires.ftc.teamcode.classes;
 
+import java.util.Arrays;
+
 /**
  * Lookup-table based launcher RPM calculator.
  * Replace placeholder values with empirically measured {distance_meters, rpm}
  * pairs.
+ *
+ * The table is compiled once into a MonotoneCubicCurve, so lookups are O(1)
+ * however many points the table has. setRpmTable() swaps in a new table at
+ * runtime.
+ *
+ * Once measured, a 2-D grid keyed on distance and goal height difference
+ * (LauncherTableFile.GRID, loaded through setRpmGrid) takes over, so shots
+ * from elevated or tilted positions use their own RPMs. Until then the 1-D
+ * table is used for every height.
+ *
+ * Beyond the last measured distance, extendRpmTable() fills in points from
+ * the BallisticSolver instead of clamping.
+ *
+ * buildTimeOfFlightCurve() precomputes the ball's flight time against
+ * distance from the same model, for leading shots taken on the move.
  */
 public final class LauncherHelper {
   private LauncherHelper() {}
@@ -16,32 +33,165 @@ public final class LauncherHelper {
   private static final double[][] RPM_TABLE = {
       {1.0, 2000}, {1.5, 2800}, {2.0, 3500}, {2.5, 4200}, {3.0, 5000}};
 
+  // Grid points the curve is resampled onto; plenty for a few meters of range
+  private static final int RPM_CURVE_SAMPLES = 256;
+
+  // Model-extended rows: spacing, and goal height above the launcher exit
+  private static final double EXTENSION_STEP_METERS = 0.25;
+  private static final double NOMINAL_GOAL_HEIGHT_METERS = 0.8;
+
+  private static volatile double[][] measuredTable = RPM_TABLE;
+
+  private static volatile MonotoneCubicCurve rpmCurve =
+      MonotoneCubicCurve.fromTable(RPM_TABLE, RPM_CURVE_SAMPLES);
+  private static volatile LookupGrid2D rpmGrid = null; // null until a grid is measured
+  private static volatile MonotoneCubicCurve timeOfFlightCurve = null; // null until built
+
   /**
-   * Linearly interpolate RPM from the lookup table. Clamps at boundaries.
+   * Interpolate RPM from the lookup table with monotone cubic interpolation.
+   * Clamps at boundaries.
    */
   public static double lookupRPM(double distanceMeters) {
-    if (distanceMeters <= RPM_TABLE[0][0]) {
-      return RPM_TABLE[0][1];
-    }
-    for (int i = 0; i < RPM_TABLE.length - 1; i++) {
-      if (distanceMeters <= RPM_TABLE[i + 1][0]) {
-        double d0 = RPM_TABLE[i][0], rpm0 = RPM_TABLE[i][1];
-        double d1 = RPM_TABLE[i + 1][0], rpm1 = RPM_TABLE[i + 1][1];
-        double t = (distanceMeters - d0) / (d1 - d0);
-        return rpm0 + t * (rpm1 - rpm0);
+    return rpmCurve.evaluate(distanceMeters);
+  }
+
+  /**
+   * Replace the lookup table with new {distance_meters, rpm} rows, e.g. after a
+   * tuning session. The table is validated and compiled before it is swapped
+   * in, so a bad table leaves the current one in use.
+   *
+   * @throws IllegalArgumentException if the table is malformed
+   */
+  public static void setRpmTable(double[][] table) {
+    rpmCurve = MonotoneCubicCurve.fromTable(table, RPM_CURVE_SAMPLES);
+    measuredTable = table;
+  }
+
+  /**
+   * Extend the distance-only table past its last measured row with points from
+   * the ballistic model, up to maxDistanceMeters. Model RPMs are scaled so the
+   * model agrees with the last measured row, which absorbs flywheel slip and
+   * drag errors. Runs dozens of trajectory solves: call at init or from a
+   * background thread, never from the loop.
+   *
+   * @return number of rows added (0 if the model cannot reach past the table)
+   */
+  public static int extendRpmTable(BallisticSolver solver, double maxDistanceMeters) {
+    double[][] measured = measuredTable;
+    double[] last = measured[measured.length - 1];
+    BallisticSolver.Solution anchor = solver.solve(last[0], NOMINAL_GOAL_HEIGHT_METERS);
+    if (!anchor.solved) {
+      return 0;
+    }
+    double scale = last[1] / anchor.rpm;
+
+    int maxRows = (int) Math.floor((maxDistanceMeters - last[0]) / EXTENSION_STEP_METERS);
+    double[][] extended = new double[measured.length + Math.max(maxRows, 0)][];
+    System.arraycopy(measured, 0, extended, 0, measured.length);
+    int added = 0;
+    double previousRpm = last[1];
+    for (int i = 1; i <= maxRows; i++) {
+      double distance = last[0] + i * EXTENSION_STEP_METERS;
+      BallisticSolver.Solution s = solver.solve(distance, NOMINAL_GOAL_HEIGHT_METERS);
+      if (!s.solved || s.rpm * scale <= previousRpm) {
+        break;
+      }
+      previousRpm = s.rpm * scale;
+      extended[measured.length + added++] = new double[] {distance, previousRpm};
+    }
+    if (added > 0) {
+      double[][] table = new double[measured.length + added][];
+      System.arraycopy(extended, 0, table, 0, table.length);
+      rpmCurve = MonotoneCubicCurve.fromTable(table, RPM_CURVE_SAMPLES);
+    }
+    return added;
+  }
+
+  /**
+   * Precompute time of flight against distance with the ballistic model, from
+   * the first table distance out to maxDistanceMeters. Like extendRpmTable(),
+   * call at init or from a background thread, never from the loop.
+   *
+   * @return true if at least two distances were solved and the curve is in use
+   */
+  public static boolean buildTimeOfFlightCurve(BallisticSolver solver, double maxDistanceMeters) {
+    double minDistance = measuredTable[0][0];
+    int maxRows = (int) Math.floor((maxDistanceMeters - minDistance) / EXTENSION_STEP_METERS) + 1;
+    double[] distances = new double[Math.max(maxRows, 0)];
+    double[] times = new double[distances.length];
+    int solved = 0;
+    for (int i = 0; i < maxRows; i++) {
+      double distance = minDistance + i * EXTENSION_STEP_METERS;
+      BallisticSolver.Solution s = solver.solve(distance, NOMINAL_GOAL_HEIGHT_METERS);
+      if (s.solved) {
+        distances[solved] = distance;
+        times[solved++] = s.timeOfFlightSec;
       }
     }
-    return RPM_TABLE[RPM_TABLE.length - 1][1];
+    if (solved < 2) {
+      return false;
+    }
+    timeOfFlightCurve = new MonotoneCubicCurve(
+        Arrays.copyOf(distances, solved), Arrays.copyOf(times, solved), RPM_CURVE_SAMPLES);
+    return true;
+  }
+
+  /**
+   * Ball flight time in seconds to the goal at the given distance, clamped at
+   * the ends of the curve. Returns 0 until buildTimeOfFlightCurve() succeeds.
+   */
+  public static double lookupTimeOfFlight(double distanceMeters) {
+    MonotoneCubicCurve curve = timeOfFlightCurve;
+    return curve == null ? 0.0 : curve.evaluate(distanceMeters);
+  }
+
+  public static boolean hasTimeOfFlight() {
+    return timeOfFlightCurve != null;
+  }
+
+  /**
+   * Interpolate RPM from distance and height difference to the goal (positive
+   * = goal above the camera). Uses the 2-D grid when one is loaded, else the
+   * distance-only table. Clamps at boundaries.
+   */
+  public static double lookupRPM(double distanceMeters, double heightMeters) {
+    LookupGrid2D grid = rpmGrid;
+    if (grid == null) {
+      return rpmCurve.evaluate(distanceMeters);
+    }
+    return grid.evaluate(distanceMeters, heightMeters);
+  }
+
+  /**
+   * Use a 2-D RPM grid keyed on distance (x) and height difference (y), e.g.
+   * one read by LauncherTableFile.readGrid(). LookupGrid2D is validated when
+   * it is built, so a grid that gets here is always usable.
+   */
+  public static void setRpmGrid(LookupGrid2D grid) {
+    if (grid == null) {
+      throw new IllegalArgumentException("grid cannot be null");
+    }
+    rpmGrid = grid;
+  }
+
+  /** Go back to the distance-only table. */
+  public static void clearRpmGrid() {
+    rpmGrid = null;
+  }
+
+  public static boolean hasRpmGrid() {
+    return rpmGrid != null;
   }
 
   /**
-   * Get required RPM using vision distance. Returns 0 if no target visible.
+   * Get required RPM using vision distance, predicted forward to now when
+   * odometry history is available. Returns 0 if no target visible.
    */
   public static double getRequiredRPM(Vision vision) {
     if (vision == null || !vision.hasTarget()) {
       return 0;
     }
-    return lookupRPM(vision.getDistanceToGoalMeters());
+    return lookupRPM(vision.getPredictedDistanceToGoalMeters(), vision.getHeightToGoalMeters());
   }
 
   /**
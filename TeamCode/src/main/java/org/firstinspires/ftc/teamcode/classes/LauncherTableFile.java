@@ -0,0 +1,304 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import com.qualcomm.robotcore.util.RobotLog;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+
+/**
+ * On-device files for building the launcher RPM table without recompiling.
+ *
+ * LauncherRPMTuner appends one CSV row per test shot to the shot log
+ * (distance, height, target and release RPM, hit or miss). generateTable()
+ * fits the hits into a {distance, rpm} table and writes it next to the log.
+ * OpModes call loadAsync() at init: it reads that table, and the optional
+ * distance x height RPM grid, on a background thread and hands them to
+ * LauncherHelper, so init never waits on storage.
+ *
+ * The grid file is written by hand from measured shots. Its header row
+ * lists the height differences and each further row is a distance followed
+ * by one RPM per height:
+ *   distance_m\height_m,0.6,0.8,1.0
+ *   1.0,2000,2100,2200
+ *   2.0,3500,3600,3700
+ */
+public final class LauncherTableFile {
+  private LauncherTableFile() {}
+
+  private static final String TAG = "LauncherTable";
+  private static final File DIRECTORY = new File(AppUtil.FIRST_FOLDER, "launcher");
+  public static final File SHOT_LOG = new File(DIRECTORY, "shots.csv");
+  public static final File TABLE = new File(DIRECTORY, "rpm_table.csv");
+  public static final File GRID = new File(DIRECTORY, "rpm_grid.csv");
+
+  private static final String SHOT_LOG_HEADER =
+      "time_ms,distance_m,height_m,target_rpm,release_rpm,hit";
+  private static final String TABLE_HEADER = "distance_m,rpm";
+
+  // Shots closer together than this are averaged into one table row
+  private static final double BIN_METERS = 0.25;
+
+  /**
+   * Append one test shot to the shot log, creating it if needed.
+   *
+   * @throws IOException if the log cannot be written
+   */
+  public static void appendShot(double distanceMeters, double heightMeters, double targetRpm,
+      double releaseRpm, boolean hit) throws IOException {
+    if (!DIRECTORY.isDirectory() && !DIRECTORY.mkdirs()) {
+      throw new IOException("Cannot create " + DIRECTORY);
+    }
+    boolean newFile = !SHOT_LOG.exists();
+    try (PrintWriter out = new PrintWriter(new FileWriter(SHOT_LOG, true))) {
+      if (newFile) {
+        out.println(SHOT_LOG_HEADER);
+      }
+      out.println(String.format(Locale.US, "%d,%.3f,%.3f,%.0f,%.0f,%d",
+          System.currentTimeMillis(), distanceMeters, heightMeters, targetRpm, releaseRpm,
+          hit ? 1 : 0));
+    }
+  }
+
+  /**
+   * Fit the hits in the shot log into a {distance, rpm} table and write it to
+   * TABLE. Hits are averaged per BIN_METERS of distance. The RPMs are then
+   * made non-decreasing with distance by pooling neighbouring bins, so one
+   * lucky long shot at low RPM cannot bend the curve.
+   *
+   * @return the table, or null if fewer than two distance bins have hits
+   * @throws IOException if the log cannot be read or the table written
+   */
+  public static double[][] generateTable() throws IOException {
+    ArrayList<double[]> hits = new ArrayList<>();
+    try (BufferedReader in = new BufferedReader(new FileReader(SHOT_LOG))) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        String[] f = line.split(",");
+        if (f.length < 6 || !"1".equals(f[5].trim())) {
+          continue;
+        }
+        try {
+          hits.add(new double[] {Double.parseDouble(f[1]), Double.parseDouble(f[4])});
+        } catch (NumberFormatException e) {
+          // Header or a damaged row
+        }
+      }
+    }
+    double[][] table = fit(hits);
+    if (table == null) {
+      return null;
+    }
+    try (PrintWriter out = new PrintWriter(new FileWriter(TABLE, false))) {
+      out.println(TABLE_HEADER);
+      for (double[] row : table) {
+        out.println(String.format(Locale.US, "%.3f,%.0f", row[0], row[1]));
+      }
+    }
+    return table;
+  }
+
+  static double[][] fit(ArrayList<double[]> hits) {
+    if (hits.isEmpty()) {
+      return null;
+    }
+    double[][] sorted = hits.toArray(new double[0][]);
+    Arrays.sort(sorted, (a, b) -> Double.compare(a[0], b[0]));
+
+    // Average each distance bin: {mean distance, mean rpm, count}
+    ArrayList<double[]> bins = new ArrayList<>();
+    long currentBin = Long.MIN_VALUE;
+    for (double[] hit : sorted) {
+      long bin = Math.round(hit[0] / BIN_METERS);
+      if (bin != currentBin) {
+        bins.add(new double[3]);
+        currentBin = bin;
+      }
+      double[] b = bins.get(bins.size() - 1);
+      b[0] += hit[0];
+      b[1] += hit[1];
+      b[2]++;
+    }
+    if (bins.size() < 2) {
+      return null;
+    }
+    for (double[] b : bins) {
+      b[0] /= b[2];
+      b[1] /= b[2];
+    }
+
+    // Pool adjacent violators: merge bins until RPM never drops with distance
+    int n = bins.size();
+    double[] blockRpm = new double[n];
+    double[] blockWeight = new double[n];
+    int[] blockEnd = new int[n];
+    int blocks = 0;
+    for (int i = 0; i < n; i++) {
+      blockRpm[blocks] = bins.get(i)[1];
+      blockWeight[blocks] = bins.get(i)[2];
+      blockEnd[blocks] = i;
+      blocks++;
+      while (blocks > 1 && blockRpm[blocks - 2] > blockRpm[blocks - 1]) {
+        double w = blockWeight[blocks - 2] + blockWeight[blocks - 1];
+        blockRpm[blocks - 2] = (blockRpm[blocks - 2] * blockWeight[blocks - 2]
+            + blockRpm[blocks - 1] * blockWeight[blocks - 1]) / w;
+        blockWeight[blocks - 2] = w;
+        blockEnd[blocks - 2] = blockEnd[blocks - 1];
+        blocks--;
+      }
+    }
+    double[][] table = new double[n][];
+    for (int b = 0, i = 0; b < blocks; b++) {
+      for (; i <= blockEnd[b]; i++) {
+        table[i] = new double[] {bins.get(i)[0], blockRpm[b]};
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Read a {distance, rpm} table written by generateTable().
+   *
+   * @return the rows, or null if the file does not exist
+   * @throws IOException if the file cannot be read or a row is malformed
+   */
+  public static double[][] readTable(File file) throws IOException {
+    if (!file.exists()) {
+      return null;
+    }
+    ArrayList<double[]> rows = new ArrayList<>();
+    try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        line = line.trim();
+        if (line.isEmpty() || line.equals(TABLE_HEADER)) {
+          continue;
+        }
+        String[] f = line.split(",");
+        if (f.length < 2) {
+          throw new IOException("Malformed row: " + line);
+        }
+        try {
+          rows.add(new double[] {Double.parseDouble(f[0]), Double.parseDouble(f[1])});
+        } catch (NumberFormatException e) {
+          throw new IOException("Malformed row: " + line);
+        }
+      }
+    }
+    return rows.toArray(new double[0][]);
+  }
+
+  /**
+   * Read a distance x height RPM grid in the format described above. The
+   * axes and values are validated by LookupGrid2D before it is returned.
+   *
+   * @return the grid, or null if the file does not exist
+   * @throws IOException if the file cannot be read or a row is malformed
+   * @throws IllegalArgumentException if an axis is not strictly increasing
+   *     or a value is not finite
+   */
+  public static LookupGrid2D readGrid(File file) throws IOException {
+    if (!file.exists()) {
+      return null;
+    }
+    double[] heights = null;
+    ArrayList<Double> distances = new ArrayList<>();
+    ArrayList<double[]> rows = new ArrayList<>();
+    try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        line = line.trim();
+        if (line.isEmpty()) {
+          continue;
+        }
+        String[] f = line.split(",");
+        try {
+          if (heights == null) {
+            // Header: a label cell, then the heights
+            heights = new double[f.length - 1];
+            for (int j = 1; j < f.length; j++) {
+              heights[j - 1] = Double.parseDouble(f[j]);
+            }
+            continue;
+          }
+          if (f.length != heights.length + 1) {
+            throw new IOException("Row needs a distance and " + heights.length + " RPMs: " + line);
+          }
+          double[] rpm = new double[heights.length];
+          for (int j = 0; j < rpm.length; j++) {
+            rpm[j] = Double.parseDouble(f[j + 1]);
+          }
+          distances.add(Double.parseDouble(f[0]));
+          rows.add(rpm);
+        } catch (NumberFormatException e) {
+          throw new IOException("Malformed row: " + line);
+        }
+      }
+    }
+    if (heights == null) {
+      throw new IOException("Empty grid file " + file);
+    }
+    double[] xs = new double[distances.size()];
+    for (int i = 0; i < xs.length; i++) {
+      xs[i] = distances.get(i);
+    }
+    return new LookupGrid2D(xs, heights, rows.toArray(new double[0][]));
+  }
+
+  /**
+   * Load TABLE into LauncherHelper, then extend it with the ballistic model
+   * and build the time-of-flight curve. Keeps the built-in table if the file
+   * is missing or invalid. GRID is loaded too when present; without a valid
+   * grid the distance-only table is used for every height. Blocks while
+   * reading storage; see loadAsync().
+   *
+   * @param solver ballistic model, or null to only load the file
+   * @param maxDistanceMeters how far to extend the table (see
+   *     LauncherHelper.extendRpmTable)
+   */
+  public static void load(BallisticSolver solver, double maxDistanceMeters) {
+    try {
+      double[][] table = readTable(TABLE);
+      if (table != null) {
+        LauncherHelper.setRpmTable(table);
+        RobotLog.ii(TAG, "Loaded %d rows from %s", table.length, TABLE);
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      RobotLog.ww(TAG, e, "Keeping built-in RPM table");
+    }
+    try {
+      LookupGrid2D grid = readGrid(GRID);
+      if (grid != null) {
+        LauncherHelper.setRpmGrid(grid);
+        RobotLog.ii(TAG, "Loaded RPM grid from %s", GRID);
+      } else {
+        LauncherHelper.clearRpmGrid();
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      LauncherHelper.clearRpmGrid();
+      RobotLog.ww(TAG, e, "Ignoring %s, using the distance-only table", GRID);
+    }
+    if (solver != null) {
+      LauncherHelper.extendRpmTable(solver, maxDistanceMeters);
+      LauncherHelper.buildTimeOfFlightCurve(solver, maxDistanceMeters);
+    }
+  }
+
+  /**
+   * Run load() on a background thread. Returns immediately.
+   *
+   * @return the loader thread, already started
+   */
+  public static Thread loadAsync(final BallisticSolver solver, final double maxDistanceMeters) {
+    Thread loader = new Thread(() -> load(solver, maxDistanceMeters), "Launcher table loader");
+    loader.setDaemon(true);
+    loader.start();
+    return loader;
+  }
+}
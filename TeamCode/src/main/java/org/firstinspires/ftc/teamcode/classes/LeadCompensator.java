@@ -0,0 +1,102 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import com.acmerobotics.dashboard.config.Config;
+
+/**
+ * Lead compensation for shooting while the chassis moves.
+ *
+ * A ball leaves with the robot's velocity added to its launch velocity, so
+ * while moving it lands displaced by velocity x flight time. Aiming at a
+ * virtual goal, the real goal minus that displacement, cancels it out. The
+ * flight time depends on the distance to the virtual goal, so update() runs
+ * a fixed ITERATIONS of: look up flight time, move the virtual goal, measure
+ * it again. Flight time comes from LauncherHelper.lookupTimeOfFlight(); with
+ * no time-of-flight curve loaded the lead is zero.
+ *
+ * Everything is in the robot frame: x forward, y left, bearings in degrees
+ * CCW from forward. update() only touches primitive fields, so it is safe to
+ * call every loop.
+ */
+@Config
+public class LeadCompensator {
+  public static boolean ENABLED = true;
+  public static int ITERATIONS = 3;
+  // Time from the aim being set to the ball leaving the launcher
+  public static double RELEASE_DELAY_SEC = 0.05;
+
+  private double distanceMeters = 0;
+  private double bearingDeg = 0;
+  private double leadDeg = 0;
+  private double timeOfFlightSec = 0;
+
+  /**
+   * Compute the virtual goal for this loop.
+   *
+   * @param goalDistanceMeters horizontal distance to the real goal
+   * @param goalBearingDeg bearing of the real goal, CCW from robot forward
+   * @param forwardMps chassis velocity along robot forward
+   * @param leftMps chassis velocity toward robot left
+   */
+  public void update(
+      double goalDistanceMeters, double goalBearingDeg, double forwardMps, double leftMps) {
+    double bearingRad = Math.toRadians(goalBearingDeg);
+    double goalX = goalDistanceMeters * Math.cos(bearingRad);
+    double goalY = goalDistanceMeters * Math.sin(bearingRad);
+
+    double x = goalX;
+    double y = goalY;
+    double distance = goalDistanceMeters;
+    double tof = 0;
+    if (ENABLED && LauncherHelper.hasTimeOfFlight()) {
+      for (int i = 0; i < ITERATIONS; i++) {
+        tof = LauncherHelper.lookupTimeOfFlight(distance);
+        double t = tof + RELEASE_DELAY_SEC;
+        x = goalX - forwardMps * t;
+        y = goalY - leftMps * t;
+        distance = Math.hypot(x, y);
+      }
+    }
+    distanceMeters = distance;
+    timeOfFlightSec = tof;
+    bearingDeg = tof > 0 ? Math.toDegrees(Math.atan2(y, x)) : goalBearingDeg;
+    leadDeg = angleWrapDegrees(bearingDeg - goalBearingDeg);
+  }
+
+  /** Zero the lead, e.g. when the goal is out of view. */
+  public void reset() {
+    distanceMeters = 0;
+    bearingDeg = 0;
+    leadDeg = 0;
+    timeOfFlightSec = 0;
+  }
+
+  private static double angleWrapDegrees(double deg) {
+    while (deg > 180.0) {
+      deg -= 360.0;
+    }
+    while (deg <= -180.0) {
+      deg += 360.0;
+    }
+    return deg;
+  }
+
+  /** Distance to the virtual goal; use for the shooter RPM. */
+  public double getDistanceMeters() {
+    return distanceMeters;
+  }
+
+  /** Bearing of the virtual goal, CCW from robot forward. */
+  public double getBearingDegrees() {
+    return bearingDeg;
+  }
+
+  /** Virtual minus real goal bearing: the turret aim offset. */
+  public double getLeadDegrees() {
+    return leadDeg;
+  }
+
+  /** Flight time to the virtual goal, or 0 when no lead was applied. */
+  public double getTimeOfFlightSec() {
+    return timeOfFlightSec;
+  }
+}
@@ -0,0 +1,87 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import com.qualcomm.hardware.limelightvision.LLResult;
+import com.qualcomm.hardware.limelightvision.LLResultTypes;
+import com.qualcomm.hardware.limelightvision.Limelight3A;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import java.util.List;
+import org.firstinspires.ftc.robotcore.external.navigation.Pose3D;
+import org.firstinspires.ftc.robotcore.external.navigation.Position;
+
+/**
+ * VisionSource backed by a Limelight3A.
+ */
+public class LimelightVisionSource implements VisionSource {
+  private static final String DEVICE_NAME = "limelight";
+  private static final int POLL_RATE_HZ = 100;
+
+  private final Limelight3A limelight;
+  private LLResult lastResult = null;
+
+  public LimelightVisionSource(Limelight3A limelight) {
+    if (limelight == null) {
+      throw new IllegalArgumentException("limelight cannot be null");
+    }
+    this.limelight = limelight;
+  }
+
+  /**
+   * Find, configure and start the Limelight.
+   *
+   * @return the source, or null if no Limelight is configured
+   */
+  public static LimelightVisionSource create(HardwareMap hardwareMap) {
+    try {
+      Limelight3A limelight = hardwareMap.get(Limelight3A.class, DEVICE_NAME);
+      limelight.setPollRateHz(POLL_RATE_HZ);
+      limelight.pipelineSwitch(0); // Default AprilTag pipeline
+      limelight.start();
+      return new LimelightVisionSource(limelight);
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  @Override
+  public boolean isConnected() {
+    return limelight.isConnected();
+  }
+
+  @Override
+  public boolean read(VisionFrame frame) {
+    LLResult result = limelight.getLatestResult();
+    if (result == null || result == lastResult) {
+      return false;
+    }
+    lastResult = result;
+
+    frame.clear();
+    frame.receivedNanos = System.nanoTime() - result.getStaleness() * 1000000L;
+    frame.latencyMs = result.getCaptureLatency() + result.getTargetingLatency();
+    frame.valid = result.isValid();
+    if (!frame.valid) {
+      return true;
+    }
+    frame.tx = result.getTx();
+    frame.ty = result.getTy();
+
+    List<LLResultTypes.FiducialResult> fiducials = result.getFiducialResults();
+    for (int i = 0; i < fiducials.size(); i++) {
+      LLResultTypes.FiducialResult f = fiducials.get(i);
+      Pose3D pose = f.getRobotPoseTargetSpace();
+      Position pos = pose != null ? pose.getPosition() : null;
+      boolean added = frame.addTag(f.getFiducialId(), f.getTargetArea(), f.getTargetXDegrees(),
+          f.getTargetYDegrees(), pos != null, pos != null ? pos.x : 0, pos != null ? pos.y : 0,
+          pos != null ? pos.z : 0);
+      if (!added) {
+        break;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void setPipeline(int pipeline) {
+    limelight.pipelineSwitch(pipeline);
+  }
+}
@@ -0,0 +1,144 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+/**
+ * Immutable 2-D lookup table z = f(x, y) with bilinear interpolation.
+ *
+ * Values live in one flat row-major array (values[xi * ySize + yi]). Uniformly
+ * spaced axes are found with a single multiply; uneven axes fall back to a
+ * binary search. Queries outside the grid clamp to the edge. The table is
+ * validated once when it is built, so lookups never throw or allocate.
+ */
+public final class LookupGrid2D {
+  private static final double UNIFORM_TOLERANCE = 1e-9;
+
+  private final double[] xs;
+  private final double[] ys;
+  private final double[] values;
+  private final boolean xUniform;
+  private final boolean yUniform;
+  private final double xInverseStep;
+  private final double yInverseStep;
+
+  /**
+   * Build a grid from axis breakpoints and a table of values.
+   *
+   * @param xs strictly increasing x breakpoints (at least 2)
+   * @param ys strictly increasing y breakpoints (at least 2)
+   * @param table values, one row per x breakpoint and one column per y
+   * @throws IllegalArgumentException if the axes or table are malformed
+   */
+  public LookupGrid2D(double[] xs, double[] ys, double[][] table) {
+    checkAxis("x", xs);
+    checkAxis("y", ys);
+    if (table == null || table.length != xs.length) {
+      throw new IllegalArgumentException("table needs one row per x breakpoint");
+    }
+    values = new double[xs.length * ys.length];
+    for (int i = 0; i < xs.length; i++) {
+      if (table[i] == null || table[i].length != ys.length) {
+        throw new IllegalArgumentException("table row " + i + " needs one value per y breakpoint");
+      }
+      for (int j = 0; j < ys.length; j++) {
+        double v = table[i][j];
+        if (Double.isNaN(v) || Double.isInfinite(v)) {
+          throw new IllegalArgumentException("table[" + i + "][" + j + "] is not finite");
+        }
+        values[i * ys.length + j] = v;
+      }
+    }
+    this.xs = xs.clone();
+    this.ys = ys.clone();
+    xUniform = isUniform(xs);
+    yUniform = isUniform(ys);
+    xInverseStep = (xs.length - 1) / (xs[xs.length - 1] - xs[0]);
+    yInverseStep = (ys.length - 1) / (ys[ys.length - 1] - ys[0]);
+  }
+
+  /** Interpolate the value at (x, y), clamping to the grid edges. */
+  public double evaluate(double x, double y) {
+    int i = cell(xs, xUniform, xInverseStep, x);
+    int j = cell(ys, yUniform, yInverseStep, y);
+    double tx = fraction(xs, i, x);
+    double ty = fraction(ys, j, y);
+    int stride = ys.length;
+    int base = i * stride + j;
+    double v00 = values[base];
+    double v01 = values[base + 1];
+    double v10 = values[base + stride];
+    double v11 = values[base + stride + 1];
+    double low = v00 + ty * (v01 - v00);
+    double high = v10 + ty * (v11 - v10);
+    return low + tx * (high - low);
+  }
+
+  public double getMinX() {
+    return xs[0];
+  }
+
+  public double getMaxX() {
+    return xs[xs.length - 1];
+  }
+
+  public double getMinY() {
+    return ys[0];
+  }
+
+  public double getMaxY() {
+    return ys[ys.length - 1];
+  }
+
+  /** Index of the cell's lower breakpoint, in 0..length-2. */
+  private static int cell(double[] axis, boolean uniform, double inverseStep, double v) {
+    int last = axis.length - 2;
+    if (!(v > axis[0])) { // also catches NaN
+      return 0;
+    }
+    if (v >= axis[last + 1]) {
+      return last;
+    }
+    if (uniform) {
+      return Math.min((int) ((v - axis[0]) * inverseStep), last);
+    }
+    int low = 0;
+    int high = last;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (axis[mid] <= v) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /** Position of v inside cell i, clamped to [0, 1]. */
+  private static double fraction(double[] axis, int i, double v) {
+    double t = (v - axis[i]) / (axis[i + 1] - axis[i]);
+    return t < 0 || Double.isNaN(t) ? 0 : (t > 1 ? 1 : t);
+  }
+
+  private static void checkAxis(String name, double[] axis) {
+    if (axis == null || axis.length < 2) {
+      throw new IllegalArgumentException(name + " axis needs at least 2 breakpoints");
+    }
+    for (int i = 0; i < axis.length; i++) {
+      if (Double.isNaN(axis[i]) || Double.isInfinite(axis[i])) {
+        throw new IllegalArgumentException(name + " breakpoint " + i + " is not finite");
+      }
+      if (i > 0 && axis[i] <= axis[i - 1]) {
+        throw new IllegalArgumentException(name + " axis must be strictly increasing at " + i);
+      }
+    }
+  }
+
+  private static boolean isUniform(double[] axis) {
+    double step = (axis[axis.length - 1] - axis[0]) / (axis.length - 1);
+    for (int i = 1; i < axis.length; i++) {
+      if (Math.abs(axis[i] - axis[i - 1] - step) > UNIFORM_TOLERANCE * Math.max(1.0, step)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
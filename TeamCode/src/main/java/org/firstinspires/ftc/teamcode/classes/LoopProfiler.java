@@ -0,0 +1,203 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import com.acmerobotics.dashboard.FtcDashboard;
+import com.acmerobotics.dashboard.config.Config;
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+import java.util.Arrays;
+import java.util.Locale;
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+/**
+ * Lightweight loop profiler for OpMode control loops.
+ *
+ * Usage, once per loop iteration:
+ *   profiler.startLoop();
+ *   ...drive code...     profiler.mark(LoopProfiler.Section.DRIVE);
+ *   ...shooter code...   profiler.mark(LoopProfiler.Section.SHOOTER);
+ *   profiler.addTelemetry(telemetry);
+ *
+ * OpModes using TelemetryManager call addTo(manager) once at init instead of
+ * addTelemetry() every loop.
+ *
+ * Loop periods go into a fixed ring buffer of System.nanoTime() deltas and
+ * section times into running averages, so recording never allocates.
+ * Percentiles and report strings are only rebuilt every REPORT_INTERVAL_MS.
+ */
+@Config
+public class LoopProfiler {
+  // How often percentiles are recomputed and pushed to FTC Dashboard.
+  public static int REPORT_INTERVAL_MS = 500;
+
+  // Kept below the primitive sort's quicksort threshold so sorting never allocates.
+  private static final int SAMPLE_CAPACITY = 256;
+  private static final double SECTION_SMOOTHING = 0.05;
+
+  /**
+   * Parts of a control loop that can be timed separately. UPDATE is
+   * DefaultRobot.update(): localizer reads plus shooter, turret and loader
+   * control.
+   */
+  public enum Section { DRIVE, INTAKE, SHOOTER, TURRET, LOADER, UPDATE, VISION, TELEMETRY }
+
+  private static final Section[] SECTIONS = Section.values();
+
+  private final long[] loopSamples = new long[SAMPLE_CAPACITY];
+  private final long[] sortBuffer = new long[SAMPLE_CAPACITY];
+  private int sampleCount = 0;
+  private int nextSample = 0;
+
+  private final double[] sectionAverageNanos = new double[SECTIONS.length];
+  private final boolean[] sectionUsed = new boolean[SECTIONS.length];
+
+  private long loopStartNanos = 0;
+  private long sectionStartNanos = 0;
+  private long lastReportNanos = 0;
+
+  private double p50Ms, p95Ms, p99Ms, maxMs;
+  private final StringBuilder summaryBuilder = new StringBuilder(96);
+  private String loopSummary = "collecting...";
+  private String sectionSummary = "";
+
+  /** Mark the start of a loop iteration; records the previous loop's period. */
+  public void startLoop() {
+    long now = System.nanoTime();
+    if (loopStartNanos != 0) {
+      loopSamples[nextSample] = now - loopStartNanos;
+      nextSample = (nextSample + 1) % SAMPLE_CAPACITY;
+      if (sampleCount < SAMPLE_CAPACITY) {
+        sampleCount++;
+      }
+    }
+    loopStartNanos = now;
+    sectionStartNanos = now;
+  }
+
+  /** Attribute the time since the previous mark (or loop start) to a section. */
+  public void mark(Section section) {
+    long now = System.nanoTime();
+    int i = section.ordinal();
+    double elapsed = now - sectionStartNanos;
+    sectionAverageNanos[i] = sectionUsed[i]
+        ? sectionAverageNanos[i] + SECTION_SMOOTHING * (elapsed - sectionAverageNanos[i])
+        : elapsed;
+    sectionUsed[i] = true;
+    sectionStartNanos = now;
+  }
+
+  /** Forget all samples, e.g. after waitForStart(). */
+  public void reset() {
+    sampleCount = 0;
+    nextSample = 0;
+    loopStartNanos = 0;
+    lastReportNanos = 0;
+    Arrays.fill(sectionUsed, false);
+    Arrays.fill(sectionAverageNanos, 0.0);
+  }
+
+  /**
+   * Add the loop timing lines to telemetry. Statistics are recomputed and sent
+   * to FTC Dashboard at most every REPORT_INTERVAL_MS; in between the last
+   * report strings are reused.
+   */
+  public void addTelemetry(Telemetry telemetry) {
+    refreshIfDue();
+    telemetry.addData("Loop", loopSummary);
+    if (!sectionSummary.isEmpty()) {
+      telemetry.addData("Sections (ms)", sectionSummary);
+    }
+  }
+
+  /** Register the loop timing lines with a TelemetryManager. */
+  public void addTo(TelemetryManager manager) {
+    manager.addLine("Loop", out -> {
+      refreshIfDue();
+      out.append(loopSummary);
+    });
+    manager.addLine("Sections (ms)", out -> out.append(sectionSummary));
+  }
+
+  private void refreshIfDue() {
+    long now = System.nanoTime();
+    if (lastReportNanos == 0 || (now - lastReportNanos) / 1e6 >= REPORT_INTERVAL_MS) {
+      lastReportNanos = now;
+      computeStatistics();
+      sendToDashboard();
+    }
+  }
+
+  public double getP50Ms() {
+    return p50Ms;
+  }
+  public double getP95Ms() {
+    return p95Ms;
+  }
+  public double getP99Ms() {
+    return p99Ms;
+  }
+  public double getMaxMs() {
+    return maxMs;
+  }
+
+  /** Smoothed time spent in a section, in milliseconds. */
+  public double getSectionMs(Section section) {
+    return sectionAverageNanos[section.ordinal()] / 1e6;
+  }
+
+  private void computeStatistics() {
+    if (sampleCount == 0) {
+      return;
+    }
+    System.arraycopy(loopSamples, 0, sortBuffer, 0, sampleCount);
+    Arrays.sort(sortBuffer, 0, sampleCount);
+    p50Ms = percentileMs(0.50);
+    p95Ms = percentileMs(0.95);
+    p99Ms = percentileMs(0.99);
+    maxMs = sortBuffer[sampleCount - 1] / 1e6;
+
+    StringBuilder sb = summaryBuilder;
+    sb.setLength(0);
+    TelemetryManager.appendFixed(sb.append("p50 "), p50Ms, 1);
+    TelemetryManager.appendFixed(sb.append(" | p95 "), p95Ms, 1);
+    TelemetryManager.appendFixed(sb.append(" | p99 "), p99Ms, 1);
+    TelemetryManager.appendFixed(sb.append(" | max "), maxMs, 1);
+    TelemetryManager.appendFixed(sb.append(" ms ("), 1000.0 / Math.max(p50Ms, 1e-3), 0);
+    loopSummary = sb.append(" Hz)").toString();
+
+    sb.setLength(0);
+    for (Section s : SECTIONS) {
+      if (!sectionUsed[s.ordinal()]) {
+        continue;
+      }
+      if (sb.length() > 0) {
+        sb.append(" | ");
+      }
+      sb.append(s.name().toLowerCase(Locale.US)).append(' ');
+      TelemetryManager.appendFixed(sb, getSectionMs(s), 2);
+    }
+    sectionSummary = sb.toString();
+  }
+
+  private double percentileMs(double fraction) {
+    int index = (int) Math.ceil(fraction * sampleCount) - 1;
+    index = Math.max(0, Math.min(sampleCount - 1, index));
+    return sortBuffer[index] / 1e6;
+  }
+
+  private void sendToDashboard() {
+    FtcDashboard dashboard = FtcDashboard.getInstance();
+    if (dashboard == null || sampleCount == 0) {
+      return;
+    }
+    TelemetryPacket packet = new TelemetryPacket();
+    packet.put("loop p50 ms", p50Ms);
+    packet.put("loop p95 ms", p95Ms);
+    packet.put("loop p99 ms", p99Ms);
+    packet.put("loop max ms", maxMs);
+    for (Section s : SECTIONS) {
+      if (sectionUsed[s.ordinal()]) {
+        packet.put("section " + s.name().toLowerCase(Locale.US) + " ms", getSectionMs(s));
+      }
+    }
+    dashboard.sendTelemetryPacket(packet);
+  }
+}
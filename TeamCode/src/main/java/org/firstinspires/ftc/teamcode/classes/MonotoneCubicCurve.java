@@ -0,0 +1,165 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+/**
+ * Precompiled y = f(x) curve through measured points using monotone cubic
+ * (PCHIP) interpolation, so the curve never overshoots between points.
+ *
+ * At build time the curve is resampled onto a uniform grid, storing the value
+ * and slope at each grid point. A lookup is then one multiply to find the
+ * cell plus a cubic Hermite evaluation: O(1) regardless of how many points
+ * the table has, with no allocation. Inputs outside the table clamp to the
+ * end values. Instances are immutable.
+ */
+public final class MonotoneCubicCurve {
+  private final double minX;
+  private final double maxX;
+  private final double step;
+  private final double inverseStep;
+  private final double[] values;
+  private final double[] slopes; // dy/dx at each grid point
+
+  /**
+   * Build from {x, y} rows with strictly increasing x.
+   *
+   * @param samples grid resolution (at least 2)
+   * @throws IllegalArgumentException if the table is malformed
+   */
+  public static MonotoneCubicCurve fromTable(double[][] table, int samples) {
+    if (table == null || table.length < 2) {
+      throw new IllegalArgumentException("table needs at least 2 rows");
+    }
+    double[] xs = new double[table.length];
+    double[] ys = new double[table.length];
+    for (int i = 0; i < table.length; i++) {
+      if (table[i] == null || table[i].length < 2) {
+        throw new IllegalArgumentException("table row " + i + " needs {x, y}");
+      }
+      xs[i] = table[i][0];
+      ys[i] = table[i][1];
+    }
+    return new MonotoneCubicCurve(xs, ys, samples);
+  }
+
+  /**
+   * Build from parallel arrays of points with strictly increasing x.
+   *
+   * @param samples grid resolution (at least 2)
+   * @throws IllegalArgumentException if the points are malformed
+   */
+  public MonotoneCubicCurve(double[] xs, double[] ys, int samples) {
+    int n = xs.length;
+    if (n < 2 || ys.length != n) {
+      throw new IllegalArgumentException("need at least 2 points with matching x and y");
+    }
+    if (samples < 2) {
+      throw new IllegalArgumentException("samples must be at least 2");
+    }
+    for (int i = 0; i < n; i++) {
+      if (Double.isNaN(xs[i]) || Double.isInfinite(xs[i]) || Double.isNaN(ys[i])
+          || Double.isInfinite(ys[i])) {
+        throw new IllegalArgumentException("point " + i + " is not finite");
+      }
+      if (i > 0 && xs[i] <= xs[i - 1]) {
+        throw new IllegalArgumentException("x must be strictly increasing at point " + i);
+      }
+    }
+
+    double[] knotSlopes = pchipSlopes(xs, ys);
+    minX = xs[0];
+    maxX = xs[n - 1];
+    step = (maxX - minX) / (samples - 1);
+    inverseStep = 1.0 / step;
+    values = new double[samples];
+    slopes = new double[samples];
+    int segment = 0;
+    for (int i = 0; i < samples; i++) {
+      double x = i == samples - 1 ? maxX : minX + i * step;
+      while (segment < n - 2 && x > xs[segment + 1]) {
+        segment++;
+      }
+      double h = xs[segment + 1] - xs[segment];
+      double t = (x - xs[segment]) / h;
+      values[i] = hermite(ys[segment], ys[segment + 1], knotSlopes[segment] * h,
+          knotSlopes[segment + 1] * h, t);
+      slopes[i] = hermiteDerivative(ys[segment], ys[segment + 1], knotSlopes[segment] * h,
+          knotSlopes[segment + 1] * h, t) / h;
+    }
+  }
+
+  /** Evaluate the curve, clamping x to the table range. */
+  public double evaluate(double x) {
+    if (!(x > minX)) { // also catches NaN
+      return values[0];
+    }
+    if (x >= maxX) {
+      return values[values.length - 1];
+    }
+    double position = (x - minX) * inverseStep;
+    int i = Math.min((int) position, values.length - 2);
+    double t = position - i;
+    return hermite(values[i], values[i + 1], slopes[i] * step, slopes[i + 1] * step, t);
+  }
+
+  public double getMinX() {
+    return minX;
+  }
+
+  public double getMaxX() {
+    return maxX;
+  }
+
+  /** Fritsch-Carlson slopes; zero at local extrema so no segment overshoots. */
+  private static double[] pchipSlopes(double[] xs, double[] ys) {
+    int n = xs.length;
+    double[] h = new double[n - 1];
+    double[] delta = new double[n - 1];
+    for (int i = 0; i < n - 1; i++) {
+      h[i] = xs[i + 1] - xs[i];
+      delta[i] = (ys[i + 1] - ys[i]) / h[i];
+    }
+    double[] d = new double[n];
+    if (n == 2) {
+      d[0] = delta[0];
+      d[1] = delta[0];
+      return d;
+    }
+    for (int i = 1; i < n - 1; i++) {
+      if (delta[i - 1] * delta[i] <= 0) {
+        d[i] = 0;
+      } else {
+        double w1 = 2 * h[i] + h[i - 1];
+        double w2 = h[i] + 2 * h[i - 1];
+        d[i] = (w1 + w2) / (w1 / delta[i - 1] + w2 / delta[i]);
+      }
+    }
+    d[0] = endSlope(h[0], h[1], delta[0], delta[1]);
+    d[n - 1] = endSlope(h[n - 2], h[n - 3], delta[n - 2], delta[n - 3]);
+    return d;
+  }
+
+  /** One-sided three-point end slope, limited to keep the end monotone. */
+  private static double endSlope(double h0, double h1, double delta0, double delta1) {
+    double d = ((2 * h0 + h1) * delta0 - h0 * delta1) / (h0 + h1);
+    if (Math.signum(d) != Math.signum(delta0)) {
+      return 0;
+    }
+    if (Math.signum(delta0) != Math.signum(delta1) && Math.abs(d) > 3 * Math.abs(delta0)) {
+      return 3 * delta0;
+    }
+    return d;
+  }
+
+  /** Cubic Hermite on [0, 1] with end tangents already scaled by the cell width. */
+  private static double hermite(double y0, double y1, double m0, double m1, double t) {
+    double t2 = t * t;
+    double t3 = t2 * t;
+    return (2 * t3 - 3 * t2 + 1) * y0 + (t3 - 2 * t2 + t) * m0 + (-2 * t3 + 3 * t2) * y1
+        + (t3 - t2) * m1;
+  }
+
+  private static double hermiteDerivative(double y0, double y1, double m0, double m1, double t) {
+    double t2 = t * t;
+    return (6 * t2 - 6 * t) * y0 + (3 * t2 - 4 * t + 1) * m0 + (-6 * t2 + 6 * t) * y1
+        + (3 * t2 - 2 * t) * m1;
+  }
+}
@@ -0,0 +1,121 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import com.acmerobotics.dashboard.config.Config;
+import java.util.ArrayList;
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+/**
+ * Throttled telemetry pipeline that separates data collection from
+ * transmission.
+ *
+ * Lines are registered once at init with a formatter. Call update() every loop:
+ * formatters only run when a frame is actually due (TRANSMIT_RATE_HZ), each
+ * into its own reused StringBuilder, so loops between frames cost nothing.
+ * Use appendFixed() instead of String.format for numbers.
+ */
+@Config
+public class TelemetryManager {
+  // Frames per second sent to the Driver Station.
+  public static double TRANSMIT_RATE_HZ = 10.0;
+
+  /** Writes the current value of one telemetry line into a reused buffer. */
+  public interface LineFormatter {
+    void format(StringBuilder out);
+  }
+
+  private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L};
+
+  private final Telemetry telemetry;
+  private final ArrayList<String> captions = new ArrayList<>();
+  private final ArrayList<LineFormatter> formatters = new ArrayList<>();
+  private final ArrayList<StringBuilder> buffers = new ArrayList<>();
+  private long lastFrameNanos = 0;
+  private long framesSent = 0;
+
+  public TelemetryManager(Telemetry telemetry) {
+    if (telemetry == null) {
+      throw new IllegalArgumentException("telemetry cannot be null");
+    }
+    this.telemetry = telemetry;
+  }
+
+  /** Register a "caption : value" line. Lines are sent in registration order. */
+  public void addLine(String caption, LineFormatter formatter) {
+    captions.add(caption);
+    formatters.add(formatter);
+    buffers.add(new StringBuilder(64));
+  }
+
+  /** Register a caption-only line, e.g. a section header. */
+  public void addHeader(String text) {
+    addLine(text, null);
+  }
+
+  /** True if the next update() will format and send a frame. */
+  public boolean isFrameDue() {
+    return lastFrameNanos == 0 || System.nanoTime() - lastFrameNanos >= frameIntervalNanos();
+  }
+
+  /**
+   * Send a frame if one is due. Call once per loop.
+   *
+   * @return true if a frame was sent
+   */
+  public boolean update() {
+    if (!isFrameDue()) {
+      return false;
+    }
+    lastFrameNanos = System.nanoTime();
+    // Keep the SDK's own throttle from dropping frames we decided to send
+    telemetry.setMsTransmissionInterval((int) (frameIntervalNanos() / 1000000L));
+    for (int i = 0; i < captions.size(); i++) {
+      LineFormatter formatter = formatters.get(i);
+      if (formatter == null) {
+        telemetry.addLine(captions.get(i));
+        continue;
+      }
+      StringBuilder sb = buffers.get(i);
+      sb.setLength(0);
+      formatter.format(sb);
+      telemetry.addData(captions.get(i), sb.toString());
+    }
+    telemetry.update();
+    framesSent++;
+    return true;
+  }
+
+  public long getFramesSent() {
+    return framesSent;
+  }
+
+  private long frameIntervalNanos() {
+    return (long) (1e9 / Math.max(TRANSMIT_RATE_HZ, 0.1));
+  }
+
+  /**
+   * Append a number with a fixed count of decimals (0-6) without String.format.
+   *
+   * @return the same {@code out} buffer
+   */
+  public static StringBuilder appendFixed(StringBuilder out, double value, int decimals) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      return out.append(value);
+    }
+    decimals = Math.max(0, Math.min(POWERS_OF_TEN.length - 1, decimals));
+    long scale = POWERS_OF_TEN[decimals];
+    long scaled = Math.round(Math.abs(value) * scale);
+    if (value < 0 && scaled != 0) {
+      out.append('-');
+    }
+    out.append(scaled / scale);
+    if (decimals > 0) {
+      out.append('.');
+      long fraction = scaled % scale;
+      for (long p = scale / 10; p > fraction && p > 1; p /= 10) {
+        out.append('0');
+      }
+      out.append(fraction);
+    }
+    return out;
+  }
+}
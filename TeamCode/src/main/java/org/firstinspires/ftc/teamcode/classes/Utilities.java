@@ -8,17 +8,22 @@ public final class Utilities {
 
   /**
    * Normalize mecanum motor powers so no element exceeds magnitude 1.0.
+   * Writes into the caller-supplied buffer so the drive loop does not allocate.
    *
-   * @return array with order: {frontLeft, frontRight, backLeft, backRight}
+   * @param out buffer of length 4 receiving {frontLeft, frontRight, backLeft, backRight}
+   * @return the same {@code out} buffer
    */
-  public static double[] normalizeMecanum(double fl, double fr, double bl, double br) {
+  public static double[] normalizeMecanum(
+      double fl, double fr, double bl, double br, double[] out) {
     double max = Math.max(Math.abs(fl), Math.abs(fr));
     max = Math.max(max, Math.abs(bl));
     max = Math.max(max, Math.abs(br));
-    if (max <= 1.0) {
-      return new double[] {fl, fr, bl, br};
-    }
-    return new double[] {fl / max, fr / max, bl / max, br / max};
+    double scale = max <= 1.0 ? 1.0 : 1.0 / max;
+    out[0] = fl * scale;
+    out[1] = fr * scale;
+    out[2] = bl * scale;
+    out[3] = br * scale;
+    return out;
   }
 
   /**
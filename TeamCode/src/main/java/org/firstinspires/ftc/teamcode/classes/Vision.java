@@ -1,39 +1,117 @@
 package org.firstinspires.ftc.teamcode.classes;
 
-import com.qualcomm.hardware.limelightvision.LLResult;
-import com.qualcomm.hardware.limelightvision.LLResultTypes;
-import com.qualcomm.hardware.limelightvision.Limelight3A;
+import com.acmerobotics.dashboard.config.Config;
 import com.qualcomm.robotcore.hardware.HardwareMap;
-import java.util.List;
-import java.util.Locale;
-import org.firstinspires.ftc.robotcore.external.navigation.Pose3D;
-import org.firstinspires.ftc.robotcore.external.navigation.Position;
+import org.firstinspires.ftc.teamcode.classes.robot.PoseHistory;
 
 /**
  * Vision subsystem for Limelight3A and AprilTag integration.
  * Provides distance and height to goal for trajectory math.
+ *
+ * Runs in one of two modes:
+ *   - synchronous: call update() in your loop; it reads the camera on the
+ *     loop thread.
+ *   - asynchronous: call startAsync() once; a background thread polls the
+ *     camera at POLL_RATE_HZ and update() becomes a no-op. Stop it with
+ *     stopAsync() when the OpMode ends.
+ * Either way results are published as an immutable VisionSnapshot through a
+ * volatile reference, so getters never block on the camera.
+ *
+ * Which tags count as the goal is set by setTargetTagId()/setTargetTagIds()
+ * and TAG_POLICY picks among the accepted tags in a frame: the first, the
+ * closest, the largest, or a fusion weighted by area / distance^2. Fusion only
+ * averages detections of the one goal with the largest weight; tags on other
+ * goals are ignored rather than averaged into a point between them.
+ *
+ * With FILTER_ENABLED, distance, height and tx pass through constant-velocity
+ * Kalman filters before they are published. Outliers are gated, and for up to
+ * MAX_COAST_MS after the tag drops out the filters coast on their last rate.
+ * Snapshots carry the variance of each filtered value.
+ *
+ * Every snapshot carries the camera capture time. Results older than
+ * MAX_RESULT_AGE_MS are rejected. With a PoseHistory attached, the predicted
+ * getters shift the measured goal position by how the robot has moved since
+ * the frame was captured. A camera on the turret also needs the turret angle
+ * history (setCameraMountHistory()) to put tx into the robot frame.
  */
+@Config
 public class Vision {
-  private Limelight3A limelight;
-  private int targetTagId = -1; // -1 means track any visible tag
+  private static final int POLL_RATE_HZ = 100;
+  private static final double METERS_TO_INCHES = 1.0 / 0.0254;
+  private static final int[] ANY_TAG = new int[0];
 
-  // Cached data from last valid detection (all updated together in update())
-  private double lastDistanceMeters = 0;
-  private double lastHeightMeters = 0;
-  private double lastTx = 0;
-  private double lastTy = 0;
-  private int lastTrackedTagId = -1;
-  private boolean hasValidTarget = false;
+  // DECODE goal AprilTag IDs
+  public static final int BLUE_GOAL_TAG_ID = 20;
+  public static final int RED_GOAL_TAG_ID = 24;
+
+  /** How to turn the accepted tags in one frame into a single goal estimate. */
+  public enum TagPolicy {
+    FIRST_MATCH, // first accepted tag in detection order
+    CLOSEST,     // accepted tag with the shortest range
+    LARGEST,     // accepted tag with the largest image area
+    FUSED        // weighted average of the detections of the best-weighted goal
+  }
+
+  // Results (and snapshots) older than this are treated as no target.
+  public static double MAX_RESULT_AGE_MS = 150.0;
+  public static TagPolicy TAG_POLICY = TagPolicy.FIRST_MATCH;
+
+  // Filter stage: expected acceleration (per s^2) and measurement noise per value
+  public static boolean FILTER_ENABLED = true;
+  public static double DISTANCE_ACCEL_STD = 2.0; // m/s^2
+  public static double DISTANCE_MEASUREMENT_STD = 0.05; // m
+  public static double HEIGHT_ACCEL_STD = 0.5; // m/s^2
+  public static double HEIGHT_MEASUREMENT_STD = 0.03; // m
+  public static double TX_ACCEL_STD = 200.0; // deg/s^2
+  public static double TX_MEASUREMENT_STD = 0.5; // deg
+  // Measurements beyond this many standard deviations are outliers...
+  public static double OUTLIER_GATE_SIGMA = 4.0;
+  // ...until this many arrive in a row, then the filter restarts on them
+  public static int MAX_OUTLIER_FRAMES = 3;
+  // How long the filter keeps reporting a target after it drops out
+  public static double MAX_COAST_MS = 200.0;
+
+  private final VisionSource source;
+  private volatile int[] targetTagIds = ANY_TAG; // empty means track any visible tag
+
+  // Only touched by the thread that polls the source (loop or poller thread)
+  private final VisionFrame frame = new VisionFrame();
+  private final ConstantVelocityFilter distanceFilter = new ConstantVelocityFilter();
+  private final ConstantVelocityFilter heightFilter = new ConstantVelocityFilter();
+  private final ConstantVelocityFilter txFilter = new ConstantVelocityFilter();
+  private int filterTagId = -1;
+  private long filterNanos = 0;
+  private long lastMeasurementNanos = 0;
+
+  // Raw estimate from the current frame, filled by measure()
+  private double measuredDistance, measuredHeight, measuredTx, measuredTy;
+  private int measuredTagId, measuredTagsUsed;
+
+  private volatile VisionSnapshot latest = VisionSnapshot.NONE;
+  private Thread pollThread = null;
+  private volatile boolean polling = false;
+
+  // Latency compensation state (control loop thread only)
+  private PoseHistory poseHistory = null;
+  private PoseHistory mountHistory = null;
+  private final double[] poseAtCapture = new double[3];
+  private final double[] mountAngle = new double[3];
+  private final double[] poseNow = new double[3];
+  private VisionSnapshot predictedFrom = null;
+  private long predictedAtPoseNanos = 0;
+  private double predictedDistanceMeters = 0;
+  private double predictedTx = 0;
 
   public Vision(HardwareMap hardwareMap) {
-    try {
-      limelight = hardwareMap.get(Limelight3A.class, "limelight");
-      limelight.setPollRateHz(100);
-      limelight.pipelineSwitch(0); // Default AprilTag pipeline
-      limelight.start();
-    } catch (Exception e) {
-      limelight = null;
-    }
+    this(LimelightVisionSource.create(hardwareMap));
+  }
+
+  /**
+   * Create a Vision reading from any source, e.g. FakeVisionSource.
+   * @param source result source, or null if no camera is available
+   */
+  public Vision(VisionSource source) {
+    this.source = source;
   }
 
   /**
@@ -41,69 +119,284 @@ public class Vision {
    * @param tagId The AprilTag ID to track, or -1 to track any visible tag
    */
   public void setTargetTagId(int tagId) {
-    this.targetTagId = tagId;
+    this.targetTagIds = tagId == -1 ? ANY_TAG : new int[] {tagId};
   }
 
   /**
-   * Update vision data. Call this in your loop.
+   * Set the AprilTag IDs that count as the goal, e.g. both alliance goals.
+   * @param tagIds accepted IDs; none means track any visible tag
+   */
+  public void setTargetTagIds(int... tagIds) {
+    this.targetTagIds = tagIds.length == 0 ? ANY_TAG : tagIds.clone();
+  }
+
+  /**
+   * Update vision data. Call this in your loop. Does nothing while the
+   * background poller is running.
    */
   public void update() {
-    if (limelight == null) {
-      hasValidTarget = false;
+    if (polling) {
       return;
     }
+    poll();
+  }
 
-    LLResult result = limelight.getLatestResult();
-    if (result == null || !result.isValid()) {
-      hasValidTarget = false;
+  /**
+   * Start polling the camera on a background thread. The control loop then
+   * only reads the latest published snapshot.
+   */
+  public synchronized void startAsync() {
+    if (pollThread != null || source == null) {
       return;
     }
+    polling = true;
+    pollThread = new Thread(this::pollLoop, "Vision poller");
+    pollThread.setDaemon(true);
+    pollThread.start();
+  }
 
-    // Cache raw angle offsets
-    lastTx = result.getTx();
-    lastTy = result.getTy();
-
-    List<LLResultTypes.FiducialResult> fiducials = result.getFiducialResults();
-    if (fiducials.isEmpty()) {
-      hasValidTarget = false;
+  /** Stop the background poller and wait briefly for it to exit. */
+  public synchronized void stopAsync() {
+    if (pollThread == null) {
       return;
     }
+    polling = false;
+    pollThread.interrupt();
+    try {
+      pollThread.join(100);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    pollThread = null;
+  }
 
-    // Find the target tag (or use first visible if targetTagId is -1)
-    LLResultTypes.FiducialResult targetFiducial = null;
-    for (LLResultTypes.FiducialResult fiducial : fiducials) {
-      if (targetTagId == -1 || fiducial.getFiducialId() == targetTagId) {
-        targetFiducial = fiducial;
-        break;
+  /** True while the background poller is running. */
+  public boolean isAsync() {
+    return polling;
+  }
+
+  private void pollLoop() {
+    long periodMs = 1000 / POLL_RATE_HZ;
+    while (polling) {
+      try {
+        poll();
+      } catch (RuntimeException e) {
+        // A bad result must not kill the poller; try again next period
+      }
+      try {
+        Thread.sleep(periodMs);
+      } catch (InterruptedException e) {
+        return;
       }
     }
+  }
 
-    if (targetFiducial == null) {
-      hasValidTarget = false;
+  private void poll() {
+    if (source == null) {
       return;
     }
+    if (source.read(frame)) {
+      latest = process(frame, latest);
+    }
+  }
+
+  /**
+   * Turn a raw frame into a snapshot. When the target is lost the last
+   * distance and height are kept but hasTarget is cleared.
+   */
+  private VisionSnapshot process(VisionFrame f, VisionSnapshot previous) {
+    long captureNanos = f.getCaptureNanos();
+    if ((System.nanoTime() - captureNanos) / 1e6 > MAX_RESULT_AGE_MS) {
+      return lostTarget(previous, previous.tx, previous.ty, captureNanos);
+    }
+    // A fresh frame without a valid result is a dropout: coast or reset below
+    boolean found = f.valid && measure(f);
+    // Invalid frames carry no angles; keep the last ones
+    double tx = f.valid ? f.tx : previous.tx;
+    double ty = f.valid ? f.ty : previous.ty;
+
+    if (!FILTER_ENABLED) {
+      resetFilters();
+      if (!found) {
+        return lostTarget(previous, tx, ty, captureNanos);
+      }
+      return new VisionSnapshot(true, measuredDistance, measuredHeight, measuredTx, measuredTy,
+          measuredTagId, measuredTagsUsed, captureNanos,
+          DISTANCE_MEASUREMENT_STD * DISTANCE_MEASUREMENT_STD,
+          HEIGHT_MEASUREMENT_STD * HEIGHT_MEASUREMENT_STD, TX_MEASUREMENT_STD * TX_MEASUREMENT_STD);
+    }
+
+    distanceFilter.configure(DISTANCE_ACCEL_STD, DISTANCE_MEASUREMENT_STD);
+    heightFilter.configure(HEIGHT_ACCEL_STD, HEIGHT_MEASUREMENT_STD);
+    txFilter.configure(TX_ACCEL_STD, TX_MEASUREMENT_STD);
+    if (found && measuredTagId != filterTagId) {
+      // A different goal: its history says nothing about this one
+      resetFilters();
+    }
+    if (distanceFilter.isInitialized() && captureNanos > filterNanos) {
+      double dt = (captureNanos - filterNanos) / 1e9;
+      distanceFilter.predict(dt);
+      heightFilter.predict(dt);
+      txFilter.predict(dt);
+      filterNanos = captureNanos;
+    }
+
+    if (found) {
+      distanceFilter.correct(measuredDistance, OUTLIER_GATE_SIGMA, MAX_OUTLIER_FRAMES);
+      heightFilter.correct(measuredHeight, OUTLIER_GATE_SIGMA, MAX_OUTLIER_FRAMES);
+      txFilter.correct(measuredTx, OUTLIER_GATE_SIGMA, MAX_OUTLIER_FRAMES);
+      filterTagId = measuredTagId;
+      filterNanos = captureNanos;
+      lastMeasurementNanos = captureNanos;
+      return filteredSnapshot(measuredTy, measuredTagsUsed, captureNanos);
+    }
+    if (distanceFilter.isInitialized()
+        && (captureNanos - lastMeasurementNanos) / 1e6 <= MAX_COAST_MS) {
+      // Dropout: coast on the predicted state, flagged by tagsUsed == 0
+      return filteredSnapshot(previous.ty, 0, captureNanos);
+    }
+    resetFilters();
+    return lostTarget(previous, tx, ty, captureNanos);
+  }
+
+  private VisionSnapshot filteredSnapshot(double ty, int tagsUsed, long captureNanos) {
+    return new VisionSnapshot(true, distanceFilter.getValue(), heightFilter.getValue(),
+        txFilter.getValue(), ty, filterTagId, tagsUsed, captureNanos,
+        distanceFilter.getVariance(), heightFilter.getVariance(), txFilter.getVariance());
+  }
+
+  private void resetFilters() {
+    distanceFilter.reset();
+    heightFilter.reset();
+    txFilter.reset();
+    filterTagId = -1;
+  }
+
+  /**
+   * Pick or fuse the accepted tags in a frame into the measured* fields.
+   *
+   * @return false if no accepted tag with a pose is visible
+   */
+  private boolean measure(VisionFrame f) {
+    int[] wanted = targetTagIds;
+    TagPolicy policy = TAG_POLICY;
+    int best = -1;
+    double bestScore = 0;
+    for (int i = 0; i < f.tagCount; i++) {
+      if (!f.tagHasPose[i] || !isWanted(wanted, f.tagIds[i])) {
+        continue;
+      }
+      double score;
+      switch (policy) {
+        case CLOSEST:
+          score = -rangeSq(f, i);
+          break;
+        case LARGEST:
+          score = f.tagAreas[i];
+          break;
+        case FUSED:
+          score = fusionWeight(f, i);
+          break;
+        default:
+          score = -i;
+          break;
+      }
+      if (best < 0 || score > bestScore) {
+        best = i;
+        bestScore = score;
+      }
+    }
+    if (best < 0) {
+      return false;
+    }
+
+    measuredTagId = f.tagIds[best];
+    if (policy == TagPolicy.FUSED) {
+      // Only detections of the chosen goal are averaged: camera-frame positions
+      // of different goals describe different points
+      int used = 0;
+      double weightSum = 0, sumX = 0, sumY = 0, sumZ = 0, sumTx = 0, sumTy = 0;
+      for (int i = 0; i < f.tagCount; i++) {
+        double weight = fusionWeight(f, i);
+        if (!f.tagHasPose[i] || f.tagIds[i] != measuredTagId || weight <= 0) {
+          continue;
+        }
+        used++;
+        weightSum += weight;
+        sumX += weight * f.tagX[i];
+        sumY += weight * f.tagY[i];
+        sumZ += weight * f.tagZ[i];
+        sumTx += weight * f.tagTx[i];
+        sumTy += weight * f.tagTy[i];
+      }
+      if (used > 0) {
+        double x = sumX / weightSum;
+        double z = sumZ / weightSum;
+        measuredDistance = Math.sqrt(x * x + z * z);
+        measuredHeight = sumY / weightSum;
+        measuredTx = sumTx / weightSum;
+        measuredTy = sumTy / weightSum;
+        measuredTagsUsed = used;
+        return true;
+      }
+    }
+    double x = f.tagX[best];
+    double z = f.tagZ[best];
+    measuredDistance = Math.sqrt(x * x + z * z);
+    measuredHeight = f.tagY[best];
+    measuredTx = f.tagTx[best];
+    measuredTy = f.tagTy[best];
+    measuredTagsUsed = 1;
+    return true;
+  }
 
-    lastTrackedTagId = targetFiducial.getFiducialId();
+  /** Squared horizontal range to a tag; X and Z form the horizontal plane, Y is vertical. */
+  private static double rangeSq(VisionFrame f, int i) {
+    return Math.max(f.tagX[i] * f.tagX[i] + f.tagZ[i] * f.tagZ[i], 1e-6);
+  }
 
-    // Get robot pose relative to the tag
-    Pose3D robotPoseTargetSpace = targetFiducial.getRobotPoseTargetSpace();
-    if (robotPoseTargetSpace != null) {
-      Position pos = robotPoseTargetSpace.getPosition();
-      // X and Z form the horizontal plane, Y is vertical
-      lastDistanceMeters = Math.sqrt(pos.x * pos.x + pos.z * pos.z);
-      lastHeightMeters = pos.y;
-      hasValidTarget = true;
-    } else {
-      hasValidTarget = false;
+  private static double fusionWeight(VisionFrame f, int i) {
+    return f.tagAreas[i] / rangeSq(f, i);
+  }
+
+  private static boolean isWanted(int[] wanted, int id) {
+    if (wanted.length == 0) {
+      return true;
+    }
+    for (int w : wanted) {
+      if (w == id) {
+        return true;
+      }
     }
+    return false;
+  }
+
+  private static VisionSnapshot lostTarget(
+      VisionSnapshot previous, double tx, double ty, long captureNanos) {
+    return new VisionSnapshot(false, previous.distanceMeters, previous.heightMeters, tx, ty,
+        previous.tagId, 0, captureNanos, previous.distanceVariance, previous.heightVariance,
+        previous.txVariance);
+  }
+
+  /**
+   * Get the most recent snapshot. Read it once per loop and use its fields
+   * when several values must come from the same camera frame.
+   */
+  public VisionSnapshot getSnapshot() {
+    return latest;
   }
 
   /**
    * Check if we currently have a valid target lock.
-   * @return true if a valid AprilTag is being tracked
+   * @return true if a valid AprilTag is being tracked and the result is no
+   *     older than MAX_RESULT_AGE_MS
    */
   public boolean hasTarget() {
-    return hasValidTarget;
+    return isFresh(latest);
+  }
+
+  private static boolean isFresh(VisionSnapshot s) {
+    return s.hasTarget && s.getStalenessMs() <= MAX_RESULT_AGE_MS;
   }
 
   /**
@@ -111,7 +404,98 @@ public class Vision {
    * @return tag ID, or -1 if no target
    */
   public int getTrackedTagId() {
-    return hasValidTarget ? lastTrackedTagId : -1;
+    VisionSnapshot s = latest;
+    return isFresh(s) ? s.tagId : -1;
+  }
+
+  /**
+   * Attach the odometry pose history used to forward-predict measurements to
+   * the current time. Pass null to disable prediction.
+   */
+  public void setPoseHistory(PoseHistory history) {
+    poseHistory = history;
+    predictedFrom = null;
+  }
+
+  /**
+   * Attach the history of the camera's yaw relative to the chassis (heading
+   * slot, radians CCW), e.g. the turret angle when the camera rides on it.
+   * Pass null for a camera fixed to the chassis. Control loop thread only.
+   */
+  public void setCameraMountHistory(PoseHistory history) {
+    if (history != mountHistory) {
+      mountHistory = history;
+      predictedFrom = null;
+    }
+  }
+
+  /**
+   * Horizontal distance to the goal now, compensating for robot motion since
+   * the camera frame was captured. Falls back to the measured distance when no
+   * pose history covers the capture time. Control loop thread only.
+   *
+   * @return distance in meters
+   */
+  public double getPredictedDistanceToGoalMeters() {
+    updatePrediction();
+    return predictedDistanceMeters;
+  }
+
+  /**
+   * Horizontal bearing to the goal now, in the same convention as getTx()
+   * (degrees, positive = goal to the right). Control loop thread only.
+   */
+  public double getPredictedTx() {
+    updatePrediction();
+    return predictedTx;
+  }
+
+  private void updatePrediction() {
+    VisionSnapshot s = latest;
+    PoseHistory history = poseHistory;
+    long poseNanos = history != null ? history.getNewestNanos() : 0;
+    if (s == predictedFrom && poseNanos == predictedAtPoseNanos) {
+      return;
+    }
+    predictedFrom = s;
+    predictedAtPoseNanos = poseNanos;
+    predictedDistanceMeters = s.distanceMeters;
+    predictedTx = s.tx;
+    if (!s.hasTarget || history == null || !history.getPoseAt(s.captureNanos, poseAtCapture)
+        || !history.getNewest(poseNow)) {
+      return;
+    }
+
+    // Goal in the robot frame at capture (x forward, y left; tx is positive right)
+    PoseHistory mount = mountHistory;
+    double mountAtCapture = 0;
+    double mountNow = 0;
+    if (mount != null && mount.getNewest(mountAngle)) {
+      mountNow = mountAngle[2];
+      mountAtCapture = mount.getPoseAt(s.captureNanos, mountAngle) ? mountAngle[2] : mountNow;
+    }
+    double range = s.distanceMeters * METERS_TO_INCHES;
+    double bearing = mountAtCapture - Math.toRadians(s.tx);
+    double gx = range * Math.cos(bearing);
+    double gy = range * Math.sin(bearing);
+
+    // Robot frame at capture -> field
+    double cosC = Math.cos(poseAtCapture[2]);
+    double sinC = Math.sin(poseAtCapture[2]);
+    double fieldX = poseAtCapture[0] + gx * cosC - gy * sinC;
+    double fieldY = poseAtCapture[1] + gx * sinC + gy * cosC;
+
+    // Field -> robot frame now
+    double dx = fieldX - poseNow[0];
+    double dy = fieldY - poseNow[1];
+    double cosN = Math.cos(poseNow[2]);
+    double sinN = Math.sin(poseNow[2]);
+    double rx = dx * cosN + dy * sinN;
+    double ry = -dx * sinN + dy * cosN;
+
+    predictedDistanceMeters = Math.hypot(rx, ry) / METERS_TO_INCHES;
+    // Back into the camera frame as it is mounted now
+    predictedTx = -Math.toDegrees(Math.atan2(ry, rx) - mountNow);
   }
 
   /**
@@ -120,7 +504,7 @@ public class Vision {
    * @return distance in meters, or 0 if no valid target
    */
   public double getDistanceToGoalMeters() {
-    return lastDistanceMeters;
+    return latest.distanceMeters;
   }
 
   /**
@@ -130,17 +514,33 @@ public class Vision {
    * @return height difference in meters, or 0 if no valid target
    */
   public double getHeightToGoalMeters() {
-    return lastHeightMeters;
+    return latest.heightMeters;
+  }
+
+  /** Variance of getDistanceToGoalMeters() (m^2). */
+  public double getDistanceVariance() {
+    return latest.distanceVariance;
+  }
+
+  /** Variance of getHeightToGoalMeters() (m^2). */
+  public double getHeightVariance() {
+    return latest.heightVariance;
+  }
+
+  /** Variance of getTx() (deg^2). */
+  public double getTxVariance() {
+    return latest.txVariance;
   }
 
   /**
-   * Get the raw tx (horizontal angle offset) from Limelight.
+   * Get the tx (horizontal angle offset) to the goal, filtered when
+   * FILTER_ENABLED.
    * Useful for aiming the turret.
    *
    * @return horizontal offset in degrees (-29.8 to 29.8)
    */
   public double getTx() {
-    return lastTx;
+    return latest.tx;
   }
 
   /**
@@ -149,7 +549,7 @@ public class Vision {
    * @return vertical offset in degrees (-24.85 to 24.85)
    */
   public double getTy() {
-    return lastTy;
+    return latest.ty;
   }
 
   /**
@@ -157,8 +557,8 @@ public class Vision {
    * @param pipeline Pipeline number (0-9)
    */
   public void setPipeline(int pipeline) {
-    if (limelight != null) {
-      limelight.pipelineSwitch(pipeline);
+    if (source != null) {
+      source.setPipeline(pipeline);
     }
   }
 
@@ -167,7 +567,7 @@ public class Vision {
    * @return true if Limelight is available
    */
   public boolean isConnected() {
-    return limelight != null && limelight.isConnected();
+    return source != null && source.isConnected();
   }
 
   /**
@@ -175,13 +575,32 @@ public class Vision {
    * @return formatted status string with connection, target, and position info
    */
   public String getStatusString() {
-    if (limelight == null) {
-      return "Limelight: Not connected";
+    return appendStatus(new StringBuilder(64)).toString();
+  }
+
+  /**
+   * Append the telemetry status string to a reused buffer without
+   * String.format.
+   * @return the same {@code out} buffer
+   */
+  public StringBuilder appendStatus(StringBuilder out) {
+    if (source == null) {
+      return out.append("Limelight: Not connected");
+    }
+    VisionSnapshot s = latest;
+    if (!isFresh(s)) {
+      return out.append("Limelight: No target");
     }
-    if (!hasValidTarget) {
-      return "Limelight: No target";
+    out.append("Tag ").append(s.tagId);
+    if (s.isCoasting()) {
+      out.append(" (coasting)");
+    } else if (s.tagsUsed > 1) {
+      out.append(" (+").append(s.tagsUsed - 1).append(')');
     }
-    return String.format(Locale.US, "Tag %d | Dist: %.2fm | Height: %.2fm | tx: %.1f°",
-        lastTrackedTagId, lastDistanceMeters, lastHeightMeters, lastTx);
+    TelemetryManager.appendFixed(out.append(" | Dist: "), s.distanceMeters, 2);
+    TelemetryManager.appendFixed(out.append("m | Height: "), s.heightMeters, 2);
+    TelemetryManager.appendFixed(out.append("m | tx: "), s.tx, 1);
+    TelemetryManager.appendFixed(out.append("° | age: "), s.getStalenessMs(), 0);
+    return out.append("ms");
   }
 }
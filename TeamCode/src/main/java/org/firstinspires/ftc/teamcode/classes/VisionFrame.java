@@ -0,0 +1,87 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+/**
+ * Mutable, preallocated holder for one raw vision result.
+ *
+ * A VisionSource fills the same instance every poll so reading results does not
+ * allocate. Tag data is stored in parallel arrays indexed 0..tagCount-1. Robot
+ * pose in target space follows the Limelight convention: X and Z form the
+ * horizontal plane, Y is vertical (meters).
+ */
+public class VisionFrame {
+  /** Most tags a single frame can hold; extra detections are dropped. */
+  public static final int MAX_TAGS = 16;
+
+  public boolean valid;
+  public double tx;
+  public double ty;
+  /** System.nanoTime() when the result reached the Control Hub. */
+  public long receivedNanos;
+  /** Camera capture + pipeline latency before the result was sent (ms). */
+  public double latencyMs;
+
+  public int tagCount;
+  public final int[] tagIds = new int[MAX_TAGS];
+  public final double[] tagAreas = new double[MAX_TAGS];
+  public final double[] tagTx = new double[MAX_TAGS];
+  public final double[] tagTy = new double[MAX_TAGS];
+  public final boolean[] tagHasPose = new boolean[MAX_TAGS];
+  public final double[] tagX = new double[MAX_TAGS];
+  public final double[] tagY = new double[MAX_TAGS];
+  public final double[] tagZ = new double[MAX_TAGS];
+
+  /** Reset to an invalid frame with no tags. */
+  public void clear() {
+    valid = false;
+    tx = 0;
+    ty = 0;
+    receivedNanos = 0;
+    latencyMs = 0;
+    tagCount = 0;
+  }
+
+  /**
+   * Append a tag detection.
+   *
+   * @return false if the frame is already full
+   */
+  public boolean addTag(int id, double area, double tagTxDeg, double tagTyDeg, boolean hasPose,
+      double x, double y, double z) {
+    if (tagCount >= MAX_TAGS) {
+      return false;
+    }
+    int i = tagCount++;
+    tagIds[i] = id;
+    tagAreas[i] = area;
+    tagTx[i] = tagTxDeg;
+    tagTy[i] = tagTyDeg;
+    tagHasPose[i] = hasPose;
+    tagX[i] = x;
+    tagY[i] = y;
+    tagZ[i] = z;
+    return true;
+  }
+
+  /** System.nanoTime() at which the camera captured this frame. */
+  public long getCaptureNanos() {
+    return receivedNanos - (long) (latencyMs * 1e6);
+  }
+
+  /** Copy all fields from another frame. */
+  public void copyFrom(VisionFrame other) {
+    valid = other.valid;
+    tx = other.tx;
+    ty = other.ty;
+    receivedNanos = other.receivedNanos;
+    latencyMs = other.latencyMs;
+    tagCount = other.tagCount;
+    System.arraycopy(other.tagIds, 0, tagIds, 0, tagCount);
+    System.arraycopy(other.tagAreas, 0, tagAreas, 0, tagCount);
+    System.arraycopy(other.tagTx, 0, tagTx, 0, tagCount);
+    System.arraycopy(other.tagTy, 0, tagTy, 0, tagCount);
+    System.arraycopy(other.tagHasPose, 0, tagHasPose, 0, tagCount);
+    System.arraycopy(other.tagX, 0, tagX, 0, tagCount);
+    System.arraycopy(other.tagY, 0, tagY, 0, tagCount);
+    System.arraycopy(other.tagZ, 0, tagZ, 0, tagCount);
+  }
+}
@@ -0,0 +1,53 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+/**
+ * Immutable result of one vision update. Vision publishes a new snapshot per
+ * camera result through a volatile reference, so readers on any thread always
+ * see a consistent set of values.
+ */
+public final class VisionSnapshot {
+  /** Snapshot used before the first result arrives. */
+  public static final VisionSnapshot NONE = new VisionSnapshot(false, 0, 0, 0, 0, -1, 0, 0, 0, 0, 0);
+
+  public final boolean hasTarget;
+  public final double distanceMeters;
+  public final double heightMeters;
+  public final double tx;
+  public final double ty;
+  /** Tag the estimate is based on (the highest weighted one when fused). */
+  public final int tagId;
+  /** Number of tags that went into the estimate (0 while the filter coasts). */
+  public final int tagsUsed;
+  /** System.nanoTime() at which the camera captured the frame (0 if none). */
+  public final long captureNanos;
+  /** Variances of the distance (m^2), height (m^2) and tx (deg^2) estimates. */
+  public final double distanceVariance;
+  public final double heightVariance;
+  public final double txVariance;
+
+  public VisionSnapshot(boolean hasTarget, double distanceMeters, double heightMeters, double tx,
+      double ty, int tagId, int tagsUsed, long captureNanos, double distanceVariance,
+      double heightVariance, double txVariance) {
+    this.hasTarget = hasTarget;
+    this.distanceMeters = distanceMeters;
+    this.heightMeters = heightMeters;
+    this.tx = tx;
+    this.ty = ty;
+    this.tagId = tagId;
+    this.tagsUsed = tagsUsed;
+    this.captureNanos = captureNanos;
+    this.distanceVariance = distanceVariance;
+    this.heightVariance = heightVariance;
+    this.txVariance = txVariance;
+  }
+
+  /** True if the target dropped out and the values are filter predictions. */
+  public boolean isCoasting() {
+    return hasTarget && tagsUsed == 0;
+  }
+
+  /** Time since the camera captured this frame, in milliseconds. */
+  public double getStalenessMs() {
+    return captureNanos == 0 ? Double.POSITIVE_INFINITY : (System.nanoTime() - captureNanos) / 1e6;
+  }
+}
@@ -0,0 +1,21 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+/**
+ * Source of raw vision results for Vision. The robot uses
+ * LimelightVisionSource; FakeVisionSource lets Vision run without a camera.
+ */
+public interface VisionSource {
+  /** True if the camera is connected and producing results. */
+  boolean isConnected();
+
+  /**
+   * Fill {@code frame} with the newest result.
+   *
+   * @return false if there is no result newer than the last one read (the
+   *     frame is left untouched)
+   */
+  boolean read(VisionFrame frame);
+
+  /** Switch the camera pipeline. */
+  void setPipeline(int pipeline);
+}
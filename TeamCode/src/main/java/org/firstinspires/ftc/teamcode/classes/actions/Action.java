@@ -0,0 +1,33 @@
+package org.firstinspires.ftc.teamcode.classes.actions;
+
+/**
+ * One step of robot behaviour that runs cooperatively, a loop at a time.
+ *
+ * The scheduler (or a group) calls start() once, then update() every loop
+ * until it returns true, then end(false). An action that is cut short, by a
+ * timeout or a race, gets end(true) instead. update() must return quickly
+ * and never sleep: everything else runs on the same loop.
+ */
+public interface Action {
+  /** Called once before the first update(). */
+  default void start() {}
+
+  /**
+   * Advance one loop.
+   *
+   * @return true when the action has finished
+   */
+  boolean update();
+
+  /**
+   * Called once when the action finishes or is cut short.
+   *
+   * @param interrupted true if the action did not finish on its own
+   */
+  default void end(boolean interrupted) {}
+
+  /** This action, cut short after the given number of seconds. */
+  default Action withTimeout(double seconds) {
+    return new TimeoutAction(this, seconds);
+  }
+}
@@ -0,0 +1,59 @@
+package org.firstinspires.ftc.teamcode.classes.actions;
+
+import java.util.ArrayList;
+
+/**
+ * Runs scheduled actions cooperatively from the OpMode loop.
+ *
+ * Call update() once per loop, between DefaultRobot.beginLoop() and
+ * DefaultRobot.update(), so actions see fresh sensor reads and their
+ * commands are applied by the subsystems in the same loop:
+ *
+ *   scheduler.schedule(Actions.sequence(...));
+ *   while (opModeIsActive() && scheduler.isBusy()) {
+ *     robot.beginLoop();
+ *     scheduler.update();
+ *     robot.update();
+ *   }
+ *
+ * Nothing sleeps, so the loop runs as fast as the hub reads allow.
+ */
+public class ActionScheduler {
+  private final ArrayList<Action> running = new ArrayList<>();
+
+  /** Start an action now; it is first updated on the next update(). */
+  public void schedule(Action action) {
+    if (action == null) {
+      throw new IllegalArgumentException("action cannot be null");
+    }
+    action.start();
+    running.add(action);
+  }
+
+  /** Update every running action once and drop the ones that finish. */
+  public void update() {
+    // Indexed loop: no iterator allocation per loop
+    for (int i = 0; i < running.size();) {
+      Action action = running.get(i);
+      if (action.update()) {
+        action.end(false);
+        running.remove(i);
+      } else {
+        i++;
+      }
+    }
+  }
+
+  /** True while any action is still running. */
+  public boolean isBusy() {
+    return !running.isEmpty();
+  }
+
+  /** End every running action as interrupted. */
+  public void cancelAll() {
+    for (int i = 0; i < running.size(); i++) {
+      running.get(i).end(true);
+    }
+    running.clear();
+  }
+}
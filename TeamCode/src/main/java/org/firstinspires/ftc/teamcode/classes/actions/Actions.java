@@ -0,0 +1,68 @@
+package org.firstinspires.ftc.teamcode.classes.actions;
+
+import java.util.function.BooleanSupplier;
+
+/** Factories for building action trees without nesting constructors. */
+public final class Actions {
+  private Actions() {}
+
+  /** Run the actions one after another. */
+  public static Action sequence(Action... actions) {
+    return new SequentialAction(actions);
+  }
+
+  /** Run the actions together until all have finished. */
+  public static Action parallel(Action... actions) {
+    return new ParallelAction(ParallelAction.Mode.ALL, actions);
+  }
+
+  /** Run the actions together until any one finishes. */
+  public static Action race(Action... actions) {
+    return new ParallelAction(ParallelAction.Mode.RACE, actions);
+  }
+
+  /** Run the actions together until the deadline finishes. */
+  public static Action deadline(Action deadline, Action... others) {
+    Action[] all = new Action[others.length + 1];
+    all[0] = deadline;
+    System.arraycopy(others, 0, all, 1, others.length);
+    return new ParallelAction(ParallelAction.Mode.DEADLINE, all);
+  }
+
+  /** Do nothing for the given time. */
+  public static Action waitSeconds(final double seconds) {
+    return new Action() {
+      private long startNanos;
+
+      @Override
+      public void start() {
+        startNanos = System.nanoTime();
+      }
+
+      @Override
+      public boolean update() {
+        return (System.nanoTime() - startNanos) / 1e9 >= seconds;
+      }
+    };
+  }
+
+  /** Finish once the condition is true; checked every loop. */
+  public static Action waitUntil(final BooleanSupplier condition) {
+    return condition::getAsBoolean;
+  }
+
+  /** Run the code once and finish in the same loop. */
+  public static Action instant(final Runnable code) {
+    return new Action() {
+      @Override
+      public void start() {
+        code.run();
+      }
+
+      @Override
+      public boolean update() {
+        return true;
+      }
+    };
+  }
+}
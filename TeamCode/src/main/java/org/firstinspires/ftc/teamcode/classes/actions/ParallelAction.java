@@ -0,0 +1,95 @@
+package org.firstinspires.ftc.teamcode.classes.actions;
+
+/**
+ * Runs actions side by side, updating each once per loop in order. When the
+ * group finishes depends on its Mode; actions still running at that point
+ * are ended as interrupted.
+ */
+public final class ParallelAction implements Action {
+  /** When a parallel group finishes. */
+  public enum Mode {
+    /** When every action has finished. */
+    ALL,
+    /** When any action finishes. */
+    RACE,
+    /** When the first action (the deadline) finishes. */
+    DEADLINE
+  }
+
+  private final Mode mode;
+  private final Action[] actions;
+  private final boolean[] running;
+
+  public ParallelAction(Mode mode, Action... actions) {
+    if (mode == null) {
+      throw new IllegalArgumentException("mode cannot be null");
+    }
+    this.mode = mode;
+    this.actions = checkActions(actions);
+    this.running = new boolean[actions.length];
+  }
+
+  static Action[] checkActions(Action[] actions) {
+    if (actions == null || actions.length == 0) {
+      throw new IllegalArgumentException("need at least one action");
+    }
+    for (Action action : actions) {
+      if (action == null) {
+        throw new IllegalArgumentException("actions cannot be null");
+      }
+    }
+    return actions.clone();
+  }
+
+  @Override
+  public void start() {
+    for (int i = 0; i < actions.length; i++) {
+      actions[i].start();
+      running[i] = true;
+    }
+  }
+
+  @Override
+  public boolean update() {
+    boolean anyRunning = false;
+    boolean anyFinished = false;
+    for (int i = 0; i < actions.length; i++) {
+      if (!running[i]) {
+        continue;
+      }
+      if (actions[i].update()) {
+        actions[i].end(false);
+        running[i] = false;
+        anyFinished = true;
+      } else {
+        anyRunning = true;
+      }
+    }
+    boolean done;
+    switch (mode) {
+      case RACE:
+        done = anyFinished;
+        break;
+      case DEADLINE:
+        done = !running[0];
+        break;
+      default:
+        done = !anyRunning;
+        break;
+    }
+    if (done) {
+      end(true);
+    }
+    return done;
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    for (int i = 0; i < actions.length; i++) {
+      if (running[i]) {
+        actions[i].end(true);
+        running[i] = false;
+      }
+    }
+  }
+}
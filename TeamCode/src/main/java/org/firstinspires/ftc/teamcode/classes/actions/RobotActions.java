@@ -0,0 +1,130 @@
+package org.firstinspires.ftc.teamcode.classes.actions;
+
+import org.firstinspires.ftc.teamcode.classes.DefaultRobot;
+import org.firstinspires.ftc.teamcode.classes.robot.PoseSnapshot;
+import org.firstinspires.ftc.teamcode.classes.trajectory.Trajectory;
+import org.firstinspires.ftc.teamcode.classes.trajectory.TrajectoryFollower;
+
+/**
+ * Actions that drive DefaultRobot's subsystems. They only issue commands and
+ * check state; the subsystems themselves advance in DefaultRobot.update().
+ */
+public final class RobotActions {
+  private RobotActions() {}
+
+  /**
+   * Drive at fixed powers for a time, then stop. With rotate at zero the IMU
+   * holds the heading. The powers are re-sent every loop in case a mode
+   * change zeroed them.
+   */
+  public static Action driveFor(final DefaultRobot robot, final double forward,
+      final double strafe, final double rotate, final double seconds) {
+    return new Action() {
+      private long startNanos;
+
+      @Override
+      public void start() {
+        startNanos = System.nanoTime();
+      }
+
+      @Override
+      public boolean update() {
+        if ((System.nanoTime() - startNanos) / 1e9 >= seconds) {
+          return true;
+        }
+        robot.driveHoldingHeading(forward, strafe, rotate);
+        return false;
+      }
+
+      @Override
+      public void end(boolean interrupted) {
+        robot.stopMovement();
+      }
+    };
+  }
+
+  /**
+   * Follow a trajectory using the localizer pose. The trajectory should start
+   * at the robot's current pose.
+   */
+  public static Action followTrajectory(DefaultRobot robot, Trajectory trajectory) {
+    return follow(robot, trajectory, false);
+  }
+
+  /**
+   * Follow a trajectory built from (0, 0, 0) as a move relative to wherever
+   * the robot is when the action starts.
+   */
+  public static Action followRelative(DefaultRobot robot, Trajectory trajectory) {
+    return follow(robot, trajectory, true);
+  }
+
+  private static Action follow(
+      final DefaultRobot robot, final Trajectory trajectory, final boolean relative) {
+    final TrajectoryFollower follower = new TrajectoryFollower();
+    return new Action() {
+      @Override
+      public void start() {
+        if (relative) {
+          PoseSnapshot pose = robot.getPose();
+          follower.follow(trajectory, pose.x, pose.y, pose.heading);
+        } else {
+          follower.follow(trajectory);
+        }
+      }
+
+      @Override
+      public boolean update() {
+        if (follower.update(robot.getPose())) {
+          return true;
+        }
+        robot.drive(follower.getForward(), follower.getStrafe(), follower.getRotate());
+        return false;
+      }
+
+      @Override
+      public void end(boolean interrupted) {
+        follower.cancel();
+        robot.stopMovement();
+      }
+    };
+  }
+
+  /**
+   * Spin the flywheel toward the RPM and finish once it is ready to fire. The
+   * flywheel keeps spinning after this ends, even when cut short.
+   */
+  public static Action spinUpShooter(final DefaultRobot robot, final double rpm) {
+    return new Action() {
+      @Override
+      public void start() {
+        robot.setShooterRpm(rpm);
+      }
+
+      @Override
+      public boolean update() {
+        return robot.isShooterReady();
+      }
+    };
+  }
+
+  /** Fire one ball with the loader and finish once it is back home. */
+  public static Action fire(final DefaultRobot robot) {
+    return new Action() {
+      @Override
+      public void start() {
+        robot.fireLoader();
+      }
+
+      @Override
+      public boolean update() {
+        return !robot.isLoaderMoving();
+      }
+    };
+  }
+
+  /** Let the flywheel coast down. */
+  public static Action stopShooter(final DefaultRobot robot) {
+    return Actions.instant(robot::stopShooter);
+  }
+}
@@ -0,0 +1,409 @@
+package org.firstinspires.ftc.teamcode.classes.actions;
+
+import com.acmerobotics.dashboard.config.Config;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Locale;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.teamcode.classes.Alliance;
+import org.firstinspires.ftc.teamcode.classes.DefaultRobot;
+import org.firstinspires.ftc.teamcode.classes.trajectory.Trajectory;
+import org.firstinspires.ftc.teamcode.classes.trajectory.TrajectoryBuilder;
+
+/**
+ * An autonomous route read from a text file, so routes can be edited on the
+ * robot without rebuilding the app. Files live in DIRECTORY as
+ * {@code <name>.route}, one step per line; {@code #} starts a comment:
+ *
+ *   alliance blue          # side the route is written for (default blue)
+ *   parallel deadline      # group: all | race | deadline (first step)
+ *     drive -24            # inches, forward positive
+ *     spinup 3000          # flywheel RPM; done once ready to fire
+ *   end
+ *   shoot 2                # wait for speed and fire, per ball
+ *   stopshooter
+ *   strafe 24              # inches, left positive
+ *   turn 90                # degrees, CCW positive, within +-180
+ *   wait 0.5               # seconds
+ *   drivefor 0 0.5 0 1.5   # forward, strafe right, rotate CW powers, seconds
+ *
+ * {@code sequence ... end} groups steps inside a parallel group. Running the
+ * route for the other alliance mirrors it: strafes and turns change sign.
+ *
+ * parse() does all the work once, usually on the init executor (see
+ * InitPrecompute): moves become relative trajectories, built at parse time.
+ * A parsed Route is immutable and can be cached; toAction() turns it into
+ * a fresh action tree for each run, also before start.
+ */
+@Config
+public final class Route {
+  public static final File DIRECTORY = new File(AppUtil.FIRST_FOLDER, "routes");
+
+  // Longest waits in a shoot step for the flywheel and for a loader stroke
+  public static double SHOT_READY_TIMEOUT_SEC = 2.0;
+  public static double SHOT_FIRE_TIMEOUT_SEC = 2.0;
+
+  private enum Kind { MOVE, DRIVE_FOR, SPIN_UP, SHOOT, STOP_SHOOTER, WAIT, PARALLEL, SEQUENCE }
+
+  private static final class Step {
+    final Kind kind;
+    final double[] args;
+    final Trajectory trajectory;
+    final ParallelAction.Mode mode;
+    final Step[] children;
+    final boolean moves;
+
+    Step(Kind kind, double[] args, Trajectory trajectory, ParallelAction.Mode mode,
+        Step[] children, boolean moves) {
+      this.kind = kind;
+      this.args = args;
+      this.trajectory = trajectory;
+      this.mode = mode;
+      this.children = children;
+      this.moves = moves;
+    }
+  }
+
+  private final Step[] steps;
+  private final String[] labels;
+  private final Alliance alliance;
+  private final String source;
+
+  private Route(Step[] steps, String[] labels, Alliance alliance, String source) {
+    this.steps = steps;
+    this.labels = labels;
+    this.alliance = alliance;
+    this.source = source;
+  }
+
+  /** The file holding the named route. */
+  public static File getFile(String name) {
+    return new File(DIRECTORY, name + ".route");
+  }
+
+  /**
+   * Read and parse the named route from DIRECTORY.
+   *
+   * @throws IOException if the file cannot be read
+   * @throws IllegalArgumentException if the route is invalid
+   */
+  public static Route load(String name, Alliance alliance) throws IOException {
+    File file = getFile(name);
+    StringBuilder text = new StringBuilder();
+    try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        text.append(line).append('\n');
+      }
+    }
+    return parse(text.toString(), alliance, file.getName());
+  }
+
+  /**
+   * Parse route text for an alliance.
+   *
+   * @param source where the text came from, shown in telemetry
+   * @throws IllegalArgumentException naming the line of the first error
+   */
+  public static Route parse(String text, Alliance alliance, String source) {
+    if (alliance == null) {
+      throw new IllegalArgumentException("alliance cannot be null");
+    }
+    Parser parser = new Parser(text);
+    Alliance writtenFor = parser.parseHeader();
+    ArrayList<String> labels = new ArrayList<>();
+    Step[] steps = parser.parseBlock(writtenFor != alliance, labels, false);
+    if (steps.length == 0) {
+      throw new IllegalArgumentException("route has no steps");
+    }
+    return new Route(steps, labels.toArray(new String[0]), alliance, source);
+  }
+
+  public Alliance getAlliance() {
+    return alliance;
+  }
+
+  public String getSource() {
+    return source;
+  }
+
+  public int getStepCount() {
+    return steps.length;
+  }
+
+  /** Build the actions for one run. Call before start; nothing here is reused. */
+  public Run toAction(DefaultRobot robot) {
+    Action[] actions = new Action[steps.length];
+    for (int i = 0; i < steps.length; i++) {
+      actions[i] = toAction(steps[i], robot);
+    }
+    return new Run(new SequentialAction(actions), labels);
+  }
+
+  private static Action toAction(Step step, DefaultRobot robot) {
+    switch (step.kind) {
+      case MOVE:
+        return RobotActions.followRelative(robot, step.trajectory);
+      case DRIVE_FOR:
+        return RobotActions.driveFor(
+            robot, step.args[0], step.args[1], step.args[2], step.args[3]);
+      case SPIN_UP:
+        return RobotActions.spinUpShooter(robot, step.args[0]);
+      case SHOOT:
+        Action[] shots = new Action[2 * (int) step.args[0]];
+        for (int i = 0; i < shots.length; i += 2) {
+          shots[i] = Actions.waitUntil(robot::isShooterReady).withTimeout(SHOT_READY_TIMEOUT_SEC);
+          shots[i + 1] = RobotActions.fire(robot).withTimeout(SHOT_FIRE_TIMEOUT_SEC);
+        }
+        return new SequentialAction(shots);
+      case STOP_SHOOTER:
+        return RobotActions.stopShooter(robot);
+      case WAIT:
+        return Actions.waitSeconds(step.args[0]);
+      default:
+        Action[] children = new Action[step.children.length];
+        for (int i = 0; i < children.length; i++) {
+          children[i] = toAction(step.children[i], robot);
+        }
+        return step.kind == Kind.PARALLEL ? new ParallelAction(step.mode, children)
+                                          : new SequentialAction(children);
+    }
+  }
+
+  /** A route's action tree; reports which top-level step is running. */
+  public static final class Run implements Action {
+    private final SequentialAction sequence;
+    private final String[] labels;
+
+    private Run(SequentialAction sequence, String[] labels) {
+      this.sequence = sequence;
+      this.labels = labels;
+    }
+
+    @Override
+    public void start() {
+      sequence.start();
+    }
+
+    @Override
+    public boolean update() {
+      return sequence.update();
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+      sequence.end(interrupted);
+    }
+
+    /** Text of the running top-level step, e.g. "shoot 2", or "done". */
+    public String getCurrentStep() {
+      int index = sequence.getIndex();
+      return index < labels.length ? labels[index] : "done";
+    }
+  }
+
+  private static final class Parser {
+    private final ArrayList<String[]> lines = new ArrayList<>();
+    private final ArrayList<Integer> lineNumbers = new ArrayList<>();
+    private int position = 0;
+
+    Parser(String text) {
+      String[] raw = text.split("\r?\n", -1);
+      for (int i = 0; i < raw.length; i++) {
+        String line = raw[i];
+        int comment = line.indexOf('#');
+        if (comment >= 0) {
+          line = line.substring(0, comment);
+        }
+        line = line.trim();
+        if (!line.isEmpty()) {
+          lines.add(line.toLowerCase(Locale.US).split("\\s+"));
+          lineNumbers.add(i + 1);
+        }
+      }
+    }
+
+    /** Read an optional leading "alliance red|blue" line. */
+    Alliance parseHeader() {
+      if (position < lines.size() && lines.get(position)[0].equals("alliance")) {
+        String[] words = lines.get(position);
+        expectArgs(words, 1);
+        Alliance alliance;
+        switch (words[1]) {
+          case "red":
+            alliance = Alliance.RED;
+            break;
+          case "blue":
+            alliance = Alliance.BLUE;
+            break;
+          default:
+            throw error("unknown alliance '" + words[1] + "'");
+        }
+        position++;
+        return alliance;
+      }
+      return Alliance.BLUE;
+    }
+
+    /**
+     * Parse steps up to "end" (nested) or the end of the text (top level).
+     *
+     * @param labels filled with each step's text, or null
+     */
+    Step[] parseBlock(boolean mirror, ArrayList<String> labels, boolean nested) {
+      ArrayList<Step> steps = new ArrayList<>();
+      while (position < lines.size()) {
+        String[] words = lines.get(position);
+        if (words[0].equals("end")) {
+          if (!nested) {
+            throw error("'end' without a group");
+          }
+          expectArgs(words, 0);
+          position++;
+          return steps.toArray(new Step[0]);
+        }
+        if (labels != null) {
+          labels.add(join(words));
+        }
+        steps.add(parseStep(words, mirror));
+      }
+      if (nested) {
+        throw new IllegalArgumentException("missing 'end' at end of route");
+      }
+      return steps.toArray(new Step[0]);
+    }
+
+    private Step parseStep(String[] words, boolean mirror) {
+      double sign = mirror ? -1 : 1;
+      switch (words[0]) {
+        case "drive":
+          expectArgs(words, 1);
+          return move(new TrajectoryBuilder(0, 0, 0).lineTo(number(words, 1), 0));
+        case "strafe":
+          expectArgs(words, 1);
+          return move(new TrajectoryBuilder(0, 0, 0).lineTo(0, sign * number(words, 1)));
+        case "turn":
+          expectArgs(words, 1);
+          double degrees = number(words, 1);
+          if (Math.abs(degrees) > 180) {
+            throw error("turn must be within +-180 degrees");
+          }
+          return move(new TrajectoryBuilder(0, 0, 0).turnTo(Math.toRadians(sign * degrees)));
+        case "drivefor":
+          expectArgs(words, 4);
+          position++;
+          return new Step(Kind.DRIVE_FOR, new double[] {number(words, 1),
+              sign * number(words, 2), sign * number(words, 3), nonNegative(words, 4)},
+              null, null, null, true);
+        case "spinup":
+          expectArgs(words, 1);
+          return simple(Kind.SPIN_UP, nonNegative(words, 1));
+        case "shoot":
+          if (words.length == 1) {
+            return simple(Kind.SHOOT, 1);
+          }
+          expectArgs(words, 1);
+          double count = nonNegative(words, 1);
+          if (count != Math.rint(count) || count < 1) {
+            throw error("shot count must be a whole number of at least 1");
+          }
+          return simple(Kind.SHOOT, count);
+        case "stopshooter":
+          expectArgs(words, 0);
+          return simple(Kind.STOP_SHOOTER);
+        case "wait":
+          expectArgs(words, 1);
+          return simple(Kind.WAIT, nonNegative(words, 1));
+        case "parallel":
+          return group(words, mirror, true);
+        case "sequence":
+          return group(words, mirror, false);
+        default:
+          throw error("unknown step '" + words[0] + "'");
+      }
+    }
+
+    private Step move(TrajectoryBuilder builder) {
+      position++;
+      return new Step(Kind.MOVE, null, builder.build(), null, null, true);
+    }
+
+    private Step simple(Kind kind, double... args) {
+      position++;
+      return new Step(kind, args, null, null, null, false);
+    }
+
+    private Step group(String[] words, boolean mirror, boolean parallel) {
+      ParallelAction.Mode mode = ParallelAction.Mode.ALL;
+      if (parallel && words.length == 2) {
+        try {
+          mode = ParallelAction.Mode.valueOf(words[1].toUpperCase(Locale.US));
+        } catch (IllegalArgumentException e) {
+          throw error("unknown parallel mode '" + words[1] + "'");
+        }
+      } else {
+        expectArgs(words, 0);
+      }
+      int start = position;
+      position++;
+      Step[] children = parseBlock(mirror, null, true);
+      if (children.length == 0) {
+        throw errorAt(start, "empty group");
+      }
+      int moving = 0;
+      for (Step child : children) {
+        moving += child.moves ? 1 : 0;
+      }
+      if (parallel && moving > 1) {
+        throw errorAt(start, "parallel group moves the drive more than once");
+      }
+      return new Step(parallel ? Kind.PARALLEL : Kind.SEQUENCE, null, null, mode, children,
+          moving > 0);
+    }
+
+    private void expectArgs(String[] words, int count) {
+      if (words.length - 1 != count) {
+        throw error("'" + words[0] + "' takes " + count + " value" + (count == 1 ? "" : "s"));
+      }
+    }
+
+    private double number(String[] words, int index) {
+      try {
+        double value = Double.parseDouble(words[index]);
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+          throw error("not a finite number: " + words[index]);
+        }
+        return value;
+      } catch (NumberFormatException e) {
+        throw error("not a number: " + words[index]);
+      }
+    }
+
+    private double nonNegative(String[] words, int index) {
+      double value = number(words, index);
+      if (value < 0) {
+        throw error("'" + words[0] + "' needs a value of 0 or more");
+      }
+      return value;
+    }
+
+    private IllegalArgumentException error(String message) {
+      return errorAt(position, message);
+    }
+
+    private IllegalArgumentException errorAt(int index, String message) {
+      return new IllegalArgumentException("line " + lineNumbers.get(index) + ": " + message);
+    }
+
+    private static String join(String[] words) {
+      StringBuilder out = new StringBuilder(words[0]);
+      for (int i = 1; i < words.length; i++) {
+        out.append(' ').append(words[i]);
+      }
+      return out.toString();
+    }
+  }
+}
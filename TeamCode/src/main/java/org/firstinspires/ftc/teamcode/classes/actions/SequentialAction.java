@@ -0,0 +1,52 @@
+package org.firstinspires.ftc.teamcode.classes.actions;
+
+/**
+ * Runs actions one after another. When one finishes, the next starts in the
+ * same loop, so a chain of instant actions takes a single loop.
+ */
+public final class SequentialAction implements Action {
+  private final Action[] actions;
+  private int index = 0;
+  private boolean currentStarted = false;
+
+  public SequentialAction(Action... actions) {
+    this.actions = ParallelAction.checkActions(actions);
+  }
+
+  @Override
+  public void start() {
+    index = 0;
+    currentStarted = false;
+  }
+
+  @Override
+  public boolean update() {
+    while (index < actions.length) {
+      Action current = actions[index];
+      if (!currentStarted) {
+        current.start();
+        currentStarted = true;
+      }
+      if (!current.update()) {
+        return false;
+      }
+      current.end(false);
+      index++;
+      currentStarted = false;
+    }
+    return true;
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    if (currentStarted) {
+      actions[index].end(true);
+      currentStarted = false;
+    }
+  }
+
+  /** Index of the action now running (the length once finished). */
+  public int getIndex() {
+    return index;
+  }
+}
@@ -0,0 +1,59 @@
+package org.firstinspires.ftc.teamcode.classes.actions;
+
+/**
+ * Runs an action for at most a fixed time. When the time runs out the action
+ * is ended as interrupted and the timeout counts as finished, so a sequence
+ * moves on instead of stalling on a stuck mechanism.
+ */
+public final class TimeoutAction implements Action {
+  private final Action action;
+  private final long timeoutNanos;
+  private long deadlineNanos = 0;
+  private boolean actionEnded = false;
+  private boolean timedOut = false;
+
+  public TimeoutAction(Action action, double seconds) {
+    if (action == null) {
+      throw new IllegalArgumentException("action cannot be null");
+    }
+    this.action = action;
+    this.timeoutNanos = (long) (seconds * 1e9);
+  }
+
+  @Override
+  public void start() {
+    deadlineNanos = System.nanoTime() + timeoutNanos;
+    actionEnded = false;
+    timedOut = false;
+    action.start();
+  }
+
+  @Override
+  public boolean update() {
+    if (action.update()) {
+      action.end(false);
+      actionEnded = true;
+      return true;
+    }
+    if (System.nanoTime() - deadlineNanos >= 0) {
+      action.end(true);
+      actionEnded = true;
+      timedOut = true;
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    if (!actionEnded) {
+      action.end(true);
+      actionEnded = true;
+    }
+  }
+
+  /** True if the last run ended because time ran out. */
+  public boolean hasTimedOut() {
+    return timedOut;
+  }
+}
@@ -0,0 +1,91 @@
+package org.firstinspires.ftc.teamcode.classes.robot;
+
+import com.acmerobotics.dashboard.config.Config;
+import com.qualcomm.robotcore.hardware.DcMotor;
+
+/**
+ * Write-through power cache around a DcMotor.
+ *
+ * Every setPower() on real hardware is a blocking hub transaction, so writes
+ * that differ from the last commanded value by less than POWER_EPSILON are
+ * dropped. The last commanded power is kept locally, which lets telemetry
+ * report motor powers without reading them back from the hub.
+ */
+@Config
+public class CachingMotor {
+  // Minimum change in power that is worth sending to the hub.
+  public static double POWER_EPSILON = 0.005;
+
+  private final DcMotor motor;
+  private double lastPower = Double.NaN; // NaN forces the first write through
+  private long sentWrites = 0;
+  private long suppressedWrites = 0;
+
+  public CachingMotor(DcMotor motor) {
+    if (motor == null) {
+      throw new IllegalArgumentException("motor cannot be null");
+    }
+    this.motor = motor;
+  }
+
+  /** The wrapped motor, for calls the cache does not cover. */
+  public DcMotor getMotor() {
+    return motor;
+  }
+
+  /**
+   * Set motor power, skipping the hub write if it would not change anything.
+   * A request for exactly 0.0 is always sent if the motor is not already at 0.0.
+   *
+   * @return true if the write was sent to the hub
+   */
+  public boolean setPower(double power) {
+    boolean stopping = power == 0.0 && lastPower != 0.0;
+    if (!stopping && Math.abs(power - lastPower) < POWER_EPSILON) {
+      suppressedWrites++;
+      return false;
+    }
+    motor.setPower(power);
+    lastPower = power;
+    sentWrites++;
+    return true;
+  }
+
+  /** Last power commanded through this wrapper (no hub read). */
+  public double getPower() {
+    return Double.isNaN(lastPower) ? 0.0 : lastPower;
+  }
+
+  /**
+   * Change run mode. The controller may alter the applied power when the mode
+   * changes, so the next setPower() is always sent.
+   */
+  public void setMode(DcMotor.RunMode mode) {
+    motor.setMode(mode);
+    invalidate();
+  }
+
+  /** Forget the cached power so the next setPower() goes to the hub. */
+  public void invalidate() {
+    lastPower = Double.NaN;
+  }
+
+  public void setTargetPosition(int ticks) {
+    motor.setTargetPosition(ticks);
+  }
+
+  public int getCurrentPosition() {
+    return motor.getCurrentPosition();
+  }
+
+  public boolean isBusy() {
+    return motor.isBusy();
+  }
+
+  public long getSentWrites() {
+    return sentWrites;
+  }
+  public long getSuppressedWrites() {
+    return suppressedWrites;
+  }
+}
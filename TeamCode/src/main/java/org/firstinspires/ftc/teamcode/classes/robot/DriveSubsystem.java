@@ -1,44 +1,106 @@
 package org.firstinspires.ftc.teamcode.classes.robot;
 
+import com.acmerobotics.dashboard.config.Config;
 import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.HardwareMap;
+import java.util.Arrays;
 import org.firstinspires.ftc.teamcode.classes.Utilities;
 
 /**
  * DriveSubsystem encapsulates mecanum motor hardware and basic drive
  * operations.
+ *
+ * updateVelocity() turns the four wheel encoder velocities back into a
+ * robot-frame chassis velocity (forward, left, CCW yaw rate) with the inverse
+ * of the mecanum mixing in drive().
+ *
+ * driveHoldingHeading() adds an IMU heading hold: while the rotate command
+ * is zero and the robot is translating, a PD loop on the IMU yaw keeps the
+ * heading where the last turn left it, so open-loop strafes do not yaw.
+ * drive() stays open-loop for callers with their own heading control.
  */
+@Config
 public class DriveSubsystem {
   private static final String MOTOR_FL = "leftFront";
   private static final String MOTOR_BL = "leftBack";
   private static final String MOTOR_FR = "rightFront";
   private static final String MOTOR_BR = "rightBack";
 
-  private DcMotor frontLeft;
-  private DcMotor backLeft;
-  private DcMotor frontRight;
-  private DcMotor backRight;
+  // goBILDA Yellow Jacket 5202/3/4 series, 19.2:1 ratio, 312 RPM
+  public static final double TICKS_PER_REV = 537.7;
+  // goBILDA GripForce mecanum wheels (104mm diameter)
+  public static final double WHEEL_DIAMETER_INCHES = 4.094;
+  public static final double TICKS_PER_INCH = TICKS_PER_REV / (WHEEL_DIAMETER_INCHES * Math.PI);
+
+  // Mecanum strafing is less efficient than forward/back driving.
+  // This multiplier compensates so the requested distance is accurate.
+  // Tune on the real robot (typical range 1.1 – 1.5).
+  public static final double STRAFE_CORRECTION = 1.41;
+
+  // Wheel contact patch spacing, left-right and front-back (placeholders)
+  public static double TRACK_WIDTH_INCHES = 14.5;
+  public static double WHEEL_BASE_INCHES = 13.0;
+
+  private DcMotorEx frontLeftEx;
+  private DcMotorEx backLeftEx;
+  private DcMotorEx frontRightEx;
+  private DcMotorEx backRightEx;
+
+  private double forwardVelocity = 0; // in/s
+  private double leftVelocity = 0; // in/s
+  private double yawRate = 0; // rad/s, CCW positive
+  private final double[] chassis = new double[3];
+
+  private CachingMotor frontLeft;
+  private CachingMotor backLeft;
+  private CachingMotor frontRight;
+  private CachingMotor backRight;
+
+  // Heading hold: rotate power per radian of error and per rad/s of yaw rate
+  public static double HEADING_HOLD_KP = 1.5;
+  public static double HEADING_HOLD_KD = 0.1;
+  public static double HEADING_HOLD_MAX_POWER = 0.3;
+  // Rotate commands below this count as "hold"; translation below this as stopped
+  public static double HEADING_HOLD_DEADBAND = 0.05;
+  // After a turn, latch the new heading once the yaw rate drops below this (rad/s)
+  public static double HEADING_HOLD_SETTLE_RATE = 0.3;
+
+  private ImuReader imu = null;
+  private boolean holding = false;
+  private double heldHeading = 0; // IMU yaw, radians
 
   private final DriveDirectionPresets directionPresets = new DriveDirectionPresets();
-  private double lastFLPower, lastFRPower, lastBLPower, lastBRPower;
+
+  // Reused every loop so drive() does not generate garbage: {FL, FR, BL, BR}
+  private final double[] wheelPowers = new double[4];
 
   /** Initialize motors from hardware map. */
   public DriveSubsystem(HardwareMap hardwareMap) {
     if (hardwareMap == null) {
       throw new IllegalArgumentException("hardwareMap cannot be null");
     }
-    frontLeft = hardwareMap.get(DcMotor.class, MOTOR_FL);
-    backLeft = hardwareMap.get(DcMotor.class, MOTOR_BL);
-    frontRight = hardwareMap.get(DcMotor.class, MOTOR_FR);
-    backRight = hardwareMap.get(DcMotor.class, MOTOR_BR);
+    DcMotorEx fl = hardwareMap.get(DcMotorEx.class, MOTOR_FL);
+    DcMotorEx bl = hardwareMap.get(DcMotorEx.class, MOTOR_BL);
+    DcMotorEx fr = hardwareMap.get(DcMotorEx.class, MOTOR_FR);
+    DcMotorEx br = hardwareMap.get(DcMotorEx.class, MOTOR_BR);
 
-    validateMotors();
-    directionPresets.applyTo(frontLeft, frontRight, backLeft, backRight);
+    validateMotors(fl, bl, fr, br);
+    directionPresets.applyTo(fl, fr, bl, br);
+
+    frontLeft = new CachingMotor(fl);
+    backLeft = new CachingMotor(bl);
+    frontRight = new CachingMotor(fr);
+    backRight = new CachingMotor(br);
+    frontLeftEx = fl;
+    backLeftEx = bl;
+    frontRightEx = fr;
+    backRightEx = br;
   }
 
-  private void validateMotors() {
+  private void validateMotors(DcMotor fl, DcMotor bl, DcMotor fr, DcMotor br) {
     String[] names = {"frontLeft", "backLeft", "frontRight", "backRight"};
-    DcMotor[] motors = {frontLeft, backLeft, frontRight, backRight};
+    DcMotor[] motors = {fl, bl, fr, br};
     StringBuilder missing = new StringBuilder();
     for (int i = 0; i < motors.length; i++) {
       if (motors[i] == null) {
@@ -51,19 +113,73 @@ public class DriveSubsystem {
     }
   }
 
-  /** Drive with mecanum kinematics. */
+  /** IMU for the heading hold; null makes driveHoldingHeading() open-loop. */
+  public void setImu(ImuReader imu) {
+    this.imu = imu;
+    holding = false;
+  }
+
+  /** Drive with mecanum kinematics, open-loop. */
   public void drive(double forward, double strafe, double rotate) {
+    holding = false;
+    mix(forward, strafe, rotate);
+  }
+
+  /**
+   * Drive like drive(), but hold the heading while rotate is centered. A
+   * nonzero rotate turns open-loop; the new heading is latched once the turn
+   * has settled. Without a fresh IMU reading this is plain drive().
+   */
+  public void driveHoldingHeading(double forward, double strafe, double rotate) {
+    double yaw = imu != null ? imu.getYaw() : Double.NaN;
+    if (Double.isNaN(yaw) || Math.abs(rotate) > HEADING_HOLD_DEADBAND) {
+      drive(forward, strafe, rotate);
+      return;
+    }
+    double yawRate = imu.getYawRate();
+    if (Double.isNaN(yawRate)) {
+      yawRate = 0;
+    }
+    if (!holding) {
+      if (Math.abs(yawRate) > HEADING_HOLD_SETTLE_RATE) {
+        // Let the last turn coast out instead of snapping back
+        mix(forward, strafe, 0);
+        return;
+      }
+      holding = true;
+      heldHeading = yaw;
+    }
+    if (Math.abs(forward) + Math.abs(strafe) < HEADING_HOLD_DEADBAND) {
+      // Standing still: follow the robot rather than twitch against a push
+      heldHeading = yaw;
+      mix(forward, strafe, 0);
+      return;
+    }
+    double error = PoseHistory.angleWrap(heldHeading - yaw);
+    double ccw = HEADING_HOLD_KP * error - HEADING_HOLD_KD * yawRate;
+    ccw = Math.max(-HEADING_HOLD_MAX_POWER, Math.min(HEADING_HOLD_MAX_POWER, ccw));
+    // rotate is clockwise positive
+    mix(forward, strafe, -ccw);
+  }
+
+  /** True while driveHoldingHeading() is holding a latched heading. */
+  public boolean isHoldingHeading() {
+    return holding;
+  }
+
+  private void mix(double forward, double strafe, double rotate) {
     double fl = forward + strafe + rotate;
     double fr = forward - strafe - rotate;
     double bl = forward - strafe + rotate;
     double br = forward + strafe - rotate;
-    double[] normalized = Utilities.normalizeMecanum(fl, fr, bl, br);
-    setMotorPowers(normalized);
+    setMotorPowers(Utilities.normalizeMecanum(fl, fr, bl, br, wheelPowers));
   }
 
   /** Stop all drive motors. */
   public void stop() {
-    setMotorPowers(new double[] {0.0, 0.0, 0.0, 0.0});
+    holding = false;
+    Arrays.fill(wheelPowers, 0.0);
+    setMotorPowers(wheelPowers);
   }
 
   private void setMotorPowers(double[] powers) {
@@ -73,28 +189,82 @@ public class DriveSubsystem {
     frontRight.setPower(powers[1]);
     backLeft.setPower(powers[2]);
     backRight.setPower(powers[3]);
-    updateTelemetryPowers();
   }
 
-  /** Update cached power values for telemetry. */
-  public void updateTelemetryPowers() {
-    lastFLPower = frontLeft != null ? frontLeft.getPower() : 0.0;
-    lastFRPower = frontRight != null ? frontRight.getPower() : 0.0;
-    lastBLPower = backLeft != null ? backLeft.getPower() : 0.0;
-    lastBRPower = backRight != null ? backRight.getPower() : 0.0;
+  /**
+   * Read the wheel velocities and update the chassis velocity. Call once per
+   * loop, after the hub bulk cache is cleared, so all four reads come from the
+   * same bulk read.
+   */
+  public void updateVelocity() {
+    toChassis(frontLeftEx.getVelocity(), frontRightEx.getVelocity(), backLeftEx.getVelocity(),
+        backRightEx.getVelocity(), chassis);
+    forwardVelocity = chassis[0];
+    leftVelocity = chassis[1];
+    yawRate = chassis[2];
   }
 
+  /**
+   * Convert wheel motion in encoder ticks (positions or velocities) to chassis
+   * motion: out = {forward inches, left inches, CCW radians}.
+   */
+  static void toChassis(double fl, double fr, double bl, double br, double[] out) {
+    // Inverse of drive(): strafe is positive right and rotate positive CW
+    double forward = (fl + fr + bl + br) / 4.0;
+    double strafe = (fl - fr - bl + br) / 4.0 / STRAFE_CORRECTION;
+    double rotate = (fl - fr + bl - br) / 4.0;
+    out[0] = forward / TICKS_PER_INCH;
+    out[1] = -strafe / TICKS_PER_INCH;
+    out[2] = -rotate / TICKS_PER_INCH / ((TRACK_WIDTH_INCHES + WHEEL_BASE_INCHES) / 2.0);
+  }
+
+  /** Copy the encoder positions into {@code out} as {FL, FR, BL, BR} ticks. */
+  public void getWheelPositions(int[] out) {
+    out[0] = frontLeft.getCurrentPosition();
+    out[1] = frontRight.getCurrentPosition();
+    out[2] = backLeft.getCurrentPosition();
+    out[3] = backRight.getCurrentPosition();
+  }
+
+  /** Chassis velocity along the robot's forward axis, inches/s. */
+  public double getForwardVelocity() {
+    return forwardVelocity;
+  }
+
+  /** Chassis velocity toward the robot's left, inches/s. */
+  public double getLeftVelocity() {
+    return leftVelocity;
+  }
+
+  /** Chassis yaw rate from the wheels, radians/s, CCW positive. */
+  public double getYawRate() {
+    return yawRate;
+  }
+
+  // Powers are the last values commanded through the cache, not hub reads.
   public double getFrontLeftPower() {
-    return lastFLPower;
+    return frontLeft.getPower();
   }
   public double getFrontRightPower() {
-    return lastFRPower;
+    return frontRight.getPower();
   }
   public double getBackLeftPower() {
-    return lastBLPower;
+    return backLeft.getPower();
   }
   public double getBackRightPower() {
-    return lastBRPower;
+    return backRight.getPower();
+  }
+
+  /** Number of drive power writes actually sent to the hub. */
+  public long getSentWrites() {
+    return frontLeft.getSentWrites() + frontRight.getSentWrites() + backLeft.getSentWrites()
+        + backRight.getSentWrites();
+  }
+
+  /** Number of drive power writes skipped because the value had not changed. */
+  public long getSuppressedWrites() {
+    return frontLeft.getSuppressedWrites() + frontRight.getSuppressedWrites()
+        + backLeft.getSuppressedWrites() + backRight.getSuppressedWrites();
   }
 
   /** Reset all drive encoder counts to zero. */
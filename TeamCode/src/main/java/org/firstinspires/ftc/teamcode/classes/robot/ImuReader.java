@@ -0,0 +1,147 @@
+package org.firstinspires.ftc.teamcode.classes.robot;
+
+import com.acmerobotics.dashboard.config.Config;
+import com.qualcomm.robotcore.hardware.IMU;
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+
+/**
+ * Reads the hub IMU on a background thread, at most MAX_RATE_HZ times a
+ * second, so the I2C transaction (several ms) never stalls the control loop.
+ * The latest yaw and yaw rate are published as an immutable reading through
+ * a volatile reference; getters return it without touching the bus.
+ *
+ * The thread starts on the first read and exits by itself once nobody has
+ * read for a while, e.g. after the OpMode ends. A reading older than
+ * MAX_AGE_MS counts as missing (NaN), so callers fall back instead of
+ * acting on a stale heading.
+ *
+ * Yaw is radians, CCW positive, as reported by the IMU (zeroed at init).
+ */
+@Config
+public class ImuReader {
+  // Most IMU reads per second
+  public static double MAX_RATE_HZ = 100.0;
+  // Readings older than this are treated as missing
+  public static double MAX_AGE_MS = 100.0;
+
+  // Stop polling when nobody has read for this long
+  private static final long IDLE_TIMEOUT_NANOS = 500000000L;
+
+  private static final class Reading {
+    final double yaw;
+    final double yawRate;
+    final long nanos;
+
+    Reading(double yaw, double yawRate, long nanos) {
+      this.yaw = yaw;
+      this.yawRate = yawRate;
+      this.nanos = nanos;
+    }
+  }
+
+  private final IMU imu;
+  private volatile Reading latest = null;
+  private volatile long lastUseNanos = 0;
+  private volatile long readLatencyNanos = 0;
+  private volatile long readErrors = 0;
+  private volatile boolean running = false;
+  private Thread thread = null;
+
+  /** @param imu initialized IMU (see MecanumOdometry.initImu) */
+  public ImuReader(IMU imu) {
+    if (imu == null) {
+      throw new IllegalArgumentException("imu cannot be null");
+    }
+    this.imu = imu;
+  }
+
+  /** Start polling now rather than on the first read. */
+  public synchronized void start() {
+    lastUseNanos = System.nanoTime();
+    if (thread != null) {
+      return;
+    }
+    running = true;
+    thread = new Thread(this::pollLoop, "IMU reader");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /** Stop polling and wait briefly for the thread to exit. */
+  public synchronized void stop() {
+    if (thread == null) {
+      return;
+    }
+    running = false;
+    thread.interrupt();
+    try {
+      thread.join(100);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    thread = null;
+  }
+
+  private void pollLoop() {
+    while (running && System.nanoTime() - lastUseNanos < IDLE_TIMEOUT_NANOS) {
+      long start = System.nanoTime();
+      try {
+        double yaw = imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.RADIANS);
+        double yawRate = imu.getRobotAngularVelocity(AngleUnit.RADIANS).zRotationRate;
+        long end = System.nanoTime();
+        readLatencyNanos = end - start;
+        latest = new Reading(yaw, yawRate, start + (end - start) / 2);
+      } catch (RuntimeException e) {
+        readErrors++;
+      }
+      long waitNanos = (long) (1e9 / MAX_RATE_HZ) - (System.nanoTime() - start);
+      if (waitNanos > 0) {
+        try {
+          Thread.sleep(waitNanos / 1000000L, (int) (waitNanos % 1000000L));
+        } catch (InterruptedException e) {
+          break;
+        }
+      }
+    }
+    synchronized (this) {
+      if (thread == Thread.currentThread()) {
+        running = false;
+        thread = null;
+      }
+    }
+  }
+
+  private Reading fresh() {
+    long now = System.nanoTime();
+    lastUseNanos = now;
+    if (!running) {
+      start();
+    }
+    Reading reading = latest;
+    if (reading == null || (now - reading.nanos) / 1e6 > MAX_AGE_MS) {
+      return null;
+    }
+    return reading;
+  }
+
+  /** Latest yaw in radians (CCW positive), or NaN if there is no fresh reading. */
+  public double getYaw() {
+    Reading reading = fresh();
+    return reading == null ? Double.NaN : reading.yaw;
+  }
+
+  /** Latest yaw rate in rad/s (CCW positive), or NaN if there is no fresh reading. */
+  public double getYawRate() {
+    Reading reading = fresh();
+    return reading == null ? Double.NaN : reading.yawRate;
+  }
+
+  /** Duration of the last IMU read on the background thread. */
+  public long getReadLatencyNanos() {
+    return readLatencyNanos;
+  }
+
+  public long getReadErrors() {
+    return readErrors;
+  }
+}
@@ -0,0 +1,179 @@
+package org.firstinspires.ftc.teamcode.classes.robot;
+
+import com.acmerobotics.dashboard.config.Config;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+/**
+ * LoaderSubsystem owns the loader motor and its run-mode state machine.
+ *
+ * Manual power commands run in RUN_USING_ENCODER; position moves ("raise to N
+ * ticks", "lower to home") run in RUN_TO_POSITION. The run mode is only sent
+ * to the hub when it actually changes. Position moves are bounded by
+ * MOVE_TIMEOUT_SEC so a jammed loader cannot hold power forever.
+ *
+ * Call update() once per loop so moves can finish or time out.
+ */
+@Config
+public class LoaderSubsystem {
+  private static final String MOTOR_NAME = "loader";
+
+  // Encoder position (ticks from init) the loader raises to when firing.
+  public static int FIRE_POSITION_TICKS = 250;
+  // Encoder position of the lowered loader. Encoders are reset at init.
+  public static int HOME_POSITION_TICKS = 0;
+  // Power used for position moves (RUN_TO_POSITION uses the magnitude).
+  public static double POSITION_POWER = 0.6;
+  // A move counts as finished within this many ticks of the target.
+  public static int POSITION_TOLERANCE_TICKS = 10;
+  // Longest a single raise or lower may run before it is abandoned.
+  public static double MOVE_TIMEOUT_SEC = 0.75;
+
+  /** What the loader is currently doing. */
+  public enum State { IDLE, MANUAL, RAISING, HOLDING, LOWERING }
+
+  private final CachingMotor motor;
+  private DcMotor.RunMode currentMode = null;
+  private State state = State.IDLE;
+  private int targetTicks = 0;
+  private boolean returnHomeAfterRaise = false;
+  private long moveStartNanos = 0;
+  private boolean lastMoveTimedOut = false;
+
+  /** Initialize the loader motor from the hardware map and zero its encoder. */
+  public LoaderSubsystem(HardwareMap hardwareMap) {
+    if (hardwareMap == null) {
+      throw new IllegalArgumentException("hardwareMap cannot be null");
+    }
+    DcMotor m = hardwareMap.get(DcMotor.class, MOTOR_NAME);
+    if (m == null) {
+      throw new IllegalStateException("Missing loader motor in hardware map: " + MOTOR_NAME);
+    }
+    m.setDirection(DcMotorSimple.Direction.FORWARD);
+    motor = new CachingMotor(m);
+    setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
+    setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+    motor.setPower(0.0);
+  }
+
+  /**
+   * Drive the loader open-loop at the given power. Cancels any position move.
+   * Passing 0.0 leaves the loader idle.
+   */
+  public void setManualPower(double power) {
+    setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+    motor.setPower(power);
+    state = power == 0.0 ? State.IDLE : State.MANUAL;
+  }
+
+  /** Stop the loader. */
+  public void stop() {
+    setManualPower(0.0);
+  }
+
+  /** Raise the loader to the given encoder position and hold it there. */
+  public void raiseTo(int ticks) {
+    returnHomeAfterRaise = false;
+    startMove(ticks, State.RAISING);
+  }
+
+  /** Lower the loader back to its home position. */
+  public void lowerToHome() {
+    returnHomeAfterRaise = false;
+    startMove(HOME_POSITION_TICKS, State.LOWERING);
+  }
+
+  /**
+   * Fire one ball: raise to FIRE_POSITION_TICKS, then return home. Ignored if
+   * the loader is already moving.
+   */
+  public void fire() {
+    if (isMoving()) {
+      return;
+    }
+    startMove(FIRE_POSITION_TICKS, State.RAISING);
+    returnHomeAfterRaise = true;
+  }
+
+  /**
+   * The ball has left the shooter: if a fire is still raising, head home now
+   * instead of finishing the stroke.
+   */
+  public void onShotReleased() {
+    if (state == State.RAISING && returnHomeAfterRaise) {
+      lowerToHome();
+    }
+  }
+
+  /** Advance position moves. Call once per loop. */
+  public void update() {
+    if (!isMoving()) {
+      return;
+    }
+    boolean arrived =
+        Math.abs(motor.getCurrentPosition() - targetTicks) <= POSITION_TOLERANCE_TICKS;
+    boolean timedOut = (System.nanoTime() - moveStartNanos) / 1e9 > MOVE_TIMEOUT_SEC;
+    if (!arrived && !timedOut) {
+      return;
+    }
+    lastMoveTimedOut = !arrived;
+    if (state == State.LOWERING) {
+      stop();
+    } else if (returnHomeAfterRaise || timedOut) {
+      lowerToHome();
+    } else {
+      // RUN_TO_POSITION keeps holding the raised loader until the next command
+      state = State.HOLDING;
+    }
+  }
+
+  /** True while a raise or lower move is in progress. */
+  public boolean isMoving() {
+    return state == State.RAISING || state == State.LOWERING;
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  /** True if the last position move gave up before reaching its target. */
+  public boolean didLastMoveTimeOut() {
+    return lastMoveTimedOut;
+  }
+
+  public int getPosition() {
+    return motor.getCurrentPosition();
+  }
+
+  public double getPower() {
+    return motor.getPower();
+  }
+
+  public long getSentWrites() {
+    return motor.getSentWrites();
+  }
+  public long getSuppressedWrites() {
+    return motor.getSuppressedWrites();
+  }
+
+  private void startMove(int ticks, State newState) {
+    if (state == newState && targetTicks == ticks && isMoving()) {
+      return;
+    }
+    targetTicks = ticks;
+    motor.setTargetPosition(ticks);
+    setMode(DcMotor.RunMode.RUN_TO_POSITION);
+    motor.setPower(Math.abs(POSITION_POWER));
+    state = newState;
+    moveStartNanos = System.nanoTime();
+  }
+
+  private void setMode(DcMotor.RunMode mode) {
+    if (mode == currentMode) {
+      return;
+    }
+    motor.setMode(mode);
+    currentMode = mode;
+  }
+}
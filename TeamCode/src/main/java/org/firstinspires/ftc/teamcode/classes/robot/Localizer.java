@@ -0,0 +1,34 @@
+package org.firstinspires.ftc.teamcode.classes.robot;
+
+/**
+ * Source of the robot's field pose: drive-encoder odometry or a dead-wheel
+ * coprocessor. DefaultRobot picks one at init; everything else reads poses
+ * through this interface.
+ *
+ * Field frame: x/y in inches, heading in radians, CCW positive.
+ */
+public interface Localizer {
+  /** Read the device once and advance the pose. Call once per loop. */
+  void update();
+
+  /** Latest pose and velocity. Safe from any thread. */
+  PoseSnapshot getPose();
+
+  /**
+   * Move the tracked pose, e.g. to the autonomous start position. Clears the
+   * pose history. Loop thread only.
+   */
+  void setPose(double xInches, double yInches, double headingRadians);
+
+  /** Time the last update() spent reading the device, in nanoseconds. */
+  long getReadLatencyNanos();
+
+  /** Recorded poses for latency compensation. Loop thread only. */
+  PoseHistory getHistory();
+
+  /** Short name for telemetry. */
+  String getName();
+
+  /** Called after the drive encoders are reset. */
+  default void onDriveEncodersReset() {}
+}
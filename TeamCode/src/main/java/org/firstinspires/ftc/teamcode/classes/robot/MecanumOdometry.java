@@ -0,0 +1,185 @@
+package org.firstinspires.ftc.teamcode.classes.robot;
+
+import com.acmerobotics.dashboard.config.Config;
+import com.qualcomm.hardware.rev.RevHubOrientationOnRobot;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.IMU;
+
+/**
+ * Field pose tracking from the four drive wheel encoders, with heading from
+ * the hub IMU when one is available.
+ *
+ * Each update() turns the encoder deltas into a robot-frame step (forward,
+ * left, turn) with the inverse mecanum kinematics, and integrates it with the
+ * pose exponential: the step is treated as a constant-curvature arc rather
+ * than a straight line, which keeps the pose from drifting sideways while
+ * driving and turning at once. The turn comes from the IMU when USE_IMU is
+ * set, since wheels slip while turning; otherwise from the wheels. The IMU
+ * is read through an ImuReader, so its I2C latency stays off the loop.
+ *
+ * The result is published as an immutable PoseSnapshot through a volatile
+ * reference, so any thread can read it without locking, and recorded in a
+ * PoseHistory for latency compensation on the loop thread.
+ *
+ * Call update() once per loop, after the hub bulk cache is cleared and after
+ * DriveSubsystem.updateVelocity().
+ */
+@Config
+public class MecanumOdometry implements Localizer {
+  private static final String IMU_NAME = "imu";
+
+  // Use the IMU for heading when present; off uses the wheel encoders only
+  public static boolean USE_IMU = true;
+  // How the Control Hub is mounted on the robot
+  public static RevHubOrientationOnRobot.LogoFacingDirection IMU_LOGO_DIRECTION =
+      RevHubOrientationOnRobot.LogoFacingDirection.UP;
+  public static RevHubOrientationOnRobot.UsbFacingDirection IMU_USB_DIRECTION =
+      RevHubOrientationOnRobot.UsbFacingDirection.FORWARD;
+
+  private final DriveSubsystem drive;
+  private final ImuReader imu; // null: heading from the wheels
+  private final PoseHistory history = new PoseHistory();
+
+  // {FL, FR, BL, BR} encoder ticks, this update and the last
+  private final int[] ticks = new int[4];
+  private final int[] lastTicks = new int[4];
+  private final double[] step = new double[3];
+  private boolean haveBaseline = false;
+
+  private double x = 0;
+  private double y = 0;
+  private double heading = 0;
+  private boolean imuAligned = false;
+  private double imuOffset = 0; // field heading minus IMU yaw
+
+  private volatile PoseSnapshot pose = PoseSnapshot.ORIGIN;
+  private long readLatencyNanos = 0;
+
+  /**
+   * @param imu reader of the initialized IMU (see initImu), or null to track
+   *     heading with the wheel encoders only
+   */
+  public MecanumOdometry(DriveSubsystem drive, ImuReader imu) {
+    if (drive == null) {
+      throw new IllegalArgumentException("drive cannot be null");
+    }
+    this.drive = drive;
+    this.imu = imu;
+  }
+
+  /**
+   * Get the hub IMU from the hardware map and initialize it with the
+   * configured hub orientation, yaw zeroed.
+   *
+   * @throws IllegalStateException if the IMU is missing or fails to initialize
+   */
+  public static IMU initImu(HardwareMap hardwareMap) {
+    IMU imu = hardwareMap.get(IMU.class, IMU_NAME);
+    if (imu == null) {
+      throw new IllegalStateException("Missing IMU in hardware map: " + IMU_NAME);
+    }
+    boolean ok = imu.initialize(
+        new IMU.Parameters(new RevHubOrientationOnRobot(IMU_LOGO_DIRECTION, IMU_USB_DIRECTION)));
+    if (!ok) {
+      throw new IllegalStateException("IMU failed to initialize");
+    }
+    imu.resetYaw();
+    return imu;
+  }
+
+  /** Read the encoders (and IMU) and advance the pose. Call once per loop. */
+  @Override
+  public void update() {
+    long now = System.nanoTime();
+    drive.getWheelPositions(ticks);
+    // NaN while the reader has no fresh yaw: the wheels fill in
+    double yaw = imu != null && USE_IMU ? imu.getYaw() : Double.NaN;
+    double imuYawRate = imu != null && USE_IMU ? imu.getYawRate() : Double.NaN;
+    readLatencyNanos = System.nanoTime() - now;
+    if (!haveBaseline) {
+      System.arraycopy(ticks, 0, lastTicks, 0, 4);
+      haveBaseline = true;
+    }
+    DriveSubsystem.toChassis(ticks[0] - lastTicks[0], ticks[1] - lastTicks[1],
+        ticks[2] - lastTicks[2], ticks[3] - lastTicks[3], step);
+    System.arraycopy(ticks, 0, lastTicks, 0, 4);
+
+    double turn = step[2];
+    if (Double.isNaN(yaw)) {
+      imuAligned = false;
+    } else {
+      if (!imuAligned) {
+        imuOffset = heading - yaw;
+        imuAligned = true;
+      }
+      turn = PoseHistory.angleWrap(yaw + imuOffset - heading);
+    }
+    integrate(step[0], step[1], turn);
+    history.record(now, x, y, heading);
+
+    double cos = Math.cos(heading);
+    double sin = Math.sin(heading);
+    double forward = drive.getForwardVelocity();
+    double left = drive.getLeftVelocity();
+    // The gyro rate does not suffer from wheel slip; the wheels fill in without it
+    double yawRate = Double.isNaN(imuYawRate) ? drive.getYawRate() : imuYawRate;
+    pose = new PoseSnapshot(
+        x, y, heading, forward * cos - left * sin, forward * sin + left * cos, yawRate, now);
+  }
+
+  /** Apply a robot-frame step along a constant-curvature arc. */
+  private void integrate(double forward, double left, double turn) {
+    double sinTerm;
+    double cosTerm;
+    if (Math.abs(turn) < 1e-6) {
+      sinTerm = 1.0 - turn * turn / 6.0;
+      cosTerm = turn / 2.0;
+    } else {
+      sinTerm = Math.sin(turn) / turn;
+      cosTerm = (1.0 - Math.cos(turn)) / turn;
+    }
+    double dx = sinTerm * forward - cosTerm * left;
+    double dy = cosTerm * forward + sinTerm * left;
+    double cos = Math.cos(heading);
+    double sin = Math.sin(heading);
+    x += dx * cos - dy * sin;
+    y += dx * sin + dy * cos;
+    heading = PoseHistory.angleWrap(heading + turn);
+  }
+
+  @Override
+  public void setPose(double xInches, double yInches, double headingRadians) {
+    x = xInches;
+    y = yInches;
+    heading = PoseHistory.angleWrap(headingRadians);
+    imuAligned = false;
+    history.clear();
+    pose = new PoseSnapshot(x, y, heading, 0, 0, 0, System.nanoTime());
+  }
+
+  /** Take the next encoder read as the new baseline without moving the pose. */
+  @Override
+  public void onDriveEncodersReset() {
+    haveBaseline = false;
+  }
+
+  @Override
+  public PoseSnapshot getPose() {
+    return pose;
+  }
+
+  @Override
+  public long getReadLatencyNanos() {
+    return readLatencyNanos;
+  }
+
+  @Override
+  public PoseHistory getHistory() {
+    return history;
+  }
+
+  @Override
+  public String getName() {
+    return imu != null && USE_IMU ? "Drive encoders + IMU" : "Drive encoders";
+  }
+}
@@ -0,0 +1,146 @@
+package org.firstinspires.ftc.teamcode.classes.robot;
+
+import com.acmerobotics.dashboard.config.Config;
+import com.qualcomm.hardware.digitalchickenlabs.OctoQuad;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+/**
+ * Localizer backed by an OctoQuad running its on-board dead-wheel localizer
+ * (two pods plus the OctoQuad's IMU).
+ *
+ * update() reads the localizer data block in one I2C transaction into a
+ * reused block. Packets that fail their CRC, and everything before the IMU
+ * calibration finishes, leave the pose where it was. Set the ports, scales and
+ * offsets as described in the SDK sample SensorOctoQuadLocalization.
+ */
+@Config
+public class OctoQuadLocalizer implements Localizer {
+  private static final String DEVICE_NAME = "octoquad";
+  private static final double MM_PER_INCH = 25.4;
+
+  public static int X_POD_PORT = 0;
+  public static int Y_POD_PORT = 1;
+  public static OctoQuad.EncoderDirection X_POD_DIRECTION = OctoQuad.EncoderDirection.FORWARD;
+  public static OctoQuad.EncoderDirection Y_POD_DIRECTION = OctoQuad.EncoderDirection.REVERSE;
+  // Encoder counts per mm of pod travel (19.89 for goBILDA 4-bar pods)
+  public static double X_TICKS_PER_MM = 19.89;
+  public static double Y_TICKS_PER_MM = 19.89;
+  // Tracking center offsets from the QuickStart Guide (placeholders)
+  public static double TCP_OFFSET_X_MM = 0.0;
+  public static double TCP_OFFSET_Y_MM = 0.0;
+  // Rotational scale factor for the OctoQuad's IMU
+  public static double IMU_HEADING_SCALAR = 1.0;
+  public static int VELOCITY_INTERVAL_MS = 25;
+
+  private final OctoQuad octoQuad;
+  private final OctoQuad.LocalizerDataBlock data = new OctoQuad.LocalizerDataBlock();
+  private final PoseHistory history = new PoseHistory();
+  private volatile PoseSnapshot pose = PoseSnapshot.ORIGIN;
+  private long readLatencyNanos = 0;
+  private int badPackets = 0;
+
+  // Pose requested while the localizer was not running yet
+  private boolean posePending = true;
+  private double pendingX = 0;
+  private double pendingY = 0;
+  private double pendingHeading = 0;
+
+  /**
+   * Configure the OctoQuad localizer and start its IMU calibration. The robot
+   * must be still until getStatus() reports RUNNING.
+   *
+   * @throws IllegalStateException if the OctoQuad is missing from the hardware map
+   */
+  public OctoQuadLocalizer(HardwareMap hardwareMap) {
+    if (hardwareMap == null) {
+      throw new IllegalArgumentException("hardwareMap cannot be null");
+    }
+    OctoQuad device = hardwareMap.get(OctoQuad.class, DEVICE_NAME);
+    if (device == null) {
+      throw new IllegalStateException("Missing OctoQuad in hardware map: " + DEVICE_NAME);
+    }
+    device.setSingleEncoderDirection(X_POD_PORT, X_POD_DIRECTION);
+    device.setSingleEncoderDirection(Y_POD_PORT, Y_POD_DIRECTION);
+    device.setLocalizerPortX(X_POD_PORT);
+    device.setLocalizerPortY(Y_POD_PORT);
+    device.setLocalizerCountsPerMM_X((float) X_TICKS_PER_MM);
+    device.setLocalizerCountsPerMM_Y((float) Y_TICKS_PER_MM);
+    device.setLocalizerTcpOffsetMM_X((float) TCP_OFFSET_X_MM);
+    device.setLocalizerTcpOffsetMM_Y((float) TCP_OFFSET_Y_MM);
+    device.setLocalizerImuHeadingScalar((float) IMU_HEADING_SCALAR);
+    device.setLocalizerVelocityIntervalMS(VELOCITY_INTERVAL_MS);
+    device.setI2cRecoveryMode(OctoQuad.I2cRecoveryMode.MODE_1_PERIPH_RST_ON_FRAME_ERR);
+    device.resetLocalizerAndCalibrateIMU();
+    octoQuad = device;
+  }
+
+  @Override
+  public void update() {
+    long start = System.nanoTime();
+    octoQuad.readLocalizerData(data);
+    long now = System.nanoTime();
+    readLatencyNanos = now - start;
+
+    if (!data.crcOk) {
+      badPackets++;
+      return;
+    }
+    if (data.localizerStatus != OctoQuad.LocalizerStatus.RUNNING) {
+      return;
+    }
+    if (posePending) {
+      // Takes effect on the device from the next read
+      octoQuad.setLocalizerPose((int) Math.round(pendingX * MM_PER_INCH),
+          (int) Math.round(pendingY * MM_PER_INCH), (float) pendingHeading);
+      posePending = false;
+      return;
+    }
+    double x = data.posX_mm / MM_PER_INCH;
+    double y = data.posY_mm / MM_PER_INCH;
+    double heading = PoseHistory.angleWrap(data.heading_rad);
+    history.record(now, x, y, heading);
+    pose = new PoseSnapshot(x, y, heading, data.velX_mmS / MM_PER_INCH,
+        data.velY_mmS / MM_PER_INCH, data.velHeading_radS, now);
+  }
+
+  /** Applied on the next update() once the localizer is running. */
+  @Override
+  public void setPose(double xInches, double yInches, double headingRadians) {
+    pendingX = xInches;
+    pendingY = yInches;
+    pendingHeading = PoseHistory.angleWrap(headingRadians);
+    posePending = true;
+    history.clear();
+    pose = new PoseSnapshot(xInches, yInches, pendingHeading, 0, 0, 0, System.nanoTime());
+  }
+
+  /** Localizer state from the last read, e.g. CALIBRATING_IMU or RUNNING. */
+  public OctoQuad.LocalizerStatus getStatus() {
+    return data.localizerStatus;
+  }
+
+  /** Packets dropped for a failed CRC since init. */
+  public int getBadPackets() {
+    return badPackets;
+  }
+
+  @Override
+  public PoseSnapshot getPose() {
+    return pose;
+  }
+
+  @Override
+  public long getReadLatencyNanos() {
+    return readLatencyNanos;
+  }
+
+  @Override
+  public PoseHistory getHistory() {
+    return history;
+  }
+
+  @Override
+  public String getName() {
+    return "OctoQuad";
+  }
+}
@@ -0,0 +1,109 @@
+package org.firstinspires.ftc.teamcode.classes.robot;
+
+import com.acmerobotics.dashboard.config.Config;
+import com.qualcomm.hardware.gobilda.GoBildaPinpointDriver;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Pose2D;
+import org.firstinspires.ftc.robotcore.external.navigation.UnnormalizedAngleUnit;
+
+/**
+ * Localizer backed by a goBILDA Pinpoint odometry computer: two dead-wheel
+ * pods and an IMU fused on the device at about 1.5 kHz.
+ *
+ * update() makes one bulk I2C read of the Pinpoint's registers; the pose and
+ * velocity getters then return the values from that read. Set the pod offsets
+ * and directions as described in the SDK sample SensorGoBildaPinpoint.
+ */
+@Config
+public class PinpointLocalizer implements Localizer {
+  private static final String DEVICE_NAME = "pinpoint";
+
+  // Pod positions relative to the tracking center: X pod left of center is
+  // positive, Y pod forward of center is positive (placeholders)
+  public static double X_POD_OFFSET_MM = -84.0;
+  public static double Y_POD_OFFSET_MM = -168.0;
+  public static GoBildaPinpointDriver.GoBildaOdometryPods POD_TYPE =
+      GoBildaPinpointDriver.GoBildaOdometryPods.goBILDA_4_BAR_POD;
+  public static GoBildaPinpointDriver.EncoderDirection X_POD_DIRECTION =
+      GoBildaPinpointDriver.EncoderDirection.FORWARD;
+  public static GoBildaPinpointDriver.EncoderDirection Y_POD_DIRECTION =
+      GoBildaPinpointDriver.EncoderDirection.FORWARD;
+
+  private final GoBildaPinpointDriver pinpoint;
+  private final PoseHistory history = new PoseHistory();
+  private volatile PoseSnapshot pose = PoseSnapshot.ORIGIN;
+  private long readLatencyNanos = 0;
+
+  /**
+   * Configure the Pinpoint and zero its pose and IMU. The robot must be still
+   * for the IMU calibration that follows.
+   *
+   * @throws IllegalStateException if the Pinpoint is missing from the hardware map
+   */
+  public PinpointLocalizer(HardwareMap hardwareMap) {
+    if (hardwareMap == null) {
+      throw new IllegalArgumentException("hardwareMap cannot be null");
+    }
+    GoBildaPinpointDriver device = hardwareMap.get(GoBildaPinpointDriver.class, DEVICE_NAME);
+    if (device == null) {
+      throw new IllegalStateException("Missing Pinpoint in hardware map: " + DEVICE_NAME);
+    }
+    device.setOffsets(X_POD_OFFSET_MM, Y_POD_OFFSET_MM, DistanceUnit.MM);
+    device.setEncoderResolution(POD_TYPE);
+    device.setEncoderDirections(X_POD_DIRECTION, Y_POD_DIRECTION);
+    device.resetPosAndIMU();
+    pinpoint = device;
+  }
+
+  @Override
+  public void update() {
+    long start = System.nanoTime();
+    pinpoint.update();
+    long now = System.nanoTime();
+    readLatencyNanos = now - start;
+
+    double x = pinpoint.getPosX(DistanceUnit.INCH);
+    double y = pinpoint.getPosY(DistanceUnit.INCH);
+    double heading = PoseHistory.angleWrap(pinpoint.getHeading(AngleUnit.RADIANS));
+    history.record(now, x, y, heading);
+    pose = new PoseSnapshot(x, y, heading, pinpoint.getVelX(DistanceUnit.INCH),
+        pinpoint.getVelY(DistanceUnit.INCH),
+        pinpoint.getHeadingVelocity(UnnormalizedAngleUnit.RADIANS), now);
+  }
+
+  @Override
+  public void setPose(double xInches, double yInches, double headingRadians) {
+    pinpoint.setPosition(
+        new Pose2D(DistanceUnit.INCH, xInches, yInches, AngleUnit.RADIANS, headingRadians));
+    history.clear();
+    pose = new PoseSnapshot(xInches, yInches, PoseHistory.angleWrap(headingRadians), 0, 0, 0,
+        System.nanoTime());
+  }
+
+  /** Device state, e.g. CALIBRATING or a pod fault. */
+  public GoBildaPinpointDriver.DeviceStatus getDeviceStatus() {
+    return pinpoint.getDeviceStatus();
+  }
+
+  @Override
+  public PoseSnapshot getPose() {
+    return pose;
+  }
+
+  @Override
+  public long getReadLatencyNanos() {
+    return readLatencyNanos;
+  }
+
+  @Override
+  public PoseHistory getHistory() {
+    return history;
+  }
+
+  @Override
+  public String getName() {
+    return "Pinpoint";
+  }
+}
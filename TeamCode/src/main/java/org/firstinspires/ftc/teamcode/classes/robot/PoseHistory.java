@@ -0,0 +1,120 @@
+package org.firstinspires.ftc.teamcode.classes.robot;
+
+/**
+ * Fixed-size ring buffer of timestamped field poses used to look up where the
+ * robot was when an older measurement (e.g. a camera frame) was taken.
+ *
+ * Poses are x/y in inches and heading in radians (CCW positive), stamped with
+ * System.nanoTime(). Recording and lookup never allocate. Not thread-safe:
+ * record and query from the control loop thread.
+ */
+public class PoseHistory {
+  private static final int DEFAULT_CAPACITY = 128;
+
+  private final long[] stamps;
+  private final double[] xs;
+  private final double[] ys;
+  private final double[] headings;
+  private int count = 0;
+  private int newest = -1;
+
+  public PoseHistory() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public PoseHistory(int capacity) {
+    if (capacity < 2) {
+      throw new IllegalArgumentException("capacity must be at least 2");
+    }
+    stamps = new long[capacity];
+    xs = new double[capacity];
+    ys = new double[capacity];
+    headings = new double[capacity];
+  }
+
+  /** Record a pose. Timestamps must not go backwards. */
+  public void record(long nanos, double x, double y, double heading) {
+    if (count > 0 && nanos < stamps[newest]) {
+      return;
+    }
+    newest = (newest + 1) % stamps.length;
+    stamps[newest] = nanos;
+    xs[newest] = x;
+    ys[newest] = y;
+    headings[newest] = heading;
+    if (count < stamps.length) {
+      count++;
+    }
+  }
+
+  /** Forget all poses. */
+  public void clear() {
+    count = 0;
+    newest = -1;
+  }
+
+  public boolean isEmpty() {
+    return count == 0;
+  }
+
+  /** Timestamp of the newest pose, or 0 if empty. */
+  public long getNewestNanos() {
+    return count == 0 ? 0 : stamps[newest];
+  }
+
+  /**
+   * Copy the newest pose into {@code out} as {x, y, heading}.
+   *
+   * @return false if the history is empty
+   */
+  public boolean getNewest(double[] out) {
+    if (count == 0) {
+      return false;
+    }
+    out[0] = xs[newest];
+    out[1] = ys[newest];
+    out[2] = headings[newest];
+    return true;
+  }
+
+  /**
+   * Interpolate the pose at the given time into {@code out} as {x, y, heading}.
+   *
+   * @return false if the time is outside the recorded window
+   */
+  public boolean getPoseAt(long nanos, double[] out) {
+    if (count == 0 || nanos > stamps[newest]) {
+      return false;
+    }
+    int capacity = stamps.length;
+    int after = newest;
+    for (int n = 1; n < count; n++) {
+      int before = (after - 1 + capacity) % capacity;
+      if (stamps[before] <= nanos) {
+        long span = stamps[after] - stamps[before];
+        double t = span == 0 ? 1.0 : (double) (nanos - stamps[before]) / span;
+        out[0] = xs[before] + t * (xs[after] - xs[before]);
+        out[1] = ys[before] + t * (ys[after] - ys[before]);
+        out[2] = headings[before] + t * angleWrap(headings[after] - headings[before]);
+        return true;
+      }
+      after = before;
+    }
+    if (stamps[after] == nanos) {
+      out[0] = xs[after];
+      out[1] = ys[after];
+      out[2] = headings[after];
+      return true;
+    }
+    return false;
+  }
+
+  /** Wrap an angle in radians to [-pi, pi). */
+  public static double angleWrap(double radians) {
+    double wrapped = (radians + Math.PI) % (2 * Math.PI);
+    if (wrapped < 0) {
+      wrapped += 2 * Math.PI;
+    }
+    return wrapped - Math.PI;
+  }
+}
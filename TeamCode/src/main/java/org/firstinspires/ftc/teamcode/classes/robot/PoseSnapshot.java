@@ -0,0 +1,45 @@
+package org.firstinspires.ftc.teamcode.classes.robot;
+
+/**
+ * Immutable field pose and velocity from one odometry update. Odometry
+ * publishes a new snapshot per update through a volatile reference, so
+ * readers on any thread always see a consistent set of values.
+ *
+ * Field frame: x/y in inches, heading in radians, CCW positive.
+ */
+public final class PoseSnapshot {
+  /** Snapshot used before the first update: the origin, at rest. */
+  public static final PoseSnapshot ORIGIN = new PoseSnapshot(0, 0, 0, 0, 0, 0, 0);
+
+  public final double x;
+  public final double y;
+  public final double heading;
+  /** Field-frame velocity, inches/s. */
+  public final double vx;
+  public final double vy;
+  /** Yaw rate, radians/s, CCW positive. */
+  public final double yawRate;
+  /** System.nanoTime() of the encoder read (0 if none). */
+  public final long nanos;
+
+  public PoseSnapshot(
+      double x, double y, double heading, double vx, double vy, double yawRate, long nanos) {
+    this.x = x;
+    this.y = y;
+    this.heading = heading;
+    this.vx = vx;
+    this.vy = vy;
+    this.yawRate = yawRate;
+    this.nanos = nanos;
+  }
+
+  /** Velocity along the robot's forward axis, inches/s. */
+  public double getForwardVelocity() {
+    return vx * Math.cos(heading) + vy * Math.sin(heading);
+  }
+
+  /** Velocity toward the robot's left, inches/s. */
+  public double getLeftVelocity() {
+    return -vx * Math.sin(heading) + vy * Math.cos(heading);
+  }
+}
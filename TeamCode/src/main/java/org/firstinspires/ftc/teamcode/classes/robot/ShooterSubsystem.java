@@ -0,0 +1,242 @@
+package org.firstinspires.ftc.teamcode.classes.robot;
+
+import com.acmerobotics.dashboard.config.Config;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+/**
+ * ShooterSubsystem runs the flywheel closed-loop on its own controller instead
+ * of the hub's velocity PID.
+ *
+ * Each update() the setpoint ramps toward the target at MAX_ACCEL_RPM_PER_SEC,
+ * and the motor power is kS/kV/kA feedforward on that setpoint plus PID on
+ * the measured velocity. When the ShotDetector sees a ball leave, the
+ * controller switches to RECOVERY_POWER until the wheel is back in tolerance
+ * or RECOVERY_TIMEOUT_MS passes. isReady() needs the wheel within
+ * READY_TOLERANCE_RPM for READY_WINDOW_MS in a row, so a single lucky sample
+ * during sag does not release the next ball.
+ *
+ * RPM values are positive in the shooting direction. Call update() once per
+ * loop, after the hub bulk cache is cleared.
+ */
+@Config
+public class ShooterSubsystem {
+  private static final String MOTOR_NAME = "shooter";
+  private static final double TICKS_PER_REV = 28.0;
+
+  // Feedforward: power = kS + kV * rpm + kA * rpm/s
+  public static double KS = 0.05;
+  public static double KV = 0.00016;
+  public static double KA = 0.00002;
+  // Feedback on measured RPM error
+  public static double KP = 0.0005;
+  public static double KI = 0.0;
+  public static double KD = 0.0;
+  // Largest power the integral term may contribute.
+  public static double MAX_INTEGRAL_POWER = 0.2;
+  // Setpoint slew rate used for the kA term and to soften spin-up current.
+  public static double MAX_ACCEL_RPM_PER_SEC = 12000.0;
+  // Ready once within tolerance for this long.
+  public static double READY_TOLERANCE_RPM = 100.0;
+  public static double READY_WINDOW_MS = 80.0;
+  public static double RECOVERY_POWER = 1.0;
+  public static double RECOVERY_TIMEOUT_MS = 300.0;
+
+  /** What the flywheel controller is currently doing. */
+  public enum State { STOPPED, SPINNING_UP, READY, RECOVERING }
+
+  private final DcMotorEx motorEx;
+  private final CachingMotor motor;
+  private final ShotDetector shotDetector = new ShotDetector();
+  private boolean shotThisUpdate = false;
+  private State state = State.STOPPED;
+  private double targetRpm = 0;
+  private double setpointRpm = 0;
+  private double measuredRpm = 0;
+  private double power = 0;
+  private double integral = 0;
+  private double lastError = 0;
+  private long lastUpdateNanos = 0;
+  private long inToleranceSinceNanos = 0;
+  private long recoveryStartNanos = 0;
+  private int shotCount = 0;
+
+  /** Initialize the shooter motor from the hardware map. */
+  public ShooterSubsystem(HardwareMap hardwareMap) {
+    if (hardwareMap == null) {
+      throw new IllegalArgumentException("hardwareMap cannot be null");
+    }
+    DcMotorEx m = hardwareMap.get(DcMotorEx.class, MOTOR_NAME);
+    if (m == null) {
+      throw new IllegalStateException("Missing shooter motor in hardware map: " + MOTOR_NAME);
+    }
+    // The flywheel shoots with negative motor power; flip it so RPM is positive
+    m.setDirection(DcMotorSimple.Direction.REVERSE);
+    m.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+    m.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.FLOAT);
+    motorEx = m;
+    motor = new CachingMotor(m);
+    motor.setPower(0.0);
+  }
+
+  /** Spin toward the given flywheel RPM. 0 or less stops the flywheel. */
+  public void setTargetRpm(double rpm) {
+    if (rpm <= 0) {
+      stop();
+      return;
+    }
+    // Vision-driven targets move a little every loop; only a real change
+    // restarts the ready window
+    if (Math.abs(rpm - targetRpm) > READY_TOLERANCE_RPM) {
+      inToleranceSinceNanos = 0;
+    }
+    targetRpm = rpm;
+    if (state == State.STOPPED) {
+      state = State.SPINNING_UP;
+      setpointRpm = measuredRpm;
+      integral = 0;
+      lastUpdateNanos = 0;
+    }
+  }
+
+  /** Let the flywheel coast down. */
+  public void stop() {
+    targetRpm = 0;
+    setpointRpm = 0;
+    integral = 0;
+    inToleranceSinceNanos = 0;
+    state = State.STOPPED;
+    power = 0;
+    motor.setPower(0.0);
+  }
+
+  /** Read the flywheel velocity and command the motor. Call once per loop. */
+  public void update() {
+    long now = System.nanoTime();
+    measuredRpm = motorEx.getVelocity() * 60.0 / TICKS_PER_REV;
+    // A wheel slowing toward a lower target is not a shot
+    boolean aboveTarget = measuredRpm > targetRpm + READY_TOLERANCE_RPM;
+    boolean dip = shotDetector.update(now, measuredRpm);
+    shotThisUpdate = dip && state != State.STOPPED && !aboveTarget;
+    if (shotThisUpdate) {
+      shotCount++;
+    }
+    if (state == State.STOPPED) {
+      lastUpdateNanos = now;
+      return;
+    }
+    double dt = lastUpdateNanos == 0 ? 0 : (now - lastUpdateNanos) / 1e9;
+    lastUpdateNanos = now;
+
+    // Ramp the setpoint so kA sees a finite acceleration
+    double accel = 0;
+    if (dt > 0) {
+      double maxStep = MAX_ACCEL_RPM_PER_SEC * dt;
+      double step = Math.max(-maxStep, Math.min(maxStep, targetRpm - setpointRpm));
+      setpointRpm += step;
+      accel = step / dt;
+    }
+    double error = setpointRpm - measuredRpm;
+    boolean inTolerance = Math.abs(targetRpm - measuredRpm) <= READY_TOLERANCE_RPM;
+
+    if (shotThisUpdate) {
+      state = State.RECOVERING;
+      recoveryStartNanos = now;
+    }
+    if (state == State.RECOVERING) {
+      if (inTolerance || (now - recoveryStartNanos) / 1e6 >= RECOVERY_TIMEOUT_MS) {
+        state = State.SPINNING_UP;
+        inToleranceSinceNanos = 0;
+      } else {
+        // Full boost; hold the integrator so it does not wind up during sag
+        lastError = error;
+        setPower(RECOVERY_POWER);
+        return;
+      }
+    }
+
+    if (dt > 0) {
+      integral += error * dt;
+      if (KI > 0) {
+        double limit = MAX_INTEGRAL_POWER / KI;
+        integral = Math.max(-limit, Math.min(limit, integral));
+      }
+    }
+    double derivative = dt > 0 ? (error - lastError) / dt : 0;
+    lastError = error;
+    double feedforward = KS + KV * setpointRpm + KA * accel;
+    setPower(feedforward + KP * error + KI * integral + KD * derivative);
+
+    if (!inTolerance) {
+      inToleranceSinceNanos = 0;
+      if (state == State.READY) {
+        state = State.SPINNING_UP;
+      }
+    } else if (inToleranceSinceNanos == 0) {
+      inToleranceSinceNanos = now;
+    } else if ((now - inToleranceSinceNanos) / 1e6 >= READY_WINDOW_MS) {
+      state = State.READY;
+    }
+  }
+
+  private void setPower(double p) {
+    // The flywheel is never braked by the controller, only allowed to coast
+    power = Math.max(0.0, Math.min(1.0, p));
+    motor.setPower(power);
+  }
+
+  /** True once the flywheel has held the target RPM for READY_WINDOW_MS. */
+  public boolean isReady() {
+    return state == State.READY;
+  }
+
+  public boolean isRecovering() {
+    return state == State.RECOVERING;
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  public double getTargetRpm() {
+    return targetRpm;
+  }
+
+  public double getMeasuredRpm() {
+    return measuredRpm;
+  }
+
+  public double getPower() {
+    return power;
+  }
+
+  /** True if the last update() detected a ball leaving the shooter. */
+  public boolean wasShotDetected() {
+    return shotThisUpdate;
+  }
+
+  /** Shots detected from flywheel speed dips since init. */
+  public int getShotCount() {
+    return shotCount;
+  }
+
+  /** Flywheel RPM just before the last detected shot. */
+  public double getLastReleaseRpm() {
+    return shotDetector.getLastReleaseRpm();
+  }
+
+  /** System.nanoTime() of the last detected shot, or 0 if none. */
+  public long getLastShotNanos() {
+    return shotDetector.getLastShotNanos();
+  }
+
+  public long getSentWrites() {
+    return motor.getSentWrites();
+  }
+
+  public long getSuppressedWrites() {
+    return motor.getSuppressedWrites();
+  }
+}
@@ -0,0 +1,113 @@
+package org.firstinspires.ftc.teamcode.classes.robot;
+
+import com.acmerobotics.dashboard.config.Config;
+
+/**
+ * Detects balls leaving the shooter from dips in the flywheel velocity.
+ *
+ * Feed it one velocity sample per loop. A shot is a fast drop: the speed
+ * falls at least DIP_RPM below the highest speed in the last WINDOW_MS, at a
+ * rate of at least MIN_DIP_RATE_RPM_PER_SEC, which the gentler slowdown to a
+ * lower target normally does not reach. After a shot the detector stays
+ * disarmed until the wheel climbs back within REARM_RPM of its release speed
+ * or REARM_TIMEOUT_MS passes, so one dip counts once.
+ *
+ * The release RPM is the peak speed just before the dip. Samples live in a
+ * small ring buffer, so update() never allocates.
+ */
+@Config
+public class ShotDetector {
+  private static final int WINDOW_CAPACITY = 16;
+
+  public static double DIP_RPM = 200.0;
+  public static double MIN_DIP_RATE_RPM_PER_SEC = 8000.0;
+  public static double WINDOW_MS = 60.0;
+  public static double REARM_RPM = 100.0;
+  public static double REARM_TIMEOUT_MS = 500.0;
+  // Speeds below this are spin-up or coast-down, never a shot.
+  public static double MIN_SHOT_RPM = 500.0;
+
+  private final long[] sampleNanos = new long[WINDOW_CAPACITY];
+  private final double[] sampleRpm = new double[WINDOW_CAPACITY];
+  private int sampleCount = 0;
+  private int newest = -1;
+
+  private boolean armed = true;
+  private int shotCount = 0;
+  private long lastShotNanos = 0;
+  private double lastReleaseRpm = 0;
+
+  /**
+   * Add a velocity sample.
+   *
+   * @param nanos System.nanoTime() of the sample
+   * @param rpm flywheel speed, positive in the shooting direction
+   * @return true if this sample completes a shot
+   */
+  public boolean update(long nanos, double rpm) {
+    double peak = Double.NEGATIVE_INFINITY;
+    long peakNanos = 0;
+    long windowNanos = (long) (WINDOW_MS * 1e6);
+    for (int n = 0, i = newest; n < sampleCount; n++) {
+      if (nanos - sampleNanos[i] > windowNanos) {
+        break;
+      }
+      if (sampleRpm[i] > peak) {
+        peak = sampleRpm[i];
+        peakNanos = sampleNanos[i];
+      }
+      i = (i - 1 + WINDOW_CAPACITY) % WINDOW_CAPACITY;
+    }
+    record(nanos, rpm);
+
+    if (!armed) {
+      if (rpm >= lastReleaseRpm - REARM_RPM || (nanos - lastShotNanos) / 1e6 >= REARM_TIMEOUT_MS) {
+        armed = true;
+      }
+      return false;
+    }
+    if (peakNanos == 0 || peak < MIN_SHOT_RPM) {
+      return false;
+    }
+    double drop = peak - rpm;
+    double seconds = (nanos - peakNanos) / 1e9;
+    if (drop < DIP_RPM || seconds <= 0 || drop / seconds < MIN_DIP_RATE_RPM_PER_SEC) {
+      return false;
+    }
+    armed = false;
+    shotCount++;
+    lastShotNanos = nanos;
+    lastReleaseRpm = peak;
+    return true;
+  }
+
+  private void record(long nanos, double rpm) {
+    newest = (newest + 1) % WINDOW_CAPACITY;
+    sampleNanos[newest] = nanos;
+    sampleRpm[newest] = rpm;
+    if (sampleCount < WINDOW_CAPACITY) {
+      sampleCount++;
+    }
+  }
+
+  /** Forget the sample window and re-arm; counts are kept. */
+  public void reset() {
+    sampleCount = 0;
+    newest = -1;
+    armed = true;
+  }
+
+  public int getShotCount() {
+    return shotCount;
+  }
+
+  /** System.nanoTime() of the last detected shot, or 0 if none. */
+  public long getLastShotNanos() {
+    return lastShotNanos;
+  }
+
+  /** Flywheel RPM just before the last detected shot. */
+  public double getLastReleaseRpm() {
+    return lastReleaseRpm;
+  }
+}
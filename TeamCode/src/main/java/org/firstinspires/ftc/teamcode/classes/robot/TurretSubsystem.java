@@ -0,0 +1,235 @@
+package org.firstinspires.ftc.teamcode.classes.robot;
+
+import com.acmerobotics.dashboard.config.Config;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import org.firstinspires.ftc.teamcode.classes.VisionSnapshot;
+
+/**
+ * TurretSubsystem turns the shooter turret, by hand or locked onto the goal.
+ *
+ * Angles are degrees from the turret's position at init, positive CCW seen
+ * from above, measured by the motor encoder. In auto-aim, each fresh vision
+ * result sets an angle setpoint:
+ *   - Goal bearing at capture: -tx, plus the turret angle at capture time if
+ *     the camera rides on the turret (CAMERA_ON_TURRET).
+ *   - Minus how far the robot has turned since capture (yaw rate x age).
+ * Between results, and when the goal drops out, the setpoint counter-rotates
+ * with the robot so the turret holds its field heading while the driver turns.
+ * Results older than AIM_LATENCY_BUDGET_MS are ignored. A lead offset from
+ * setLeadDegrees() (shooting on the move) is added on top of the goal bearing.
+ *
+ * A PD loop plus static friction and yaw-rate feedforward drives the motor to
+ * the setpoint. The soft limits clamp both the setpoint and any power that
+ * would push further past a limit, in manual mode too.
+ *
+ * Call update() once per loop, after the hub bulk cache is cleared.
+ */
+@Config
+public class TurretSubsystem {
+  private static final String MOTOR_NAME = "turret";
+
+  // Encoder ticks per degree of turret rotation (placeholder: 537.7 CPR, 1:1).
+  public static double TICKS_PER_DEGREE = 537.7 / 360.0;
+  // Soft limits, degrees from the init position.
+  public static double MIN_ANGLE_DEG = -90.0;
+  public static double MAX_ANGLE_DEG = 90.0;
+  // True if the Limelight turns with the turret rather than the chassis.
+  public static boolean CAMERA_ON_TURRET = true;
+  // Controller: power per degree of error, per deg/s of error rate, and the
+  // power needed to overcome static friction.
+  public static double KP = 0.02;
+  public static double KD = 0.0008;
+  public static double KS = 0.04;
+  // Feedforward power per deg/s of setpoint motion (mostly robot yaw rate).
+  public static double KV = 0.0033;
+  public static double MAX_AUTO_POWER = 0.8;
+  public static double ON_TARGET_DEG = 1.0;
+  // Vision results older than this do not move the setpoint.
+  public static double AIM_LATENCY_BUDGET_MS = 100.0;
+
+  private final CachingMotor motor;
+  // Turret angle history (heading slot, radians) for camera-on-turret latency
+  private final PoseHistory angleHistory = new PoseHistory(64);
+  private final double[] angleAtCapture = new double[3];
+
+  private boolean autoAim = false;
+  private double manualPower = 0;
+  private double angleDeg = 0;
+  private double setpointDeg = 0; // goal bearing, without lead
+  private double leadDeg = 0;
+  private double aimDeg = 0; // setpoint plus lead, within the soft limits
+  private double lastErrorDeg = 0;
+  private long lastUpdateNanos = 0;
+  private VisionSnapshot lastUsedSnapshot = null;
+  private boolean locked = false;
+
+  /** Initialize the turret motor and zero its encoder at the current angle. */
+  public TurretSubsystem(HardwareMap hardwareMap) {
+    if (hardwareMap == null) {
+      throw new IllegalArgumentException("hardwareMap cannot be null");
+    }
+    DcMotor m = hardwareMap.get(DcMotor.class, MOTOR_NAME);
+    if (m == null) {
+      throw new IllegalStateException("Missing turret motor in hardware map: " + MOTOR_NAME);
+    }
+    // Positive power turns the turret CCW
+    m.setDirection(DcMotorSimple.Direction.REVERSE);
+    m.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+    motor = new CachingMotor(m);
+    motor.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
+    motor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+    motor.setPower(0.0);
+  }
+
+  /** Turn open-loop at the given power (positive = CCW). Cancels auto-aim. */
+  public void setManualPower(double power) {
+    autoAim = false;
+    manualPower = power;
+  }
+
+  /**
+   * Lock onto the goal. The setpoint starts at the current angle, so the
+   * turret holds still until the first fresh vision result.
+   */
+  public void setAutoAim(boolean enabled) {
+    if (enabled && !autoAim) {
+      setpointDeg = angleDeg - leadDeg;
+      lastErrorDeg = 0;
+      lastUsedSnapshot = null;
+      locked = false;
+    }
+    autoAim = enabled;
+    manualPower = 0;
+  }
+
+  /**
+   * Aim this many degrees CCW of the goal, to lead a shot taken on the move.
+   * Call each loop before update().
+   */
+  public void setLeadDegrees(double degrees) {
+    leadDeg = degrees;
+  }
+
+  /**
+   * Read the encoder and drive the motor. Call once per loop.
+   *
+   * @param snapshot latest vision result (ignored unless auto-aiming)
+   * @param yawRateDegPerSec robot yaw rate, positive CCW
+   */
+  public void update(VisionSnapshot snapshot, double yawRateDegPerSec) {
+    update(System.nanoTime(), snapshot, yawRateDegPerSec);
+  }
+
+  /**
+   * update() at a given time, on the System.nanoTime() clock that vision
+   * capture times use. Lets a simulation step time instead of sleeping.
+   */
+  public void update(long now, VisionSnapshot snapshot, double yawRateDegPerSec) {
+    double dt = lastUpdateNanos == 0 ? 0 : (now - lastUpdateNanos) / 1e9;
+    lastUpdateNanos = now;
+    angleDeg = motor.getCurrentPosition() / TICKS_PER_DEGREE;
+    angleHistory.record(now, 0, 0, Math.toRadians(angleDeg));
+
+    if (!autoAim) {
+      motor.setPower(limitPower(manualPower));
+      return;
+    }
+
+    // Hold the field heading: the robot turning CCW moves the goal CW
+    setpointDeg -= yawRateDegPerSec * dt;
+    if (snapshot != null && snapshot != lastUsedSnapshot && snapshot.hasTarget) {
+      double ageMs = (now - snapshot.captureNanos) / 1e6;
+      if (ageMs <= AIM_LATENCY_BUDGET_MS) {
+        lastUsedSnapshot = snapshot;
+        double bearing = -snapshot.tx;
+        if (CAMERA_ON_TURRET) {
+          bearing += angleHistory.getPoseAt(snapshot.captureNanos, angleAtCapture)
+              ? Math.toDegrees(angleAtCapture[2])
+              : angleDeg;
+        }
+        setpointDeg = bearing - yawRateDegPerSec * ageMs / 1000.0;
+        locked = true;
+      }
+    }
+    if (snapshot == null || !snapshot.hasTarget) {
+      locked = false;
+    }
+    setpointDeg = Math.max(MIN_ANGLE_DEG, Math.min(MAX_ANGLE_DEG, setpointDeg));
+    aimDeg = Math.max(MIN_ANGLE_DEG, Math.min(MAX_ANGLE_DEG, setpointDeg + leadDeg));
+
+    double error = aimDeg - angleDeg;
+    double errorRate = dt > 0 ? (error - lastErrorDeg) / dt : 0;
+    lastErrorDeg = error;
+    double power = KP * error + KD * errorRate - KV * yawRateDegPerSec;
+    if (Math.abs(error) > ON_TARGET_DEG) {
+      power += Math.copySign(KS, error);
+    }
+    power = Math.max(-MAX_AUTO_POWER, Math.min(MAX_AUTO_POWER, power));
+    motor.setPower(limitPower(power));
+  }
+
+  /** Drop any power that would drive the turret further past a soft limit. */
+  private double limitPower(double power) {
+    if ((angleDeg >= MAX_ANGLE_DEG && power > 0) || (angleDeg <= MIN_ANGLE_DEG && power < 0)) {
+      return 0.0;
+    }
+    return Math.max(-1.0, Math.min(1.0, power));
+  }
+
+  public void stop() {
+    autoAim = false;
+    manualPower = 0;
+    motor.setPower(0.0);
+  }
+
+  public boolean isAutoAim() {
+    return autoAim;
+  }
+
+  /** True while auto-aiming with a goal in view. */
+  public boolean hasLock() {
+    return autoAim && locked;
+  }
+
+  /** True when locked on and within ON_TARGET_DEG of the aim (with lead). */
+  public boolean isOnTarget() {
+    return hasLock() && Math.abs(aimDeg - angleDeg) <= ON_TARGET_DEG;
+  }
+
+  public double getAngleDegrees() {
+    return angleDeg;
+  }
+
+  /** Angle the turret is driving to, lead included. */
+  public double getSetpointDegrees() {
+    return aimDeg;
+  }
+
+  /** Bearing of the goal itself, degrees CCW from the init position. */
+  public double getGoalBearingDegrees() {
+    return setpointDeg;
+  }
+
+  /**
+   * Timestamped turret angles (heading slot, radians CCW), recorded each
+   * update(). Vision uses it to put tx into the robot frame when
+   * CAMERA_ON_TURRET.
+   */
+  public PoseHistory getAngleHistory() {
+    return angleHistory;
+  }
+
+  public double getPower() {
+    return motor.getPower();
+  }
+
+  public long getSentWrites() {
+    return motor.getSentWrites();
+  }
+
+  public long getSuppressedWrites() {
+    return motor.getSuppressedWrites();
+  }
+}
@@ -0,0 +1,79 @@
+package org.firstinspires.ftc.teamcode.classes.trajectory;
+
+/**
+ * A motion-profiled path, precomputed as tables sampled at a fixed time step.
+ *
+ * Each sample holds the target field pose, field velocity and field
+ * acceleration. sample() finds the two samples around a time with one
+ * multiply and blends them, so following costs the same every loop however
+ * complex the path. Built by TrajectoryBuilder; immutable.
+ *
+ * Field frame: x/y in inches, heading in radians (CCW positive, unwrapped so
+ * it is continuous along the path).
+ */
+public final class Trajectory {
+  /** Layout of the array filled by sample(). */
+  public static final int X = 0;
+  public static final int Y = 1;
+  public static final int HEADING = 2;
+  public static final int VX = 3;
+  public static final int VY = 4;
+  public static final int OMEGA = 5;
+  public static final int AX = 6;
+  public static final int AY = 7;
+  public static final int SAMPLE_SIZE = 8;
+
+  private final double stepSec;
+  private final double inverseStep;
+  private final int last;
+  // Sample-major: [i * SAMPLE_SIZE + field]
+  private final double[] samples;
+
+  Trajectory(double stepSec, double[] samples) {
+    if (samples.length < SAMPLE_SIZE || samples.length % SAMPLE_SIZE != 0) {
+      throw new IllegalArgumentException("samples must hold whole samples");
+    }
+    this.stepSec = stepSec;
+    this.inverseStep = 1.0 / stepSec;
+    this.last = samples.length / SAMPLE_SIZE - 1;
+    this.samples = samples;
+  }
+
+  /** Time to run the whole path, seconds. */
+  public double getDuration() {
+    return last * stepSec;
+  }
+
+  /**
+   * Copy the target at the given time into {@code out} (see the index
+   * constants). Times outside the path clamp to its ends.
+   */
+  public void sample(double timeSec, double[] out) {
+    double position = timeSec * inverseStep;
+    if (!(position > 0)) {
+      System.arraycopy(samples, 0, out, 0, SAMPLE_SIZE);
+      return;
+    }
+    if (position >= last) {
+      System.arraycopy(samples, last * SAMPLE_SIZE, out, 0, SAMPLE_SIZE);
+      return;
+    }
+    int i = (int) position;
+    double t = position - i;
+    int a = i * SAMPLE_SIZE;
+    int b = a + SAMPLE_SIZE;
+    for (int k = 0; k < SAMPLE_SIZE; k++) {
+      out[k] = samples[a + k] + t * (samples[b + k] - samples[a + k]);
+    }
+  }
+
+  public double getEndX() {
+    return samples[last * SAMPLE_SIZE + X];
+  }
+  public double getEndY() {
+    return samples[last * SAMPLE_SIZE + Y];
+  }
+  public double getEndHeading() {
+    return samples[last * SAMPLE_SIZE + HEADING];
+  }
+}
@@ -0,0 +1,412 @@
+package org.firstinspires.ftc.teamcode.classes.trajectory;
+
+import com.acmerobotics.dashboard.config.Config;
+import java.util.ArrayList;
+import org.firstinspires.ftc.teamcode.classes.robot.DriveSubsystem;
+import org.firstinspires.ftc.teamcode.classes.robot.PoseHistory;
+
+/**
+ * Builds a Trajectory from chained path segments: straight lines, cubic
+ * splines, strafes (any line with the heading held) and turns in place. The
+ * segments become one continuous path, so the robot only slows where the
+ * path bends, not at every segment join.
+ *
+ * build() does all the work, well before the loop needs it:
+ *   1. Sample the path every PATH_RESOLUTION_INCHES. Travel is measured as a
+ *      combined length: translation plus turning at the drive's turn radius,
+ *      so a turn in place has a length too.
+ *   2. Cap the speed at each sample to MAX_VELOCITY and to what the
+ *      curvature allows at MAX_ACCELERATION. Smooth joins (splines) keep
+ *      their speed; sharp corners between lines are stops.
+ *   3. Forward and backward passes limit acceleration: a trapezoidal
+ *      profile between stops.
+ *   4. With MAX_JERK set, the speed is smoothed over MAX_ACCELERATION /
+ *      MAX_JERK seconds, which turns the trapezoid into an S-curve with the
+ *      same distance.
+ *   5. Resample in time every SAMPLE_STEP_SEC into the Trajectory tables.
+ *
+ * Headings are radians, CCW positive; positions are inches.
+ */
+@Config
+public class TrajectoryBuilder {
+  // Combined speed limit (in/s) and acceleration limit (in/s^2)
+  public static double MAX_VELOCITY = 40.0;
+  public static double MAX_ACCELERATION = 40.0;
+  // Jerk limit for S-curve profiles (in/s^3); 0 gives trapezoidal profiles
+  public static double MAX_JERK = 200.0;
+  public static double SAMPLE_STEP_SEC = 0.01;
+
+  private static final double PATH_RESOLUTION_INCHES = 0.25;
+  // Bends sharper than this between samples are corners, taken from a stop
+  private static final double SHARP_CORNER_RAD = Math.toRadians(30);
+  private static final double EPSILON = 1e-9;
+
+  private interface Curve {
+    /** Point at u in [0, 1] as {x, y, heading}. */
+    void at(double u, double[] out);
+  }
+
+  private final double maxVelocity;
+  private final double maxAcceleration;
+  private final double maxJerk;
+  private final double turnRadius;
+  private final ArrayList<double[]> points = new ArrayList<>();
+  private double x;
+  private double y;
+  private double heading;
+  private double tangent;
+
+  /** Start a path at the given pose with the dashboard limits. */
+  public TrajectoryBuilder(double x, double y, double heading) {
+    this(x, y, heading, MAX_VELOCITY, MAX_ACCELERATION, MAX_JERK);
+  }
+
+  /**
+   * Start a path at the given pose with explicit limits.
+   *
+   * @param maxJerk 0 for a trapezoidal profile
+   * @throws IllegalArgumentException if a limit is not positive
+   */
+  public TrajectoryBuilder(double x, double y, double heading, double maxVelocity,
+      double maxAcceleration, double maxJerk) {
+    if (!(maxVelocity > 0) || !(maxAcceleration > 0) || !(maxJerk >= 0)) {
+      throw new IllegalArgumentException("velocity and acceleration limits must be positive");
+    }
+    this.maxVelocity = maxVelocity;
+    this.maxAcceleration = maxAcceleration;
+    this.maxJerk = maxJerk;
+    this.turnRadius =
+        (DriveSubsystem.TRACK_WIDTH_INCHES + DriveSubsystem.WHEEL_BASE_INCHES) / 2.0;
+    this.x = x;
+    this.y = y;
+    this.heading = heading;
+    this.tangent = heading;
+    points.add(new double[] {x, y, heading});
+  }
+
+  /**
+   * The dashboard limits and sample step as text, for keying cached
+   * trajectories so a tuning change rebuilds them.
+   */
+  public static String getLimitsKey() {
+    return MAX_VELOCITY + "/" + MAX_ACCELERATION + "/" + MAX_JERK + "/" + SAMPLE_STEP_SEC + "/"
+        + DriveSubsystem.TRACK_WIDTH_INCHES + "/" + DriveSubsystem.WHEEL_BASE_INCHES;
+  }
+
+  /** Drive straight to a point, holding the heading (a strafe if sideways). */
+  public TrajectoryBuilder lineTo(double endX, double endY) {
+    return lineToHeading(endX, endY, heading);
+  }
+
+  /** Drive straight to a point, turning evenly to the end heading on the way. */
+  public TrajectoryBuilder lineToHeading(double endX, double endY, double endHeading) {
+    final double x0 = x;
+    final double y0 = y;
+    final double h0 = heading;
+    final double dx = endX - x0;
+    final double dy = endY - y0;
+    final double dh = PoseHistory.angleWrap(endHeading - h0);
+    addCurve(Math.hypot(dx, dy), dh, (u, out) -> {
+      out[0] = x0 + dx * u;
+      out[1] = y0 + dy * u;
+      out[2] = h0 + dh * u;
+    });
+    if (Math.hypot(dx, dy) > EPSILON) {
+      tangent = Math.atan2(dy, dx);
+    }
+    return this;
+  }
+
+  /** Turn in place to the given heading. */
+  public TrajectoryBuilder turnTo(double endHeading) {
+    return lineToHeading(x, y, endHeading);
+  }
+
+  /**
+   * Drive a smooth curve to a point, leaving along the current direction of
+   * travel and arriving along endTangent. Holds the heading.
+   */
+  public TrajectoryBuilder splineTo(double endX, double endY, double endTangent) {
+    return splineToHeading(endX, endY, endTangent, heading);
+  }
+
+  /**
+   * Drive a cubic Hermite curve to a point, arriving along endTangent and
+   * turning evenly to the end heading on the way.
+   */
+  public TrajectoryBuilder splineToHeading(
+      double endX, double endY, double endTangent, double endHeading) {
+    final double x0 = x;
+    final double y0 = y;
+    final double h0 = heading;
+    final double x1 = endX;
+    final double y1 = endY;
+    final double dh = PoseHistory.angleWrap(endHeading - h0);
+    double chord = Math.hypot(x1 - x0, y1 - y0);
+    final double m0x = chord * Math.cos(tangent);
+    final double m0y = chord * Math.sin(tangent);
+    final double m1x = chord * Math.cos(endTangent);
+    final double m1y = chord * Math.sin(endTangent);
+    // Hermite tangents of chord length bulge the curve up to about 1.5x the chord
+    addCurve(chord * 1.5, dh, (u, out) -> {
+      double u2 = u * u;
+      double u3 = u2 * u;
+      double h00 = 2 * u3 - 3 * u2 + 1;
+      double h10 = u3 - 2 * u2 + u;
+      double h01 = -2 * u3 + 3 * u2;
+      double h11 = u3 - u2;
+      out[0] = h00 * x0 + h10 * m0x + h01 * x1 + h11 * m1x;
+      out[1] = h00 * y0 + h10 * m0y + h01 * y1 + h11 * m1y;
+      out[2] = h0 + dh * u;
+    });
+    if (chord > EPSILON) {
+      tangent = endTangent;
+    }
+    return this;
+  }
+
+  private void addCurve(double translationLength, double turn, Curve curve) {
+    double length = translationLength + turnRadius * Math.abs(turn);
+    int steps = Math.max(1, (int) Math.ceil(length / PATH_RESOLUTION_INCHES));
+    for (int i = 1; i <= steps; i++) {
+      double[] p = new double[3];
+      curve.at((double) i / steps, p);
+      points.add(p);
+    }
+    double[] end = points.get(points.size() - 1);
+    x = end[0];
+    y = end[1];
+    heading = end[2];
+  }
+
+  /** Profile the path and sample it into a Trajectory. */
+  public Trajectory build() {
+    // Drop repeated points so every step has a length
+    ArrayList<double[]> path = new ArrayList<>();
+    path.add(points.get(0));
+    for (int i = 1; i < points.size(); i++) {
+      if (stepLength(path.get(path.size() - 1), points.get(i)) > EPSILON) {
+        path.add(points.get(i));
+      }
+    }
+    int n = path.size();
+    double dt = SAMPLE_STEP_SEC;
+    if (n < 2) {
+      double[] p = path.get(0);
+      return new Trajectory(dt, new double[] {p[0], p[1], p[2], 0, 0, 0, 0, 0});
+    }
+
+    // Cumulative length and step lengths
+    double[] s = new double[n];
+    double[] ds = new double[n - 1];
+    for (int i = 0; i < n - 1; i++) {
+      ds[i] = stepLength(path.get(i), path.get(i + 1));
+      s[i + 1] = s[i] + ds[i];
+    }
+
+    // Speed caps from the limit and the bend of the path. The bend is taken
+    // in (x, y, turn) space, so switching between driving and turning counts
+    // as a corner too. Sharp corners are stops.
+    double[] v = new double[n];
+    for (int i = 0; i < n; i++) {
+      v[i] = maxVelocity;
+      if (i == 0 || i == n - 1) {
+        v[i] = 0;
+      } else {
+        double bend = bendAngle(path.get(i - 1), path.get(i), path.get(i + 1));
+        double curvature = bend / (0.5 * (ds[i - 1] + ds[i]));
+        if (bend > SHARP_CORNER_RAD) {
+          v[i] = 0;
+        } else if (curvature > EPSILON) {
+          v[i] = Math.min(v[i], Math.sqrt(maxAcceleration / curvature));
+          // The velocity turns within one sample at a kink: keep that change
+          // within the acceleration limit
+          v[i] = Math.min(v[i], maxAcceleration * dt / (2 * Math.sin(bend / 2)));
+        }
+      }
+    }
+
+    // Profile each stretch between stops on its own and join them, so the
+    // S-curve smoothing never carries speed through a stop
+    ArrayList<double[][]> pieces = new ArrayList<>();
+    int count = 0;
+    for (int first = 0, i = 1; i < n; i++) {
+      if (v[i] == 0) {
+        double[][] piece = profile(s, ds, v, first, i, dt);
+        pieces.add(piece);
+        // Each piece after the first starts at the previous one's end
+        count += piece[0].length - (first == 0 ? 0 : 1);
+        first = i;
+      }
+    }
+    double[] gridS = new double[count];
+    double[] gridV = new double[count];
+    int filled = 0;
+    for (int p = 0; p < pieces.size(); p++) {
+      double[][] piece = pieces.get(p);
+      int skip = p == 0 ? 0 : 1;
+      int length = piece[0].length - skip;
+      System.arraycopy(piece[0], skip, gridS, filled, length);
+      System.arraycopy(piece[1], skip, gridV, filled, length);
+      filled += length;
+    }
+
+    // Pose and velocity at each grid time
+    double[] samples = new double[count * Trajectory.SAMPLE_SIZE];
+    for (int k = 0, j = 0; k < count; k++) {
+      while (j < n - 2 && s[j + 1] <= gridS[k]) {
+        j++;
+      }
+      double[] a = path.get(j);
+      double[] b = path.get(j + 1);
+      double f = Math.max(0, Math.min(1, (gridS[k] - s[j]) / ds[j]));
+      int o = k * Trajectory.SAMPLE_SIZE;
+      samples[o + Trajectory.X] = a[0] + f * (b[0] - a[0]);
+      samples[o + Trajectory.Y] = a[1] + f * (b[1] - a[1]);
+      samples[o + Trajectory.HEADING] = a[2] + f * (b[2] - a[2]);
+      samples[o + Trajectory.VX] = (b[0] - a[0]) / ds[j] * gridV[k];
+      samples[o + Trajectory.VY] = (b[1] - a[1]) / ds[j] * gridV[k];
+      samples[o + Trajectory.OMEGA] = (b[2] - a[2]) / ds[j] * gridV[k];
+    }
+    for (int k = 0; k < count; k++) {
+      int o = k * Trajectory.SAMPLE_SIZE;
+      int before = Math.max(0, k - 1) * Trajectory.SAMPLE_SIZE;
+      int after = Math.min(count - 1, k + 1) * Trajectory.SAMPLE_SIZE;
+      double span = (after - before) / Trajectory.SAMPLE_SIZE * dt;
+      samples[o + Trajectory.AX] =
+          (samples[after + Trajectory.VX] - samples[before + Trajectory.VX]) / span;
+      samples[o + Trajectory.AY] =
+          (samples[after + Trajectory.VY] - samples[before + Trajectory.VY]) / span;
+    }
+    return new Trajectory(dt, samples);
+  }
+
+  /**
+   * Speed profile over path points first..last, which start and end at
+   * rest. Returns {distance, speed} sampled every dt.
+   */
+  private double[][] profile(double[] s, double[] ds, double[] cap, int first, int last,
+      double dt) {
+    double[] gridS;
+    double[] gridV;
+    if (last - first == 1) {
+      // One step from rest to rest has no point in between to carry speed:
+      // speed up, cruise if there is room, and brake within the step itself
+      double a = maxAcceleration;
+      double peak = Math.min(maxVelocity, Math.sqrt(ds[first] * a));
+      double ramp = peak / a;
+      double total = 2 * ramp + (ds[first] - peak * ramp) / peak;
+      int count = (int) Math.ceil(total / dt) + 1;
+      gridS = new double[count];
+      gridV = new double[count];
+      for (int k = 0; k < count; k++) {
+        double time = Math.min(k * dt, total);
+        double fromEnd = total - time;
+        if (time < ramp) {
+          gridS[k] = s[first] + 0.5 * a * time * time;
+          gridV[k] = a * time;
+        } else if (fromEnd < ramp) {
+          gridS[k] = s[last] - 0.5 * a * fromEnd * fromEnd;
+          gridV[k] = a * fromEnd;
+        } else {
+          gridS[k] = s[first] + 0.5 * peak * ramp + peak * (time - ramp);
+          gridV[k] = peak;
+        }
+      }
+    } else {
+      double[][] grid = trapezoid(s, ds, cap, first, last, dt);
+      gridS = grid[0];
+      gridV = grid[1];
+    }
+    int count = gridS.length;
+
+    int window = maxJerk > 0 ? (int) Math.round(maxAcceleration / maxJerk / dt) : 0;
+    if (window < 2) {
+      return new double[][] {gridS, gridV};
+    }
+    // Moving average of speed: same area (distance), acceleration ramps in.
+    // It also rounds off the dips at bends, so they are taken a little faster.
+    double[] smooth = new double[count + window - 1];
+    double sum = 0;
+    for (int m = 0; m < smooth.length; m++) {
+      sum += m < count ? gridV[m] : 0;
+      if (m >= window) {
+        sum -= gridV[m - window];
+      }
+      smooth[m] = sum / window;
+    }
+    double[] smoothS = new double[smooth.length];
+    smoothS[0] = s[first];
+    for (int m = 1; m < smooth.length; m++) {
+      smoothS[m] = smoothS[m - 1] + 0.5 * (smooth[m - 1] + smooth[m]) * dt;
+    }
+    // Undo the small discretization error so the piece ends on its last point
+    double scale = (s[last] - s[first]) / (smoothS[smooth.length - 1] - s[first]);
+    for (int m = 0; m < smooth.length; m++) {
+      smoothS[m] = Math.min(s[last], s[first] + (smoothS[m] - s[first]) * scale);
+    }
+    return new double[][] {smoothS, smooth};
+  }
+
+  /**
+   * Acceleration-limited speed over points first..last, which are at least
+   * two steps apart so the passes leave an interior point moving. Returns
+   * {distance, speed} sampled every dt.
+   */
+  private double[][] trapezoid(double[] s, double[] ds, double[] cap, int first, int last,
+      double dt) {
+    // Forward and backward passes: the fastest speeds the acceleration allows
+    double[] v = new double[last - first + 1];
+    for (int i = 1; i < v.length; i++) {
+      double reach = Math.sqrt(v[i - 1] * v[i - 1] + 2 * maxAcceleration * ds[first + i - 1]);
+      v[i] = Math.min(cap[first + i], reach);
+    }
+    for (int i = v.length - 2; i >= 0; i--) {
+      v[i] = Math.min(v[i], Math.sqrt(v[i + 1] * v[i + 1] + 2 * maxAcceleration * ds[first + i]));
+    }
+
+    // Time at each path point: constant acceleration within a step
+    double[] t = new double[v.length];
+    for (int i = 0; i < v.length - 1; i++) {
+      t[i + 1] = t[i] + 2 * ds[first + i] / (v[i] + v[i + 1]);
+    }
+
+    // Distance and speed on a uniform time grid
+    int end = v.length - 1;
+    int count = (int) Math.ceil(t[end] / dt) + 1;
+    double[] gridS = new double[count];
+    double[] gridV = new double[count];
+    for (int k = 0, j = 0; k < count; k++) {
+      double time = k * dt;
+      while (j < end - 1 && t[j + 1] <= time) {
+        j++;
+      }
+      if (time >= t[end]) {
+        gridS[k] = s[last];
+        continue;
+      }
+      double tau = time - t[j];
+      double accel = (v[j + 1] * v[j + 1] - v[j] * v[j]) / (2 * ds[first + j]);
+      gridS[k] = Math.min(s[first + j + 1], s[first + j] + v[j] * tau + 0.5 * accel * tau * tau);
+      gridV[k] = Math.max(0, v[j] + accel * tau);
+    }
+    return new double[][] {gridS, gridV};
+  }
+
+  /** Angle between the steps a->b and b->c in (x, y, turn) space, radians. */
+  private double bendAngle(double[] a, double[] b, double[] c) {
+    double x1 = b[0] - a[0];
+    double y1 = b[1] - a[1];
+    double h1 = turnRadius * (b[2] - a[2]);
+    double x2 = c[0] - b[0];
+    double y2 = c[1] - b[1];
+    double h2 = turnRadius * (c[2] - b[2]);
+    double cos = (x1 * x2 + y1 * y2 + h1 * h2) / (stepLength(a, b) * stepLength(b, c));
+    return Math.acos(Math.max(-1, Math.min(1, cos)));
+  }
+
+  private double stepLength(double[] a, double[] b) {
+    double turn = turnRadius * (b[2] - a[2]);
+    return Math.sqrt((b[0] - a[0]) * (b[0] - a[0]) + (b[1] - a[1]) * (b[1] - a[1]) + turn * turn);
+  }
+}
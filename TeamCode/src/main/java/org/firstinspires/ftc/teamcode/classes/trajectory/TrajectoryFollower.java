@@ -0,0 +1,176 @@
+package org.firstinspires.ftc.teamcode.classes.trajectory;
+
+import com.acmerobotics.dashboard.config.Config;
+import org.firstinspires.ftc.teamcode.classes.robot.DriveSubsystem;
+import org.firstinspires.ftc.teamcode.classes.robot.PoseHistory;
+import org.firstinspires.ftc.teamcode.classes.robot.PoseSnapshot;
+
+/**
+ * Follows a Trajectory on the mecanum drive.
+ *
+ * Each loop it looks up the target at the elapsed time and commands
+ *   power = KV * velocity + KA * acceleration + KS * sign(velocity)
+ * per axis, where velocity is the profile velocity plus a proportional
+ * correction toward the target pose from the localizer. The command is
+ * turned into the robot frame with the measured heading, so the feedforward
+ * stays right while the robot turns. Trajectories that were built as one
+ * chain run without stopping between their segments.
+ *
+ * update() is a table lookup and a few multiplies; it allocates nothing.
+ */
+@Config
+public class TrajectoryFollower {
+  // Power per in/s of wheel speed: 1 / free speed (312 RPM motor, 4.094 in wheel)
+  public static double KV = 1.0 / 67.0;
+  // Power per in/s^2 of acceleration
+  public static double KA = 0.002;
+  // Power to overcome static friction, added in the direction of travel
+  public static double KS = 0.05;
+  // Pose correction (1/s): in/s per inch of error, rad/s per radian of error
+  public static double TRANSLATION_KP = 4.0;
+  public static double HEADING_KP = 4.0;
+  // Finished once the profile has ended and the robot is within these
+  public static double POSITION_TOLERANCE_INCHES = 1.0;
+  public static double HEADING_TOLERANCE_DEG = 2.0;
+  // Give up settling this long after the profile ends
+  public static double SETTLE_TIMEOUT_SEC = 0.5;
+
+  private static final double MIN_STATIC_VELOCITY = 0.5;
+
+  private final double[] target = new double[Trajectory.SAMPLE_SIZE];
+  private Trajectory trajectory;
+  private long startNanos;
+  private boolean finished = true;
+  // Pose the trajectory's origin is placed at; identity for field trajectories
+  private double originX;
+  private double originY;
+  private double originHeading;
+  private double originCos = 1;
+  private double originSin = 0;
+  private double forward;
+  private double strafe;
+  private double rotate;
+  private double positionError;
+  private double headingError;
+
+  /** Start following a trajectory, in field coordinates, from now. */
+  public void follow(Trajectory trajectory) {
+    follow(trajectory, 0, 0, 0);
+  }
+
+  /**
+   * Start following a trajectory built from (0, 0, 0) as a relative move:
+   * its origin is placed at the given field pose, e.g. the robot's pose now.
+   */
+  public void follow(Trajectory trajectory, double originX, double originY,
+      double originHeading) {
+    if (trajectory == null) {
+      throw new IllegalArgumentException("trajectory cannot be null");
+    }
+    this.trajectory = trajectory;
+    this.originX = originX;
+    this.originY = originY;
+    this.originHeading = originHeading;
+    originCos = Math.cos(originHeading);
+    originSin = Math.sin(originHeading);
+    startNanos = System.nanoTime();
+    finished = false;
+  }
+
+  /**
+   * Compute the drive powers for the current pose. Read them with
+   * getForward(), getStrafe() and getRotate() and pass them to drive().
+   *
+   * @return true once the trajectory is finished (powers are then zero)
+   */
+  public boolean update(PoseSnapshot pose) {
+    if (finished) {
+      forward = strafe = rotate = 0;
+      return true;
+    }
+    double elapsed = (System.nanoTime() - startNanos) / 1e9;
+    trajectory.sample(elapsed, target);
+    toField(Trajectory.X, Trajectory.Y);
+    toField(Trajectory.VX, Trajectory.VY);
+    toField(Trajectory.AX, Trajectory.AY);
+    target[Trajectory.X] += originX;
+    target[Trajectory.Y] += originY;
+    target[Trajectory.HEADING] += originHeading;
+
+    double errorX = target[Trajectory.X] - pose.x;
+    double errorY = target[Trajectory.Y] - pose.y;
+    headingError = PoseHistory.angleWrap(target[Trajectory.HEADING] - pose.heading);
+    positionError = Math.hypot(errorX, errorY);
+
+    double ended = elapsed - trajectory.getDuration();
+    if (ended >= 0 && ((positionError <= POSITION_TOLERANCE_INCHES
+                           && Math.abs(headingError) <= Math.toRadians(HEADING_TOLERANCE_DEG))
+                          || ended >= SETTLE_TIMEOUT_SEC)) {
+      finished = true;
+      forward = strafe = rotate = 0;
+      return true;
+    }
+
+    // Field-frame command, then into the robot frame
+    double vx = target[Trajectory.VX] + TRANSLATION_KP * errorX;
+    double vy = target[Trajectory.VY] + TRANSLATION_KP * errorY;
+    double omega = target[Trajectory.OMEGA] + HEADING_KP * headingError;
+    double cos = Math.cos(pose.heading);
+    double sin = Math.sin(pose.heading);
+    double forwardVelocity = cos * vx + sin * vy;
+    double leftVelocity = -sin * vx + cos * vy;
+    double forwardAccel = cos * target[Trajectory.AX] + sin * target[Trajectory.AY];
+    double leftAccel = -sin * target[Trajectory.AX] + cos * target[Trajectory.AY];
+    double turnRadius =
+        (DriveSubsystem.TRACK_WIDTH_INCHES + DriveSubsystem.WHEEL_BASE_INCHES) / 2.0;
+
+    forward = KV * forwardVelocity + KA * forwardAccel + staticPower(forwardVelocity);
+    // Rollers slip sideways, so strafing needs more power for the same speed
+    double left = (KV * leftVelocity + KA * leftAccel) * DriveSubsystem.STRAFE_CORRECTION
+        + staticPower(leftVelocity);
+    double ccw = KV * turnRadius * omega + staticPower(turnRadius * omega);
+    // drive() takes strafe right and rotate clockwise as positive
+    strafe = -left;
+    rotate = -ccw;
+    return false;
+  }
+
+  /** Rotate a vector in target from the trajectory's frame into the field frame. */
+  private void toField(int xIndex, int yIndex) {
+    double x = target[xIndex];
+    double y = target[yIndex];
+    target[xIndex] = originCos * x - originSin * y;
+    target[yIndex] = originSin * x + originCos * y;
+  }
+
+  private static double staticPower(double velocity) {
+    return Math.abs(velocity) < MIN_STATIC_VELOCITY ? 0 : Math.copySign(KS, velocity);
+  }
+
+  /** Stop following; update() then reports finished. */
+  public void cancel() {
+    finished = true;
+    forward = strafe = rotate = 0;
+  }
+
+  public boolean isFinished() {
+    return finished;
+  }
+  public double getForward() {
+    return forward;
+  }
+  public double getStrafe() {
+    return strafe;
+  }
+  public double getRotate() {
+    return rotate;
+  }
+  /** Distance from the target position at the last update, inches. */
+  public double getPositionError() {
+    return positionError;
+  }
+  /** Heading error at the last update, radians. */
+  public double getHeadingError() {
+    return headingError;
+  }
+}
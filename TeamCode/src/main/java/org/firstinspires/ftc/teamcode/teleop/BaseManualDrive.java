@@ -3,11 +3,16 @@ package org.firstinspires.ftc.teamcode.teleop;
 import com.acmerobotics.dashboard.config.Config;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.hardware.DcMotor;
-import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.util.ElapsedTime;
+import org.firstinspires.ftc.teamcode.classes.Alliance;
+import org.firstinspires.ftc.teamcode.classes.BallisticSolver;
 import org.firstinspires.ftc.teamcode.classes.DefaultRobot;
-import org.firstinspires.ftc.teamcode.classes.LauncherHelper;
+import org.firstinspires.ftc.teamcode.classes.LauncherTableFile;
+import org.firstinspires.ftc.teamcode.classes.LoopProfiler;
+import org.firstinspires.ftc.teamcode.classes.TelemetryManager;
 import org.firstinspires.ftc.teamcode.classes.Vision;
+import org.firstinspires.ftc.teamcode.classes.robot.CachingMotor;
+import org.firstinspires.ftc.teamcode.classes.robot.PoseSnapshot;
 
 /**
  * Base class for manual drive OpModes. Provides common drive and intake logic.
@@ -17,24 +22,27 @@ import org.firstinspires.ftc.teamcode.classes.Vision;
 public abstract class BaseManualDrive extends LinearOpMode {
   private final ElapsedTime runtime = new ElapsedTime();
   private final DefaultRobot robot = new DefaultRobot();
+  private final LoopProfiler profiler = new LoopProfiler();
+  private TelemetryManager telemetryManager;
 
   // Intake
-  private DcMotor intakeMotor;
+  private CachingMotor intakeMotor;
   private static final String INTAKE_MOTOR_NAME = "intake";
   public static double MAX_INTAKE_POWER = 1.0;
 
   // Shooter (spins up and launches balls)
-  private DcMotorEx shooterMotor;
-  private static final String SHOOTER_MOTOR_NAME = "shooter";
-  private static final double SHOOTER_TICKS_PER_REV = 28.0;
   public static double SHOOTER_TARGET_RPM = 6000.0;
+  // Take the RPM from the launcher table at the vision distance when a goal is
+  // seen, led for the chassis velocity
+  public static boolean USE_VISION_RPM = false;
+  private static final double MAX_SHOT_DISTANCE_METERS = 4.5;
+  private boolean shooterSpinning = false;
 
   // Turret (aims the shooter)
-  private DcMotor turretMotor;
-  private static final String TURRET_MOTOR_NAME = "turret";
-  private static final double MAX_TURRET_POWER = 1.0;
+  public static double MAX_TURRET_POWER = 1.0;
 
-  // Vision
+  // Vision: aim only at this alliance's goal
+  public static Alliance ALLIANCE = Alliance.BLUE;
   private Vision vision;
 
   /** Returns speed multiplier (0.0 to 1.0) for drive inputs. */
@@ -44,41 +52,47 @@ public abstract class BaseManualDrive extends LinearOpMode {
   public void runOpMode() {
     robot.init(hardwareMap);
     intakeMotor = getMotorOrNull(INTAKE_MOTOR_NAME);
-    shooterMotor = getMotorExOrNull(SHOOTER_MOTOR_NAME);
-    turretMotor = getMotorOrNull(TURRET_MOTOR_NAME);
     vision = robot.getVision();
+    // Only our goal is useful for aiming; ignore the obelisk and the other goal
+    Alliance alliance = ALLIANCE;
+    vision.setTargetTagId(alliance.getGoalTagId());
+    // Load the tuned launcher table (and extend it) without holding up init
+    LauncherTableFile.loadAsync(new BallisticSolver(), MAX_SHOT_DISTANCE_METERS);
+    setupTelemetry();
     telemetry.addData("Status", "Initialized");
+    telemetry.addData("Alliance", alliance);
     telemetry.update();
     waitForStart();
     runtime.reset();
+    profiler.reset();
+    // Poll the Limelight off the loop thread; the loop only reads snapshots
+    vision.startAsync();
 
     while (opModeIsActive()) {
+      profiler.startLoop();
+      robot.beginLoop();
       processDriveInput();
+      profiler.mark(LoopProfiler.Section.DRIVE);
       processIntakeInput();
+      profiler.mark(LoopProfiler.Section.INTAKE);
       processShooterInput();
+      profiler.mark(LoopProfiler.Section.SHOOTER);
       processTurretInput();
+      profiler.mark(LoopProfiler.Section.TURRET);
       processLoaderInput();
-      vision.update();
-      updateTelemetry();
+      profiler.mark(LoopProfiler.Section.LOADER);
+      robot.update();
+      profiler.mark(LoopProfiler.Section.UPDATE);
+      telemetryManager.update();
+      profiler.mark(LoopProfiler.Section.TELEMETRY);
     }
+    vision.stopAsync();
     stopMotors();
   }
 
-  private DcMotor getMotorOrNull(String name) {
+  private CachingMotor getMotorOrNull(String name) {
     try {
-      DcMotor m = hardwareMap.get(DcMotor.class, name);
-      m.setPower(0.0);
-      return m;
-    } catch (Exception e) {
-      telemetry.addData("Error", "Failed to init " + name + ": " + e.getMessage());
-      telemetry.update();
-      return null;
-    }
-  }
-
-  private DcMotorEx getMotorExOrNull(String name) {
-    try {
-      DcMotorEx m = hardwareMap.get(DcMotorEx.class, name);
+      CachingMotor m = new CachingMotor(hardwareMap.get(DcMotor.class, name));
       m.setPower(0.0);
       return m;
     } catch (Exception e) {
@@ -90,13 +104,15 @@ public abstract class BaseManualDrive extends LinearOpMode {
 
   /**
    * Loader motor control: D-pad up raises the loader, D-pad down lowers it.
+   * Manual input overrides an automatic fire; otherwise a fire in progress is
+   * left to finish.
    */
   private void processLoaderInput() {
     if (gamepad1.dpad_up) {
       robot.raiseLoader();
     } else if (gamepad1.dpad_down) {
       robot.lowerLoader();
-    } else {
+    } else if (!robot.isLoaderMoving()) {
       robot.stopLoader();
     }
   }
@@ -112,39 +128,39 @@ public abstract class BaseManualDrive extends LinearOpMode {
   }
 
   /**
-   * Shooter control: Hold R2 trigger to spin up shooter to fixed target RPM.
-   * When at speed (98% of target), automatically raises the loader motor.
-   * When R2 is released, stops the motor and lowers the loader.
+   * Shooter control: Hold R2 trigger to spin up the shooter to its target RPM.
+   * Once the flywheel has held the target for the readiness window, fires the
+   * loader: it raises to its fire position and returns home under position
+   * control, then fires again once the flywheel has recovered. When R2 is
+   * released, the flywheel coasts down.
    */
   private void processShooterInput() {
-    if (shooterMotor == null)
-      return;
-
-    if (gamepad1.right_trigger > 0.5) {
-      double ticksPerSec = SHOOTER_TARGET_RPM * SHOOTER_TICKS_PER_REV / 60.0;
-      shooterMotor.setVelocity(-ticksPerSec);
-
-      double actualTicksPerSec = shooterMotor.getVelocity();
-      double actualRPM = actualTicksPerSec * 60.0 / SHOOTER_TICKS_PER_REV;
-      boolean atSpeed = LauncherHelper.isAtTargetRPM(actualRPM, SHOOTER_TARGET_RPM);
-
-      if (atSpeed) {
-        robot.raiseLoader();
+    shooterSpinning = gamepad1.right_trigger > 0.5;
+    if (shooterSpinning) {
+      double rpm = USE_VISION_RPM ? robot.getRequiredShooterRpm() : 0;
+      robot.setShooterRpm(rpm > 0 ? rpm : SHOOTER_TARGET_RPM);
+      if (robot.isShooterReady()) {
+        robot.fireLoader();
       }
-
-      telemetry.addData("Shooter", "Target: %.0f RPM | Actual: %.0f RPM | %s", SHOOTER_TARGET_RPM,
-          actualRPM, atSpeed ? "FIRING" : "SPINNING UP");
     } else {
-      shooterMotor.setVelocity(0);
+      robot.stopShooter();
     }
   }
 
   /**
-   * Turret control: L1 bumper / L2 trigger rotates the turret for aiming.
+   * Turret control: hold L2 trigger to lock onto the goal with Vision. R1 / L1
+   * bumpers turn the turret CCW / CW by hand and override auto-aim.
    */
   private void processTurretInput() {
-    setMotorPowerFromGamepad(
-        turretMotor, gamepad1.right_bumper, gamepad1.left_bumper, MAX_TURRET_POWER);
+    if (gamepad1.right_bumper) {
+      robot.setTurretPower(MAX_TURRET_POWER);
+    } else if (gamepad1.left_bumper) {
+      robot.setTurretPower(-MAX_TURRET_POWER);
+    } else if (gamepad1.left_trigger > 0.5) {
+      robot.setTurretAutoAim(true);
+    } else {
+      robot.setTurretPower(0.0);
+    }
   }
 
   /**
@@ -152,7 +168,7 @@ public abstract class BaseManualDrive extends LinearOpMode {
    * If both inputs are false, sets power to 0.
    */
   private void setMotorPowerFromGamepad(
-      DcMotor motor, boolean negative, boolean positive, double maxPower) {
+      CachingMotor motor, boolean negative, boolean positive, double maxPower) {
     if (motor == null)
       return;
     double power = 0.0;
@@ -167,27 +183,103 @@ public abstract class BaseManualDrive extends LinearOpMode {
   private void stopMotors() {
     if (intakeMotor != null)
       intakeMotor.setPower(0.0);
-    if (shooterMotor != null)
-      shooterMotor.setPower(0.0);
-    if (turretMotor != null)
-      turretMotor.setPower(0.0);
+    robot.stopShooter();
+    robot.stopTurret();
   }
 
-  private void updateTelemetry() {
-    telemetry.addData("Status", "Run Time: " + runtime);
-    telemetry.addData("Drive Powers", "FL: %.2f, FR: %.2f, BL: %.2f, BR: %.2f",
-        robot.getFrontLeftPower(), robot.getFrontRightPower(), robot.getBackLeftPower(),
-        robot.getBackRightPower());
-    telemetry.addData("Inputs", "Fwd: %.2f, Str: %.2f, Rot: %.2f", robot.getLastForward(),
-        robot.getLastStrafe(), robot.getLastRotate());
-    telemetry.addData("Intake Power", "%.2f", robot.getIntakePower());
-    if (robot.isLoaderInitialized()) {
-      telemetry.addData("Loader", "Pos: %d | DpadUp: %s | DpadDown: %s", robot.getLoaderPosition(),
-          gamepad1.dpad_up, gamepad1.dpad_down);
-    } else {
-      telemetry.addData("Loader", "NOT INITIALIZED — %s", robot.getLoaderInitError());
-    }
-    telemetry.addData("Vision", vision.getStatusString());
-    telemetry.update();
+  /**
+   * Register telemetry lines once. Values are only formatted when the manager
+   * actually sends a frame, not every loop.
+   */
+  private void setupTelemetry() {
+    telemetryManager = new TelemetryManager(telemetry);
+    telemetryManager.addLine("Status",
+        out -> TelemetryManager.appendFixed(out.append("Run Time: "), runtime.seconds(), 1)
+                   .append(" s"));
+    profiler.addTo(telemetryManager);
+    telemetryManager.addLine(
+        "Bulk Read", out -> out.append(robot.isBulkCaching() ? "ON" : "OFF"));
+    telemetryManager.addLine("Drive Powers", out -> {
+      TelemetryManager.appendFixed(out.append("FL: "), robot.getFrontLeftPower(), 2);
+      TelemetryManager.appendFixed(out.append(", FR: "), robot.getFrontRightPower(), 2);
+      TelemetryManager.appendFixed(out.append(", BL: "), robot.getBackLeftPower(), 2);
+      TelemetryManager.appendFixed(out.append(", BR: "), robot.getBackRightPower(), 2);
+    });
+    telemetryManager.addLine("Inputs", out -> {
+      TelemetryManager.appendFixed(out.append("Fwd: "), robot.getLastForward(), 2);
+      TelemetryManager.appendFixed(out.append(", Str: "), robot.getLastStrafe(), 2);
+      TelemetryManager.appendFixed(out.append(", Rot: "), robot.getLastRotate(), 2);
+    });
+    telemetryManager.addLine("Pose", out -> {
+      PoseSnapshot pose = robot.getPose();
+      TelemetryManager.appendFixed(out.append("X: "), pose.x, 1);
+      TelemetryManager.appendFixed(out.append(" in, Y: "), pose.y, 1);
+      TelemetryManager.appendFixed(out.append(" in, H: "), Math.toDegrees(pose.heading), 1);
+      out.append("° | ").append(robot.getLocalizerName());
+      TelemetryManager.appendFixed(out.append(" "), robot.getLocalizerReadMs(), 2).append(" ms");
+      if (robot.getLocalizerInitError() != null) {
+        out.append(" (").append(robot.getLocalizerInitError()).append(")");
+      }
+    });
+    telemetryManager.addLine("IMU", out -> {
+      if (!robot.isImuInitialized()) {
+        out.append("NOT FOUND (").append(robot.getImuInitError()).append(")");
+        return;
+      }
+      TelemetryManager.appendFixed(out.append("Read: "), robot.getImuReadMs(), 2);
+      out.append(" ms | Heading hold: ");
+      if (!DefaultRobot.GAMEPAD_HEADING_HOLD) {
+        out.append("off");
+      } else {
+        out.append(robot.isHoldingHeading() ? "holding" : "turning");
+      }
+    });
+    telemetryManager.addLine(
+        "Intake Power", out -> TelemetryManager.appendFixed(out, robot.getIntakePower(), 2));
+    telemetryManager.addLine("Motor Writes", out -> out.append("Sent: ")
+        .append(robot.getSentMotorWrites())
+        .append(" | Skipped: ")
+        .append(robot.getSuppressedMotorWrites()));
+    telemetryManager.addLine("Shooter", out -> {
+      if (!robot.isShooterInitialized()) {
+        out.append("NOT INITIALIZED — ").append(robot.getShooterInitError());
+      } else if (!shooterSpinning) {
+        out.append("OFF");
+      } else {
+        TelemetryManager.appendFixed(out.append("Target: "), robot.getShooterTargetRpm(), 0);
+        TelemetryManager.appendFixed(out.append(" RPM | Actual: "), robot.getShooterRpm(), 0);
+        out.append(" RPM | ").append(robot.getShooterState());
+        TelemetryManager.appendFixed(out.append(" | Shots: ").append(robot.getShotCount())
+            .append(" @ "), robot.getLastReleaseRpm(), 0);
+      }
+    });
+    telemetryManager.addLine("Turret", out -> {
+      if (!robot.isTurretInitialized()) {
+        out.append("NOT INITIALIZED — ").append(robot.getTurretInitError());
+        return;
+      }
+      TelemetryManager.appendFixed(out.append("Angle: "), robot.getTurretAngleDegrees(), 1);
+      TelemetryManager.appendFixed(out.append("° | Setpoint: "),
+          robot.getTurretSetpointDegrees(), 1);
+      if (!robot.isTurretAutoAim()) {
+        out.append("° | MANUAL");
+      } else {
+        out.append("° | ").append(robot.isTurretOnTarget() ? "ON TARGET"
+            : robot.hasTurretLock() ? "TRACKING" : "NO GOAL");
+        TelemetryManager.appendFixed(out.append(" | Lead: "), robot.getLeadDegrees(), 1)
+            .append("°");
+      }
+    });
+    telemetryManager.addLine("Loader", out -> {
+      if (robot.isLoaderInitialized()) {
+        out.append("Pos: ").append(robot.getLoaderPosition())
+            .append(" | State: ").append(robot.getLoaderState())
+            .append(" | DpadUp: ").append(gamepad1.dpad_up)
+            .append(" | DpadDown: ").append(gamepad1.dpad_down);
+      } else {
+        out.append("NOT INITIALIZED — ").append(robot.getLoaderInitError());
+      }
+    });
+    telemetryManager.addLine("Vision", out -> vision.appendStatus(out));
   }
 }
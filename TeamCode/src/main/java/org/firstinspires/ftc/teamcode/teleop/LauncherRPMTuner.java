@@ -2,51 +2,56 @@ package org.firstinspires.ftc.teamcode.teleop;
 
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
-import com.qualcomm.robotcore.hardware.DcMotorEx;
+import java.io.IOException;
 import org.firstinspires.ftc.teamcode.classes.DefaultRobot;
+import org.firstinspires.ftc.teamcode.classes.LauncherTableFile;
+import org.firstinspires.ftc.teamcode.classes.LoopProfiler;
 import org.firstinspires.ftc.teamcode.classes.Vision;
 
 /**
  * Tuning OpMode for building the LauncherHelper RPM lookup table.
  *
+ * The flywheel runs through DefaultRobot's ShooterSubsystem, the same
+ * controller and shot detector the match OpModes use, so the logged RPMs
+ * are the ones the table will be asked to reproduce.
+ *
  * Controls:
  *   D-pad Up/Down   — adjust target RPM by ±500
  *   D-pad Left/Right — adjust target RPM by ±100
  *   Cross button    — toggle launcher motor on/off at current target RPM
  *   Circle button   — stop motor (safety)
+ *   Triangle button — record the last shot as a HIT
+ *   Square button   — record the last shot as a MISS
+ *   Options button  — fit the recorded hits into the RPM table file
  *
  * Workflow:
- *   1. Set RPM with d-pad, press Cross to spin up
- *   2. Fire a ball and measure the landing distance
- *   3. Record the {distance, RPM} pair
- *   4. Repeat at 3-5 distances, then update RPM_TABLE in LauncherHelper
+ *   1. Point at the goal so Vision reports a distance
+ *   2. Set RPM with d-pad, press Cross to spin up, fire a ball
+ *   3. Press Triangle or Square; the vision distance/height, target RPM and
+ *      detected release RPM are appended to LauncherTableFile.SHOT_LOG
+ *   4. Repeat across the field, then press Options. The fitted table is
+ *      written to LauncherTableFile.TABLE, which OpModes load at init.
  */
 @TeleOp(name = "Launcher RPM Tuner", group = "Diagnostic")
 public class LauncherRPMTuner extends LinearOpMode {
-  private static final String SHOOTER_MOTOR_NAME = "turret";
-  private static final double TICKS_PER_REV = 28.0;
   private static final double MIN_RPM = 0;
   private static final double MAX_RPM = 8000;
 
   @Override
   public void runOpMode() {
-    // Init motor
-    DcMotorEx motor = null;
-    try {
-      motor = hardwareMap.get(DcMotorEx.class, SHOOTER_MOTOR_NAME);
-      motor.setPower(0.0);
-    } catch (Exception e) {
-      telemetry.addData("ERROR", "Shooter motor not found: " + e.getMessage());
-    }
-
-    // Init vision (optional — shows distance if AprilTag visible)
+    // Init robot: shooter for the flywheel, vision for distance to the goal
     DefaultRobot robot = new DefaultRobot();
     Vision vision = null;
+    boolean robotReady = false;
     try {
       robot.init(hardwareMap);
       vision = robot.getVision();
+      robotReady = true;
     } catch (Exception e) {
-      telemetry.addData("Vision", "Not available: " + e.getMessage());
+      telemetry.addData("ERROR", "Robot init failed: " + e.getMessage());
+    }
+    if (robotReady && !robot.isShooterInitialized()) {
+      telemetry.addData("ERROR", "Shooter not available: " + robot.getShooterInitError());
     }
 
     double targetRPM = 2000;
@@ -59,14 +64,29 @@ public class LauncherRPMTuner extends LinearOpMode {
     boolean prevDpadRight = false;
     boolean prevCross = false;
     boolean prevCircle = false;
+    boolean prevTriangle = false;
+    boolean prevSquare = false;
+    boolean prevOptions = false;
+    int recordedShots = 0;
+    String captureStatus = "No shots recorded";
 
     telemetry.addData("Status", "Initialized — press Play to start");
     telemetry.addData("Controls", "D-pad ↑↓ ±500 | D-pad ←→ ±100 | Cross toggle | Circle stop");
     telemetry.update();
 
     waitForStart();
+    LoopProfiler profiler = new LoopProfiler();
+    if (vision != null) {
+      vision.startAsync();
+    }
 
     while (opModeIsActive()) {
+      profiler.startLoop();
+      // Fresh bulk read for this loop's velocity read
+      if (robotReady) {
+        robot.beginLoop();
+      }
+
       // --- Edge-detected RPM adjustments ---
       if (gamepad1.dpad_up && !prevDpadUp) {
         targetRPM = Math.min(targetRPM + 500, MAX_RPM);
@@ -97,31 +117,67 @@ public class LauncherRPMTuner extends LinearOpMode {
       prevCross = gamepad1.cross;
       prevCircle = gamepad1.circle;
 
-      // --- Apply motor velocity ---
-      double actualRPM = 0;
-      if (motor != null) {
-        if (motorRunning && targetRPM > 0) {
-          double ticksPerSec = targetRPM * TICKS_PER_REV / 60.0;
-          motor.setVelocity(ticksPerSec);
+      // --- Run the flywheel; update() also watches it for shots ---
+      if (motorRunning && targetRPM > 0) {
+        robot.setShooterRpm(targetRPM);
+      } else {
+        robot.stopShooter();
+      }
+      if (robotReady) {
+        robot.update();
+      }
+      double actualRPM = robot.getShooterRpm();
+      profiler.mark(LoopProfiler.Section.SHOOTER);
+
+      // --- Capture: record the last shot, or fit the table ---
+      boolean recordHit = gamepad1.triangle && !prevTriangle;
+      boolean recordMiss = gamepad1.square && !prevSquare;
+      if (recordHit || recordMiss) {
+        if (vision == null || !vision.hasTarget()) {
+          captureStatus = "Not recorded: no goal in view";
         } else {
-          motor.setVelocity(0);
+          // Prefer the detected release RPM of the shot being judged
+          boolean newShot = robot.getShotCount() > recordedShots;
+          double releaseRPM = newShot ? robot.getLastReleaseRpm() : actualRPM;
+          try {
+            LauncherTableFile.appendShot(vision.getDistanceToGoalMeters(),
+                vision.getHeightToGoalMeters(), targetRPM, releaseRPM, recordHit);
+            captureStatus = String.format("Recorded %s at %.2f m, %.0f RPM",
+                recordHit ? "HIT" : "MISS", vision.getDistanceToGoalMeters(), releaseRPM);
+          } catch (IOException e) {
+            captureStatus = "Write failed: " + e.getMessage();
+          }
         }
-        actualRPM = motor.getVelocity() * 60.0 / TICKS_PER_REV;
+        recordedShots = robot.getShotCount();
       }
-
-      // --- Update vision ---
-      if (vision != null) {
-        vision.update();
+      if (gamepad1.options && !prevOptions) {
+        try {
+          double[][] table = LauncherTableFile.generateTable();
+          captureStatus = table == null
+              ? "Need hits at 2+ distances to fit a table"
+              : "Wrote " + table.length + " rows to " + LauncherTableFile.TABLE.getName();
+        } catch (IOException e) {
+          captureStatus = "Fit failed: " + e.getMessage();
+        }
       }
+      prevTriangle = gamepad1.triangle;
+      prevSquare = gamepad1.square;
+      prevOptions = gamepad1.options;
 
       // --- Telemetry ---
       telemetry.addLine("=== LAUNCHER RPM TUNER ===");
       telemetry.addData("Target RPM", "%.0f", targetRPM);
       telemetry.addData("Actual RPM", "%.0f", actualRPM);
       telemetry.addData("Motor", motorRunning ? "ON" : "OFF");
+      telemetry.addData("Shooter", robot.getShooterState());
+      telemetry.addData("Shots", robot.getShotCount());
+      telemetry.addData("Last release RPM", "%.0f", robot.getLastReleaseRpm());
+      profiler.addTelemetry(telemetry);
       telemetry.addLine();
       telemetry.addData("Controls", "D-pad ↑↓ ±500 | ←→ ±100");
       telemetry.addData("", "Cross = toggle motor | Circle = stop");
+      telemetry.addData("", "Triangle = hit | Square = miss | Options = fit table");
+      telemetry.addData("Capture", captureStatus);
 
       if (vision != null && vision.hasTarget()) {
         telemetry.addLine();
@@ -131,12 +187,13 @@ public class LauncherRPMTuner extends LinearOpMode {
       }
 
       telemetry.update();
+      profiler.mark(LoopProfiler.Section.TELEMETRY);
     }
 
     // Cleanup
-    if (motor != null) {
-      motor.setVelocity(0);
-      motor.setPower(0.0);
+    if (vision != null) {
+      vision.stopAsync();
     }
+    robot.stopShooter();
   }
 }
@@ -9,12 +9,22 @@ import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import java.util.List;
 import org.firstinspires.ftc.robotcore.external.navigation.Pose3D;
 import org.firstinspires.ftc.robotcore.external.navigation.Position;
+import org.firstinspires.ftc.teamcode.classes.LoopProfiler;
+import org.firstinspires.ftc.teamcode.classes.TelemetryManager;
 
+/**
+ * Shows raw Limelight connection, status and result data. The Limelight is
+ * only queried when the TelemetryManager is about to send a frame.
+ */
 @TeleOp(name = "Limelight Diagnostic", group = "Diagnostic")
 public class LimelightDiagnostic extends LinearOpMode {
+  private Limelight3A limelight;
+  private LLStatus status;
+  private LLResult result;
+
   @Override
   public void runOpMode() {
-    Limelight3A limelight = null;
+    limelight = null;
     try {
       limelight = hardwareMap.get(Limelight3A.class, "limelight");
       limelight.setPollRateHz(100);
@@ -24,13 +34,20 @@ public class LimelightDiagnostic extends LinearOpMode {
 
       telemetry.addData("Init", "Limelight initialized OK");
     } catch (Exception e) {
+      limelight = null;
       telemetry.addData("Init", "FAILED: " + e.getMessage());
     }
     telemetry.update();
 
+    LoopProfiler profiler = new LoopProfiler();
+    TelemetryManager telemetryManager = new TelemetryManager(telemetry);
+    setupTelemetry(telemetryManager);
+    profiler.addTo(telemetryManager);
+
     waitForStart();
 
     while (opModeIsActive()) {
+      profiler.startLoop();
       if (limelight == null) {
         telemetry.addData("ERROR", "Limelight not found in hardwareMap");
         telemetry.update();
@@ -38,99 +55,122 @@ public class LimelightDiagnostic extends LinearOpMode {
         continue;
       }
 
-      // Connection health
-      telemetry.addLine("=== CONNECTION ===");
-      telemetry.addData("isConnected", limelight.isConnected());
-      telemetry.addData("isRunning", limelight.isRunning());
-      telemetry.addData("TimeSinceUpdate (ms)", limelight.getTimeSinceLastUpdate());
-
-      // Status info
-      LLStatus status = limelight.getStatus();
-      telemetry.addLine("=== STATUS ===");
-      if (status != null) {
-        telemetry.addData("Pipeline", status.getPipelineIndex());
-        telemetry.addData("Pipeline Type", status.getPipelineType());
-        telemetry.addData("Temp (C)", "%.1f", status.getTemp());
-        telemetry.addData("FPS", "%.0f", status.getFps());
-        telemetry.addData("CPU", "%.1f", status.getCpu());
-        telemetry.addData("RAM", "%.1f", status.getRam());
-      } else {
-        telemetry.addData("Status", "null");
+      if (telemetryManager.isFrameDue()) {
+        status = limelight.getStatus();
+        result = limelight.getLatestResult();
       }
+      profiler.mark(LoopProfiler.Section.VISION);
 
-      // Result info
-      LLResult result = limelight.getLatestResult();
-      telemetry.addLine("=== RESULT ===");
-      if (result == null) {
-        telemetry.addData("Result", "null");
-      } else {
-        telemetry.addData("Valid", result.isValid());
-        telemetry.addData("tx", "%.2f", result.getTx());
-        telemetry.addData("ty", "%.2f", result.getTy());
-        telemetry.addData("ta", "%.2f", result.getTa());
-        telemetry.addData("Staleness (ms)", "%d", result.getStaleness());
-        telemetry.addData("Pipeline Index", result.getPipelineIndex());
-
-        // Botpose
-        Pose3D botpose = result.getBotpose();
-        if (botpose != null) {
-          Position pos = botpose.getPosition();
-          telemetry.addData("Botpose", "(%.2f, %.2f, %.2f)", pos.x, pos.y, pos.z);
-        } else {
-          telemetry.addData("Botpose", "null");
-        }
+      telemetryManager.update();
+      profiler.mark(LoopProfiler.Section.TELEMETRY);
+    }
 
-        // Fiducials (AprilTags)
-        List<LLResultTypes.FiducialResult> fiducials = result.getFiducialResults();
-        telemetry.addLine("=== APRILTAGS ===");
-        telemetry.addData("Tags found", fiducials.size());
-        for (LLResultTypes.FiducialResult f : fiducials) {
-          telemetry.addData("  Tag " + f.getFiducialId(), "tx=%.1f ty=%.1f ta=%.1f",
-              f.getTargetXDegrees(), f.getTargetYDegrees(), f.getTargetArea());
-          Pose3D rp = f.getRobotPoseTargetSpace();
-          if (rp != null) {
-            Position p = rp.getPosition();
-            telemetry.addData("    RobotPose", "(%.2f, %.2f, %.2f)", p.x, p.y, p.z);
-          }
-        }
+    if (limelight != null) {
+      limelight.stop();
+    }
+  }
 
-        // Color results
-        List<LLResultTypes.ColorResult> colors = result.getColorResults();
-        if (!colors.isEmpty()) {
-          telemetry.addLine("=== COLOR ===");
-          telemetry.addData("Color targets", colors.size());
-          for (LLResultTypes.ColorResult c : colors) {
-            telemetry.addData("  Color", "tx=%.1f ty=%.1f area=%.1f", c.getTargetXDegrees(),
-                c.getTargetYDegrees(), c.getTargetArea());
-          }
-        }
+  private void setupTelemetry(TelemetryManager tm) {
+    // Connection health
+    tm.addHeader("=== CONNECTION ===");
+    tm.addLine("isConnected", out -> out.append(limelight.isConnected()));
+    tm.addLine("isRunning", out -> out.append(limelight.isRunning()));
+    tm.addLine("TimeSinceUpdate (ms)", out -> out.append(limelight.getTimeSinceLastUpdate()));
 
-        // Detector results
-        List<LLResultTypes.DetectorResult> detectors = result.getDetectorResults();
-        if (!detectors.isEmpty()) {
-          telemetry.addLine("=== DETECTOR ===");
-          telemetry.addData("Detections", detectors.size());
-          for (LLResultTypes.DetectorResult d : detectors) {
-            telemetry.addData("  " + d.getClassName(), "tx=%.1f ty=%.1f conf=%.2f",
-                d.getTargetXDegrees(), d.getTargetYDegrees(), d.getConfidence());
-          }
-        }
+    // Status info
+    tm.addHeader("=== STATUS ===");
+    tm.addLine("Status", out -> {
+      if (status == null) {
+        out.append("null");
+        return;
+      }
+      out.append("Pipeline ").append(status.getPipelineIndex())
+          .append(" (").append(status.getPipelineType()).append(')');
+      TelemetryManager.appendFixed(out.append("\nTemp (C) "), status.getTemp(), 1);
+      TelemetryManager.appendFixed(out.append(" | FPS "), status.getFps(), 0);
+      TelemetryManager.appendFixed(out.append(" | CPU "), status.getCpu(), 1);
+      TelemetryManager.appendFixed(out.append(" | RAM "), status.getRam(), 1);
+    });
+
+    // Result info
+    tm.addHeader("=== RESULT ===");
+    tm.addLine("Result", out -> {
+      if (result == null) {
+        out.append("null");
+        return;
+      }
+      out.append("Valid ").append(result.isValid());
+      TelemetryManager.appendFixed(out.append("\ntx "), result.getTx(), 2);
+      TelemetryManager.appendFixed(out.append(" | ty "), result.getTy(), 2);
+      TelemetryManager.appendFixed(out.append(" | ta "), result.getTa(), 2);
+      out.append("\nStaleness (ms) ").append(result.getStaleness())
+          .append(" | Pipeline Index ").append(result.getPipelineIndex());
+    });
+    tm.addLine("Botpose", out -> {
+      Pose3D botpose = result != null ? result.getBotpose() : null;
+      if (botpose == null) {
+        out.append("null");
+        return;
+      }
+      appendPosition(out, botpose.getPosition());
+    });
 
-        // Barcode results
-        List<LLResultTypes.BarcodeResult> barcodes = result.getBarcodeResults();
-        if (!barcodes.isEmpty()) {
-          telemetry.addLine("=== BARCODE ===");
-          for (LLResultTypes.BarcodeResult b : barcodes) {
-            telemetry.addData("  Barcode", b.getData());
-          }
+    // Fiducials (AprilTags)
+    tm.addHeader("=== APRILTAGS ===");
+    tm.addLine("Tags found", out -> {
+      if (result == null) {
+        out.append(0);
+        return;
+      }
+      List<LLResultTypes.FiducialResult> fiducials = result.getFiducialResults();
+      out.append(fiducials.size());
+      for (int i = 0; i < fiducials.size(); i++) {
+        LLResultTypes.FiducialResult f = fiducials.get(i);
+        out.append("\n  Tag ").append(f.getFiducialId());
+        TelemetryManager.appendFixed(out.append(": tx="), f.getTargetXDegrees(), 1);
+        TelemetryManager.appendFixed(out.append(" ty="), f.getTargetYDegrees(), 1);
+        TelemetryManager.appendFixed(out.append(" ta="), f.getTargetArea(), 1);
+        Pose3D rp = f.getRobotPoseTargetSpace();
+        if (rp != null) {
+          appendPosition(out.append("\n    RobotPose "), rp.getPosition());
         }
       }
+    });
 
-      telemetry.update();
-    }
+    // Color, detector and barcode results are only listed when present
+    tm.addLine("Other targets", out -> {
+      if (result == null) {
+        return;
+      }
+      List<LLResultTypes.ColorResult> colors = result.getColorResults();
+      for (int i = 0; i < colors.size(); i++) {
+        LLResultTypes.ColorResult c = colors.get(i);
+        TelemetryManager.appendFixed(out.append("\n  Color tx="), c.getTargetXDegrees(), 1);
+        TelemetryManager.appendFixed(out.append(" ty="), c.getTargetYDegrees(), 1);
+        TelemetryManager.appendFixed(out.append(" area="), c.getTargetArea(), 1);
+      }
+      List<LLResultTypes.DetectorResult> detectors = result.getDetectorResults();
+      for (int i = 0; i < detectors.size(); i++) {
+        LLResultTypes.DetectorResult d = detectors.get(i);
+        out.append("\n  ").append(d.getClassName());
+        TelemetryManager.appendFixed(out.append(" tx="), d.getTargetXDegrees(), 1);
+        TelemetryManager.appendFixed(out.append(" ty="), d.getTargetYDegrees(), 1);
+        TelemetryManager.appendFixed(out.append(" conf="), d.getConfidence(), 2);
+      }
+      List<LLResultTypes.BarcodeResult> barcodes = result.getBarcodeResults();
+      for (int i = 0; i < barcodes.size(); i++) {
+        out.append("\n  Barcode ").append(barcodes.get(i).getData());
+      }
+      if (out.length() == 0) {
+        out.append("none");
+      }
+    });
+  }
 
-    if (limelight != null) {
-      limelight.stop();
-    }
+  private static void appendPosition(StringBuilder out, Position pos) {
+    TelemetryManager.appendFixed(out.append('('), pos.x, 2);
+    TelemetryManager.appendFixed(out.append(", "), pos.y, 2);
+    TelemetryManager.appendFixed(out.append(", "), pos.z, 2);
+    out.append(')');
   }
 }
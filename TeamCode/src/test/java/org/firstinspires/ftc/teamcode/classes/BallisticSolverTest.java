@@ -0,0 +1,62 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+/** BallisticSolver solutions and the model extension of LauncherHelper's RPM table. */
+public class BallisticSolverTest {
+  // LauncherHelper's built-in table, put back after each test
+  private static final double[][] DEFAULT_TABLE = {
+      {1.0, 2000}, {1.5, 2800}, {2.0, 3500}, {2.5, 4200}, {3.0, 5000}};
+
+  private final BallisticSolver solver = new BallisticSolver();
+
+  @After
+  public void tearDown() {
+    LauncherHelper.setRpmTable(DEFAULT_TABLE);
+  }
+
+  @Test
+  public void fartherShotsNeedMoreSpeedAndTime() {
+    BallisticSolver.Solution near = solver.solve(2.0, 0.8);
+    BallisticSolver.Solution far = solver.solve(3.0, 0.8);
+    assertTrue(near.solved);
+    assertTrue(far.solved);
+    assertTrue(far.exitSpeedMps > near.exitSpeedMps);
+    assertTrue(far.rpm > near.rpm);
+    assertTrue(far.timeOfFlightSec > near.timeOfFlightSec);
+    assertEquals(BallisticSolver.exitSpeedToRpm(far.exitSpeedMps), far.rpm, 1e-9);
+  }
+
+  @Test
+  public void outOfReachIsNotSolved() {
+    assertFalse(solver.solve(50.0, 0.8).solved);
+  }
+
+  @Test
+  public void extendsTablePastMeasuredRange() {
+    assertEquals(5000, LauncherHelper.lookupRPM(4.0), 1e-9);
+    assertTrue(LauncherHelper.extendRpmTable(solver, 4.5) > 0);
+    // Measured rows are kept; past them the RPM keeps rising instead of clamping
+    assertEquals(3500, LauncherHelper.lookupRPM(2.0), 1.0);
+    assertEquals(5000, LauncherHelper.lookupRPM(3.0), 1.0);
+    double previous = 5000;
+    for (double d = 3.25; d <= 4.5; d += 0.25) {
+      double rpm = LauncherHelper.lookupRPM(d);
+      assertTrue(d + " m: " + rpm, rpm > previous);
+      previous = rpm;
+    }
+  }
+
+  @Test
+  public void extendingAgainDoesNotStack() {
+    int added = LauncherHelper.extendRpmTable(solver, 4.5);
+    double rpm = LauncherHelper.lookupRPM(4.5);
+    assertEquals(added, LauncherHelper.extendRpmTable(solver, 4.5));
+    assertEquals(rpm, LauncherHelper.lookupRPM(4.5), 1e-9);
+  }
+}
@@ -0,0 +1,106 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Test;
+
+/** ConstantVelocityFilter on synthetic noisy sequences with a fixed seed. */
+public class ConstantVelocityFilterTest {
+  private static final double DT = 0.02; // 50 Hz camera
+  private static final double NOISE_STD = 0.05;
+
+  private static ConstantVelocityFilter newFilter() {
+    ConstantVelocityFilter filter = new ConstantVelocityFilter();
+    filter.configure(2.0, NOISE_STD);
+    return filter;
+  }
+
+  @Test
+  public void smoothsNoiseOnConstantValue() {
+    Random random = new Random(1);
+    ConstantVelocityFilter filter = newFilter();
+    double rawSq = 0;
+    double filteredSq = 0;
+    int counted = 0;
+    for (int i = 0; i < 300; i++) {
+      double measured = 2.0 + random.nextGaussian() * NOISE_STD;
+      filter.predict(DT);
+      filter.correct(measured, 4.0, 3);
+      if (i >= 50) { // after settling
+        rawSq += (measured - 2.0) * (measured - 2.0);
+        filteredSq += (filter.getValue() - 2.0) * (filter.getValue() - 2.0);
+        counted++;
+      }
+    }
+    double rawRms = Math.sqrt(rawSq / counted);
+    double filteredRms = Math.sqrt(filteredSq / counted);
+    assertTrue("raw " + rawRms + " filtered " + filteredRms, filteredRms < 0.6 * rawRms);
+    assertTrue(filter.getVariance() < NOISE_STD * NOISE_STD);
+  }
+
+  @Test
+  public void tracksRampWithoutLag() {
+    Random random = new Random(2);
+    ConstantVelocityFilter filter = newFilter();
+    double rate = 0.8; // m/s, driving away from the goal
+    double truth = 1.5;
+    for (int i = 0; i < 150; i++) {
+      truth += rate * DT;
+      filter.predict(DT);
+      filter.correct(truth + random.nextGaussian() * NOISE_STD, 4.0, 3);
+    }
+    assertEquals(rate, filter.getRate(), 0.15);
+    assertEquals(truth, filter.getValue(), 2 * NOISE_STD);
+  }
+
+  @Test
+  public void gatesSingleOutlier() {
+    ConstantVelocityFilter filter = newFilter();
+    for (int i = 0; i < 50; i++) {
+      filter.predict(DT);
+      filter.correct(2.0, 4.0, 3);
+    }
+    filter.predict(DT);
+    assertFalse(filter.correct(3.5, 4.0, 3));
+    assertEquals(2.0, filter.getValue(), 0.01);
+  }
+
+  @Test
+  public void restartsAfterRepeatedOutliers() {
+    ConstantVelocityFilter filter = newFilter();
+    for (int i = 0; i < 50; i++) {
+      filter.predict(DT);
+      filter.correct(2.0, 4.0, 3);
+    }
+    // The target really moved: three rejections, then the fourth restarts on it
+    for (int i = 0; i < 3; i++) {
+      filter.predict(DT);
+      assertFalse(filter.correct(3.0, 4.0, 3));
+    }
+    filter.predict(DT);
+    assertTrue(filter.correct(3.0, 4.0, 3));
+    assertEquals(3.0, filter.getValue(), 1e-9);
+    assertEquals(0, filter.getRate(), 1e-9);
+  }
+
+  @Test
+  public void coastsOnLastRate() {
+    ConstantVelocityFilter filter = newFilter();
+    double truth = 2.0;
+    for (int i = 0; i < 100; i++) {
+      truth += 0.5 * DT;
+      filter.predict(DT);
+      filter.correct(truth, 4.0, 3);
+    }
+    double variance = filter.getVariance();
+    // 100 ms without measurements: the estimate keeps moving, and grows less certain
+    for (int i = 0; i < 5; i++) {
+      filter.predict(DT);
+    }
+    assertEquals(truth + 0.5 * 0.1, filter.getValue(), 0.01);
+    assertTrue(filter.getVariance() > variance);
+  }
+}
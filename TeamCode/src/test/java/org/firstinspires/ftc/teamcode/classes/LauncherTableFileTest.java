@@ -0,0 +1,121 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Fitting the shot log into an RPM table, and reading the RPM grid file. */
+public class LauncherTableFileTest {
+  private File file;
+
+  @Before
+  public void createFile() throws IOException {
+    file = File.createTempFile("rpm_grid", ".csv");
+  }
+
+  @After
+  public void deleteFile() {
+    file.delete();
+  }
+
+  private void write(String text) throws IOException {
+    try (FileWriter out = new FileWriter(file)) {
+      out.write(text);
+    }
+  }
+
+  private static ArrayList<double[]> hits(double... distanceRpm) {
+    ArrayList<double[]> hits = new ArrayList<>();
+    for (int i = 0; i < distanceRpm.length; i += 2) {
+      hits.add(new double[] {distanceRpm[i], distanceRpm[i + 1]});
+    }
+    return hits;
+  }
+
+  private static void assertTable(double[][] expected, double[][] table) {
+    assertEquals(expected.length, table.length);
+    for (int i = 0; i < expected.length; i++) {
+      assertArrayEquals(expected[i], table[i], 1e-9);
+    }
+  }
+
+  @Test
+  public void averagesHitsPerDistanceBin() {
+    // Given out of order; 1.0 and 1.05 m share a 0.25 m bin
+    double[][] table = LauncherTableFile.fit(hits(2.0, 3000, 1.05, 2100, 1.0, 2000));
+    assertTable(new double[][] {{1.025, 2050}, {2.0, 3000}}, table);
+  }
+
+  @Test
+  public void poolsBinsThatDropWithDistance() {
+    // 2.5 m needs less than 2.0 m: both take their hit-weighted mean
+    double[][] table = LauncherTableFile.fit(
+        hits(1.0, 2000, 2.0, 3000, 2.5, 2700, 2.5, 2700, 3.0, 4000));
+    assertTable(new double[][] {{1.0, 2000}, {2.0, 2800}, {2.5, 2800}, {3.0, 4000}}, table);
+  }
+
+  @Test
+  public void poolingCascadesBackward() {
+    // Pooling 3000 and 2600 leaves 2800, which 2200 then violates too
+    double[][] table = LauncherTableFile.fit(hits(1.0, 2000, 2.0, 3000, 2.5, 2600, 3.0, 2200));
+    assertTable(new double[][] {{1.0, 2000}, {2.0, 2600}, {2.5, 2600}, {3.0, 2600}}, table);
+  }
+
+  @Test
+  public void needsTwoDistanceBins() {
+    assertNull(LauncherTableFile.fit(hits()));
+    assertNull(LauncherTableFile.fit(hits(1.0, 2000, 1.1, 2100)));
+  }
+
+  @Test
+  public void readsGrid() throws IOException {
+    write("distance_m\\height_m,0.5,1.0\n"
+        + "1.0,2000,2200\n"
+        + "\n"
+        + "2.0,3500,3800\n"
+        + "3.0,5000,5400\n");
+    LookupGrid2D grid = LauncherTableFile.readGrid(file);
+    assertEquals(3800, grid.evaluate(2.0, 1.0), 1e-9);
+    assertEquals((2000 + 2200 + 3500 + 3800) / 4.0, grid.evaluate(1.5, 0.75), 1e-9);
+    // Clamped to the edges, like the 1-D table
+    assertEquals(2000, grid.evaluate(0.0, 0.0), 1e-9);
+    assertEquals(5400, grid.evaluate(9.0, 3.0), 1e-9);
+  }
+
+  @Test
+  public void missingFileReadsAsNull() throws IOException {
+    file.delete();
+    assertNull(LauncherTableFile.readGrid(file));
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsRaggedRow() throws IOException {
+    write("distance_m\\height_m,0.5,1.0\n1.0,2000,2200\n2.0,3500\n");
+    LauncherTableFile.readGrid(file);
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsNonNumericCell() throws IOException {
+    write("distance_m\\height_m,0.5,1.0\n1.0,2000,2200\n2.0,3500,fast\n");
+    LauncherTableFile.readGrid(file);
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsEmptyFile() throws IOException {
+    LauncherTableFile.readGrid(file);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsUnsortedHeights() throws IOException {
+    write("distance_m\\height_m,1.0,0.5\n1.0,2000,2200\n2.0,3500,3800\n");
+    LauncherTableFile.readGrid(file);
+  }
+}
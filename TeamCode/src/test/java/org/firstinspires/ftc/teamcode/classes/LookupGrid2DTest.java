@@ -0,0 +1,72 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/** LookupGrid2D interpolation, edge clamping and build-time validation. */
+public class LookupGrid2DTest {
+  private static final double[] DISTANCES = {1.0, 2.0, 3.0};
+  private static final double[] HEIGHTS = {0.5, 1.0};
+  private static final double[][] RPM = {{2000, 2200}, {3500, 3800}, {5000, 5400}};
+
+  private final LookupGrid2D grid = new LookupGrid2D(DISTANCES, HEIGHTS, RPM);
+
+  @Test
+  public void hitsBreakpointsExactly() {
+    for (int i = 0; i < DISTANCES.length; i++) {
+      for (int j = 0; j < HEIGHTS.length; j++) {
+        assertEquals(RPM[i][j], grid.evaluate(DISTANCES[i], HEIGHTS[j]), 1e-9);
+      }
+    }
+  }
+
+  @Test
+  public void interpolatesBilinearly() {
+    // Middle of the first cell: the average of its four corners
+    assertEquals((2000 + 2200 + 3500 + 3800) / 4.0, grid.evaluate(1.5, 0.75), 1e-9);
+    // A quarter along each axis of the second cell
+    double low = 3500 + 0.25 * (3800 - 3500);
+    double high = 5000 + 0.25 * (5400 - 5000);
+    assertEquals(low + 0.25 * (high - low), grid.evaluate(2.25, 0.625), 1e-9);
+  }
+
+  @Test
+  public void unevenAxisMatchesUniformOne() {
+    // Same plane sampled on uneven breakpoints; the binary search must agree
+    double[] distances = {1.0, 1.3, 2.0, 2.9, 3.0};
+    double[][] rpm = new double[distances.length][];
+    for (int i = 0; i < distances.length; i++) {
+      rpm[i] = new double[] {1500 * distances[i], 1500 * distances[i] + 400};
+    }
+    LookupGrid2D uneven = new LookupGrid2D(distances, HEIGHTS, rpm);
+    for (int k = 0; k <= 40; k++) {
+      double d = 1.0 + 2.0 * k / 40;
+      assertEquals(1500 * d + 200, uneven.evaluate(d, 0.75), 1e-6);
+    }
+  }
+
+  @Test
+  public void clampsOutsideGrid() {
+    assertEquals(2000, grid.evaluate(0.2, 0.0), 1e-9);
+    assertEquals(5400, grid.evaluate(9.0, 3.0), 1e-9);
+    assertEquals(3500, grid.evaluate(2.0, -1.0), 1e-9);
+    assertEquals(2000, grid.evaluate(Double.NaN, Double.NaN), 1e-9);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsUnsortedAxis() {
+    new LookupGrid2D(new double[] {1.0, 3.0, 2.0}, HEIGHTS, RPM);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsShortRow() {
+    new LookupGrid2D(DISTANCES, HEIGHTS, new double[][] {{2000, 2200}, {3500}, {5000, 5400}});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsNonFiniteValue() {
+    new LookupGrid2D(DISTANCES, HEIGHTS,
+        new double[][] {{2000, 2200}, {3500, Double.NaN}, {5000, 5400}});
+  }
+}
@@ -0,0 +1,72 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * MonotoneCubicCurve against the piecewise-linear table it replaces: it must
+ * pass through every row, never fall as distance grows, and stay close to
+ * linear interpolation between rows.
+ */
+public class MonotoneCubicCurveTest {
+  private static final int CURVE_SAMPLES = 256;
+
+  /** {distance, rpm} rows from 1 m, rising and flattening like a measured table. */
+  private static double[][] table(int rows) {
+    double[][] table = new double[rows][];
+    for (int i = 0; i < rows; i++) {
+      double distance = 1.0 + 3.0 * i / (rows - 1);
+      table[i] = new double[] {distance, 1500 + 1600 * distance - 80 * distance * distance};
+    }
+    return table;
+  }
+
+  /** Linear scan for the segment, then linear interpolation. */
+  private static double scan(double[][] table, double distance) {
+    if (distance <= table[0][0]) {
+      return table[0][1];
+    }
+    for (int i = 0; i < table.length - 1; i++) {
+      if (distance <= table[i + 1][0]) {
+        double d0 = table[i][0];
+        double rpm0 = table[i][1];
+        double t = (distance - d0) / (table[i + 1][0] - d0);
+        return rpm0 + t * (table[i + 1][1] - rpm0);
+      }
+    }
+    return table[table.length - 1][1];
+  }
+
+  @Test
+  public void curveMatchesTableAndStaysMonotone() {
+    double[][] table = table(12);
+    MonotoneCubicCurve curve = MonotoneCubicCurve.fromTable(table, CURVE_SAMPLES);
+    for (double[] row : table) {
+      assertEquals(row[1], curve.evaluate(row[0]), 1.0);
+    }
+    double previous = curve.evaluate(0.5);
+    for (int i = 0; i <= 1000; i++) {
+      double rpm = curve.evaluate(0.5 + 4.0 * i / 1000);
+      assertTrue(rpm >= previous);
+      // Never further from the linear scan than the table's curvature allows
+      assertEquals(scan(table, 0.5 + 4.0 * i / 1000), rpm, 10.0);
+      previous = rpm;
+    }
+  }
+
+  @Test
+  public void clampsOutsideTable() {
+    double[][] table = table(5);
+    MonotoneCubicCurve curve = MonotoneCubicCurve.fromTable(table, CURVE_SAMPLES);
+    assertEquals(table[0][1], curve.evaluate(0.2), 1e-9);
+    assertEquals(table[4][1], curve.evaluate(9.0), 1e-9);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsUnsortedTable() {
+    MonotoneCubicCurve.fromTable(new double[][] {{1.0, 2000}, {2.0, 3500}, {1.5, 2800}},
+        CURVE_SAMPLES);
+  }
+}
@@ -0,0 +1,168 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Vision's filter stage fed synthetic frames through FakeVisionSource. The
+ * frames carry synthetic capture times 20 ms apart, so the result age limit
+ * is lifted for the test.
+ */
+public class VisionFilterTest {
+  private static final long FRAME_NANOS = 20000000L;
+  private static final int GOAL = Vision.RED_GOAL_TAG_ID;
+
+  private final FakeVisionSource source = new FakeVisionSource();
+  private final Vision vision = new Vision(source);
+  private final VisionFrame frame = new VisionFrame();
+  private final long start = System.nanoTime() - 60000000000L;
+  private int frameIndex = 0;
+
+  private double savedMaxAge;
+  private boolean savedFilterEnabled;
+  private Vision.TagPolicy savedPolicy;
+
+  @Before
+  public void setUp() {
+    savedMaxAge = Vision.MAX_RESULT_AGE_MS;
+    savedFilterEnabled = Vision.FILTER_ENABLED;
+    savedPolicy = Vision.TAG_POLICY;
+    Vision.MAX_RESULT_AGE_MS = Double.MAX_VALUE;
+    Vision.FILTER_ENABLED = true;
+    Vision.TAG_POLICY = Vision.TagPolicy.FIRST_MATCH;
+    vision.setTargetTagId(GOAL);
+  }
+
+  @After
+  public void tearDown() {
+    Vision.MAX_RESULT_AGE_MS = savedMaxAge;
+    Vision.FILTER_ENABLED = savedFilterEnabled;
+    Vision.TAG_POLICY = savedPolicy;
+  }
+
+  /** Publish the next frame, with the goal at the given range, and process it. */
+  private VisionSnapshot see(double distanceMeters, double tx) {
+    frame.clear();
+    frame.valid = true;
+    frame.tx = tx;
+    frame.addTag(GOAL, 0.5, tx, 5.0, true, 0, 0.6, distanceMeters);
+    return publish();
+  }
+
+  /** Publish the next frame without the goal in it. */
+  private VisionSnapshot seeNothing() {
+    frame.clear();
+    frame.valid = true;
+    return publish();
+  }
+
+  /** Publish the next frame as an invalid result, what the camera sends with no tag in view. */
+  private VisionSnapshot seeInvalid() {
+    frame.clear();
+    return publish();
+  }
+
+  private VisionSnapshot publish() {
+    frame.receivedNanos = start + frameIndex++ * FRAME_NANOS;
+    source.publish(frame);
+    vision.update();
+    return vision.getSnapshot();
+  }
+
+  @Test
+  public void smoothsDistanceAndTxJitter() {
+    Random random = new Random(3);
+    double rawSq = 0;
+    double filteredSq = 0;
+    double rawTxSq = 0;
+    double filteredTxSq = 0;
+    for (int i = 0; i < 200; i++) {
+      double measured = 2.5 + random.nextGaussian() * 0.05;
+      double tx = random.nextGaussian() * 0.5;
+      VisionSnapshot s = see(measured, tx);
+      if (i >= 50) {
+        rawSq += (measured - 2.5) * (measured - 2.5);
+        filteredSq += (s.distanceMeters - 2.5) * (s.distanceMeters - 2.5);
+        rawTxSq += tx * tx;
+        filteredTxSq += s.tx * s.tx;
+      }
+    }
+    assertTrue(Math.sqrt(filteredSq) < 0.6 * Math.sqrt(rawSq));
+    // tx is tuned to follow fast turret motion, so it is smoothed less
+    assertTrue(Math.sqrt(filteredTxSq) < 0.8 * Math.sqrt(rawTxSq));
+    VisionSnapshot s = vision.getSnapshot();
+    double distanceStd = Vision.DISTANCE_MEASUREMENT_STD;
+    assertTrue(s.distanceVariance < distanceStd * distanceStd);
+    assertTrue(s.txVariance < Vision.TX_MEASUREMENT_STD * Vision.TX_MEASUREMENT_STD);
+  }
+
+  @Test
+  public void rejectsSingleBadFrame() {
+    for (int i = 0; i < 50; i++) {
+      see(2.0, 0);
+    }
+    VisionSnapshot s = see(3.5, 0);
+    assertTrue(s.hasTarget);
+    assertEquals(2.0, s.distanceMeters, 0.02);
+  }
+
+  @Test
+  public void coastsThroughShortDropout() {
+    for (int i = 0; i < 50; i++) {
+      see(2.0 + i * 0.01, 0); // backing away at 0.5 m/s
+    }
+    double last = vision.getSnapshot().distanceMeters;
+    // Frames up to MAX_COAST_MS after the last measurement still report a target
+    int coastFrames = (int) (Vision.MAX_COAST_MS * 1e6 / FRAME_NANOS);
+    for (int i = 1; i <= coastFrames; i++) {
+      VisionSnapshot s = seeNothing();
+      assertTrue("frame " + i, s.hasTarget);
+      assertTrue(s.isCoasting());
+      assertEquals(GOAL, s.tagId);
+      assertEquals(last + 0.5 * i * FRAME_NANOS / 1e9, s.distanceMeters, 0.02);
+    }
+    VisionSnapshot s = seeNothing();
+    assertFalse(s.hasTarget);
+  }
+
+  @Test
+  public void coastsThroughInvalidFrames() {
+    for (int i = 0; i < 50; i++) {
+      see(2.0, 0.5);
+    }
+    int coastFrames = (int) (Vision.MAX_COAST_MS * 1e6 / FRAME_NANOS);
+    for (int i = 1; i <= coastFrames; i++) {
+      VisionSnapshot s = seeInvalid();
+      assertTrue("frame " + i, s.isCoasting());
+      assertEquals(2.0, s.distanceMeters, 0.02);
+      assertEquals(0.5, s.tx, 0.05);
+    }
+    VisionSnapshot s = seeInvalid();
+    assertFalse(s.hasTarget);
+    // The last tx is kept for display, not the invalid frame's zero
+    assertEquals(0.5, s.tx, 0.05);
+    // Filters were reset by the long dropout
+    assertEquals(3.0, see(3.0, 0).distanceMeters, 1e-9);
+  }
+
+  @Test
+  public void restartsAfterLongDropout() {
+    for (int i = 0; i < 50; i++) {
+      see(2.0, 0);
+    }
+    int lostFrames = (int) (Vision.MAX_COAST_MS * 1e6 / FRAME_NANOS) + 2;
+    for (int i = 0; i < lostFrames; i++) {
+      seeNothing();
+    }
+    // The filters were reset, so the new range is taken as-is instead of gated
+    VisionSnapshot s = see(3.0, 0);
+    assertTrue(s.hasTarget);
+    assertEquals(3.0, s.distanceMeters, 1e-9);
+  }
+}
@@ -0,0 +1,196 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.classes.robot.PoseHistory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Replays a recorded drive through FakeVisionSource and checks Vision's
+ * capture timestamps, stale-result rejection and forward prediction.
+ *
+ * The recording is made up front from a scripted drive: the robot arcs
+ * toward the red goal at 30 in/s while turning, odometry logs a pose every
+ * 10 ms, and the camera delivers a frame every 40 ms, 45 ms after capture.
+ */
+public class VisionReplayTest {
+  private static final double INCHES_TO_METERS = 0.0254;
+  private static final int GOAL = Vision.RED_GOAL_TAG_ID;
+  private static final double GOAL_X = 120;
+  private static final double GOAL_Y = 30;
+  private static final double SPEED = 30; // in/s
+  private static final double TURN_RATE = 0.2; // rad/s CCW
+  private static final long POSE_PERIOD_NANOS = 10000000L;
+  private static final long FRAME_PERIOD_NANOS = 40000000L;
+  private static final double LATENCY_MS = 45;
+  private static final int POSES = 101; // one second of driving
+
+  private final FakeVisionSource source = new FakeVisionSource();
+  private final Vision vision = new Vision(source);
+  private final PoseHistory history = new PoseHistory();
+  private final VisionFrame frame = new VisionFrame();
+  private final double[] pose = new double[3];
+
+  private double savedMaxAge;
+  private boolean savedFilterEnabled;
+
+  @Before
+  public void setUp() {
+    savedMaxAge = Vision.MAX_RESULT_AGE_MS;
+    savedFilterEnabled = Vision.FILTER_ENABLED;
+    // Raw measurements, so the prediction is checked on its own
+    Vision.FILTER_ENABLED = false;
+    vision.setTargetTagId(GOAL);
+    vision.setPoseHistory(history);
+  }
+
+  @After
+  public void tearDown() {
+    Vision.MAX_RESULT_AGE_MS = savedMaxAge;
+    Vision.FILTER_ENABLED = savedFilterEnabled;
+  }
+
+  /** Scripted robot pose t seconds into the drive: x, y (in), heading (rad). */
+  private static void poseAt(double t, double[] out) {
+    double heading = TURN_RATE * t;
+    out[0] = SPEED / TURN_RATE * Math.sin(heading);
+    out[1] = SPEED / TURN_RATE * (1 - Math.cos(heading));
+    out[2] = heading;
+  }
+
+  /** Goal range (m) and tx (deg, positive right) seen from a pose. */
+  private static double[] goalFrom(double[] pose) {
+    double dx = GOAL_X - pose[0];
+    double dy = GOAL_Y - pose[1];
+    double cos = Math.cos(pose[2]);
+    double sin = Math.sin(pose[2]);
+    double forward = dx * cos + dy * sin;
+    double left = -dx * sin + dy * cos;
+    return new double[] {
+      Math.hypot(forward, left) * INCHES_TO_METERS, -Math.toDegrees(Math.atan2(left, forward))
+    };
+  }
+
+  private void publishTag(long receivedNanos, double latencyMs, double distance, double tx) {
+    frame.clear();
+    frame.valid = true;
+    frame.tx = tx;
+    frame.addTag(GOAL, 0.4, tx, 4.0, true, 0, 0.6, distance);
+    frame.receivedNanos = receivedNanos;
+    frame.latencyMs = latencyMs;
+    source.publish(frame);
+    vision.update();
+  }
+
+  @Test
+  public void stampsCaptureTimeFromLatency() {
+    long received = System.nanoTime();
+    publishTag(received, 32.5, 2.0, 0);
+    VisionSnapshot s = vision.getSnapshot();
+    assertTrue(s.hasTarget);
+    assertEquals(received - 32500000L, s.captureNanos);
+    assertTrue(s.getStalenessMs() >= 32.5);
+  }
+
+  @Test
+  public void rejectsResultsOlderThanLimit() {
+    Vision.MAX_RESULT_AGE_MS = 150;
+    publishTag(System.nanoTime(), 40, 2.0, 0);
+    assertTrue(vision.hasTarget());
+    publishTag(System.nanoTime(), 200, 2.5, 0);
+    assertFalse(vision.hasTarget());
+    assertFalse(vision.getSnapshot().hasTarget);
+    // The last good distance is kept for display
+    assertEquals(2.0, vision.getDistanceToGoalMeters(), 1e-9);
+  }
+
+  @Test
+  public void predictsGoalRangeAtLoopTime() {
+    // The recording is replayed with its own timestamps, not the wall clock
+    Vision.MAX_RESULT_AGE_MS = Double.MAX_VALUE;
+    long start = System.nanoTime() - 10000000000L;
+    long latencyNanos = (long) (LATENCY_MS * 1e6);
+
+    double worstRaw = 0;
+    double worstPredicted = 0;
+    int checked = 0;
+    for (int i = 0; i < POSES; i++) {
+      long now = start + i * POSE_PERIOD_NANOS;
+      poseAt(i * POSE_PERIOD_NANOS / 1e9, pose);
+      history.record(now, pose[0], pose[1], pose[2]);
+      long captured = now - latencyNanos;
+      if (captured < start || (now - start) % FRAME_PERIOD_NANOS != 0) {
+        continue;
+      }
+      poseAt((captured - start) / 1e9, pose);
+      double[] seen = goalFrom(pose);
+      publishTag(now, LATENCY_MS, seen[0], seen[1]);
+
+      poseAt((now - start) / 1e9, pose);
+      double[] truth = goalFrom(pose);
+      worstRaw = Math.max(worstRaw, Math.abs(vision.getDistanceToGoalMeters() - truth[0]));
+      worstPredicted =
+          Math.max(worstPredicted, Math.abs(vision.getPredictedDistanceToGoalMeters() - truth[0]));
+      assertEquals(truth[1], vision.getPredictedTx(), 0.1);
+      checked++;
+    }
+    assertEquals(24, checked);
+    // 45 ms at 30 in/s is over an inch of range; the prediction removes it
+    assertTrue("raw " + worstRaw, worstRaw > 1.0 * INCHES_TO_METERS);
+    assertTrue("predicted " + worstPredicted, worstPredicted < 0.05 * INCHES_TO_METERS);
+  }
+
+  @Test
+  public void predictsFromTurretMountedCamera() {
+    Vision.MAX_RESULT_AGE_MS = Double.MAX_VALUE;
+    PoseHistory turret = new PoseHistory();
+    vision.setCameraMountHistory(turret);
+    long start = System.nanoTime() - 10000000000L;
+    long latencyNanos = (long) (LATENCY_MS * 1e6);
+
+    double worstPredicted = 0;
+    int checked = 0;
+    for (int i = 0; i < POSES; i++) {
+      long now = start + i * POSE_PERIOD_NANOS;
+      poseAt(i * POSE_PERIOD_NANOS / 1e9, pose);
+      history.record(now, pose[0], pose[1], pose[2]);
+      turret.record(now, 0, 0, turretAngle((now - start) / 1e9));
+      long captured = now - latencyNanos;
+      if (captured < start || (now - start) % FRAME_PERIOD_NANOS != 0) {
+        continue;
+      }
+      double capturedSec = (captured - start) / 1e9;
+      poseAt(capturedSec, pose);
+      double[] seen = goalFrom(pose);
+      // tx is measured from the turret, which is turned left of the chassis
+      publishTag(now, LATENCY_MS, seen[0], seen[1] + Math.toDegrees(turretAngle(capturedSec)));
+
+      double nowSec = (now - start) / 1e9;
+      poseAt(nowSec, pose);
+      double[] truth = goalFrom(pose);
+      worstPredicted =
+          Math.max(worstPredicted, Math.abs(vision.getPredictedDistanceToGoalMeters() - truth[0]));
+      assertEquals(truth[1] + Math.toDegrees(turretAngle(nowSec)), vision.getPredictedTx(), 0.1);
+      checked++;
+    }
+    assertEquals(24, checked);
+    assertTrue("predicted " + worstPredicted, worstPredicted < 0.05 * INCHES_TO_METERS);
+  }
+
+  /** Scripted turret angle t seconds into the drive, radians CCW from the chassis. */
+  private static double turretAngle(double t) {
+    return 0.6 - 0.8 * t;
+  }
+
+  @Test
+  public void fallsBackToMeasuredWithoutHistory() {
+    vision.setPoseHistory(null);
+    publishTag(System.nanoTime(), 20, 2.2, 3.0);
+    assertEquals(2.2, vision.getPredictedDistanceToGoalMeters(), 1e-9);
+    assertEquals(3.0, vision.getPredictedTx(), 1e-9);
+  }
+}
@@ -0,0 +1,117 @@
+package org.firstinspires.ftc.teamcode.classes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Vision's tag selection under each TAG_POLICY, on one frame published
+ * through FakeVisionSource: a pose-less goal tag, a far large goal tag, a
+ * near small goal tag and an obelisk tag that is closer and larger than
+ * both but not wanted.
+ */
+public class VisionTagPolicyTest {
+  private static final int GOAL = Vision.RED_GOAL_TAG_ID;
+  private static final int OBELISK = 22;
+
+  private final FakeVisionSource source = new FakeVisionSource();
+  private final Vision vision = new Vision(source);
+  private final VisionFrame frame = new VisionFrame();
+  private Vision.TagPolicy savedPolicy;
+
+  @Before
+  public void setUp() {
+    savedPolicy = Vision.TAG_POLICY;
+    vision.setTargetTagIds(Vision.BLUE_GOAL_TAG_ID, Vision.RED_GOAL_TAG_ID);
+    frame.valid = true;
+    frame.addTag(GOAL, 0.9, 5.0, 5.0, false, 0, 0, 0);
+    frame.addTag(GOAL, 0.6, -2.0, 4.0, true, 0, 0.6, 3.0);
+    frame.addTag(GOAL, 0.3, 1.0, 6.0, true, 0, 0.6, 2.0);
+    frame.addTag(OBELISK, 2.0, 0.0, 3.0, true, 0, 0.3, 1.0);
+  }
+
+  @After
+  public void tearDown() {
+    Vision.TAG_POLICY = savedPolicy;
+  }
+
+  private VisionSnapshot process(Vision.TagPolicy policy) {
+    Vision.TAG_POLICY = policy;
+    frame.receivedNanos = System.nanoTime();
+    source.publish(frame);
+    vision.update();
+    return vision.getSnapshot();
+  }
+
+  @Test
+  public void firstMatchSkipsTagsWithoutPose() {
+    VisionSnapshot s = process(Vision.TagPolicy.FIRST_MATCH);
+    assertTrue(s.hasTarget);
+    assertEquals(GOAL, s.tagId);
+    assertEquals(3.0, s.distanceMeters, 1e-9);
+    assertEquals(-2.0, s.tx, 1e-9);
+    assertEquals(1, s.tagsUsed);
+  }
+
+  @Test
+  public void closestPicksShortestRange() {
+    VisionSnapshot s = process(Vision.TagPolicy.CLOSEST);
+    assertEquals(2.0, s.distanceMeters, 1e-9);
+    assertEquals(1.0, s.tx, 1e-9);
+  }
+
+  @Test
+  public void largestPicksLargestArea() {
+    VisionSnapshot s = process(Vision.TagPolicy.LARGEST);
+    assertEquals(3.0, s.distanceMeters, 1e-9);
+    assertEquals(-2.0, s.tx, 1e-9);
+  }
+
+  @Test
+  public void fusedWeightsByAreaOverRangeSquared() {
+    VisionSnapshot s = process(Vision.TagPolicy.FUSED);
+    double far = 0.6 / 9.0;
+    double near = 0.3 / 4.0;
+    assertEquals(2, s.tagsUsed);
+    assertEquals((far * 3.0 + near * 2.0) / (far + near), s.distanceMeters, 1e-9);
+    assertEquals((far * -2.0 + near * 1.0) / (far + near), s.tx, 1e-9);
+  }
+
+  @Test
+  public void fusedUsesEveryDetectionOfAFullFrame() {
+    frame.clear();
+    frame.valid = true;
+    for (int i = 0; i < VisionFrame.MAX_TAGS; i++) {
+      assertTrue(frame.addTag(GOAL, 0.5 / (1 + i), 0.3 * i, 5.0, true, 0.05 * i, 0.6,
+          1.0 + 0.2 * i));
+    }
+    assertFalse(frame.addTag(GOAL, 0.5, 0, 5.0, true, 0, 0.6, 1.0));
+    assertEquals(VisionFrame.MAX_TAGS, process(Vision.TagPolicy.FUSED).tagsUsed);
+  }
+
+  @Test
+  public void fusedNeverMixesTheTwoGoals() {
+    // The blue goal tag has the highest weight, so only blue detections are fused
+    frame.addTag(Vision.BLUE_GOAL_TAG_ID, 0.8, 10.0, 2.0, true, 0, 0.6, 1.5);
+    frame.addTag(Vision.BLUE_GOAL_TAG_ID, 0.2, 12.0, 2.0, true, 0, 0.6, 2.5);
+    VisionSnapshot s = process(Vision.TagPolicy.FUSED);
+    double strong = 0.8 / 2.25;
+    double weak = 0.2 / 6.25;
+    assertEquals(Vision.BLUE_GOAL_TAG_ID, s.tagId);
+    assertEquals(2, s.tagsUsed);
+    assertEquals((strong * 1.5 + weak * 2.5) / (strong + weak), s.distanceMeters, 1e-9);
+    assertEquals((strong * 10.0 + weak * 12.0) / (strong + weak), s.tx, 1e-9);
+  }
+
+  @Test
+  public void ignoresUnwantedTags() {
+    frame.clear();
+    frame.valid = true;
+    frame.addTag(OBELISK, 2.0, 0.0, 3.0, true, 0, 0.3, 1.0);
+    assertFalse(process(Vision.TagPolicy.CLOSEST).hasTarget);
+  }
+}
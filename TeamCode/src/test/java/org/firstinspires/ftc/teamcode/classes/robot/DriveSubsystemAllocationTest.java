@@ -0,0 +1,125 @@
+package org.firstinspires.ftc.teamcode.classes.robot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import org.firstinspires.ftc.teamcode.classes.Utilities;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Counts the bytes the test thread allocates across many drive() calls after
+ * warm-up; the drive path must not allocate at all.
+ *
+ * Repeating one command keeps CachingMotor from writing to the fake motors,
+ * whose proxy boxes its arguments, so only the drive code is measured.
+ */
+public class DriveSubsystemAllocationTest {
+  private static final int WARMUP_CALLS = 20000;
+  private static final int MEASURED_CALLS = 100000;
+
+  private final FakeMotor frontLeft = new FakeMotor();
+  private final FakeMotor frontRight = new FakeMotor();
+  private final FakeMotor backLeft = new FakeMotor();
+  private final FakeMotor backRight = new FakeMotor();
+  private com.sun.management.ThreadMXBean threads;
+  private DriveSubsystem drive;
+
+  @Before
+  public void setUp() {
+    Object bean = ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue("JVM cannot count allocations",
+        bean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported());
+    threads = (com.sun.management.ThreadMXBean) bean;
+    threads.setThreadAllocatedMemoryEnabled(true);
+
+    Map<String, Object> devices = new HashMap<>();
+    devices.put("leftFront", frontLeft.motor);
+    devices.put("rightFront", frontRight.motor);
+    devices.put("leftBack", backLeft.motor);
+    devices.put("rightBack", backRight.motor);
+    drive = new DriveSubsystem(FakeMotor.hardwareMap(devices));
+  }
+
+  private long allocatedBytes() {
+    return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /** Bytes allocated by the measurement itself, to subtract. */
+  private long measurementOverhead() {
+    long before = allocatedBytes();
+    long after = allocatedBytes();
+    return after - before;
+  }
+
+  @Test
+  public void mixesAndNormalizesWheelPowers() {
+    drive.drive(0.6, 0.3, 0.2);
+    assertEquals(1.0, frontLeft.power, 1e-9);
+    assertEquals(0.1 / 1.1, frontRight.power, 1e-9);
+    assertEquals(0.5 / 1.1, backLeft.power, 1e-9);
+    assertEquals(0.7 / 1.1, backRight.power, 1e-9);
+    drive.stop();
+    assertEquals(0, frontLeft.power, 1e-9);
+    assertEquals(0, backRight.power, 1e-9);
+  }
+
+  @Test
+  public void driveDoesNotAllocate() {
+    for (int i = 0; i < WARMUP_CALLS; i++) {
+      drive.drive(i % 2 == 0 ? 0.6 : 0.4, -0.3, 0.2);
+    }
+    drive.drive(0.6, -0.3, 0.2);
+    int writes = frontLeft.powerWrites;
+
+    long overhead = measurementOverhead();
+    long before = allocatedBytes();
+    for (int i = 0; i < MEASURED_CALLS; i++) {
+      drive.drive(0.6, -0.3, 0.2);
+    }
+    long allocated = allocatedBytes() - before - overhead;
+
+    assertEquals("motor writes leaked into the measurement", writes, frontLeft.powerWrites);
+    // Less than a byte per call: nothing is allocated per drive()
+    assertTrue(allocated + " bytes over " + MEASURED_CALLS + " calls", allocated < MEASURED_CALLS);
+  }
+
+  @Test
+  public void stopDoesNotAllocate() {
+    for (int i = 0; i < WARMUP_CALLS; i++) {
+      drive.stop();
+    }
+    long overhead = measurementOverhead();
+    long before = allocatedBytes();
+    for (int i = 0; i < MEASURED_CALLS; i++) {
+      drive.stop();
+    }
+    long allocated = allocatedBytes() - before - overhead;
+    assertTrue(allocated + " bytes over " + MEASURED_CALLS + " calls", allocated < MEASURED_CALLS);
+  }
+
+  @Test
+  public void normalizeMecanumDoesNotAllocate() {
+    double[] out = new double[4];
+    double sum = 0;
+    for (int i = 0; i < WARMUP_CALLS; i++) {
+      sum += Utilities.normalizeMecanum(i * 1e-4, 1.5, -0.5, -2.0, out)[0];
+    }
+    long overhead = measurementOverhead();
+    long before = allocatedBytes();
+    for (int i = 0; i < MEASURED_CALLS; i++) {
+      sum += Utilities.normalizeMecanum(i * 1e-5, 1.5, -0.5, -2.0, out)[0];
+    }
+    long allocated = allocatedBytes() - before - overhead;
+    assertTrue(allocated + " bytes over " + MEASURED_CALLS + " calls", allocated < MEASURED_CALLS);
+    assertTrue(sum > 0);
+    // Scaled so the largest magnitude is exactly 1
+    assertEquals(-1.0, out[3], 1e-12);
+    assertEquals(0.75, out[1], 1e-12);
+  }
+}
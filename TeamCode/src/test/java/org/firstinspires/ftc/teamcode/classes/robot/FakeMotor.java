@@ -0,0 +1,77 @@
+package org.firstinspires.ftc.teamcode.classes.robot;
+
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+/**
+ * DcMotorEx stand-in for JVM tests. It records the last power written and
+ * reports whatever position and velocity the test sets; every other call
+ * does nothing and returns a default value.
+ *
+ * Calls go through a dynamic proxy, which boxes their arguments, so tests
+ * that count allocations must keep the motor out of the measured section.
+ */
+public class FakeMotor implements InvocationHandler {
+  public final DcMotorEx motor;
+  public double power = 0;
+  public double position = 0; // ticks
+  public double velocity = 0; // ticks/s
+  public int powerWrites = 0;
+
+  public FakeMotor() {
+    motor = (DcMotorEx) Proxy.newProxyInstance(
+        FakeMotor.class.getClassLoader(), new Class<?>[] {DcMotorEx.class}, this);
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) {
+    switch (method.getName()) {
+      case "setPower":
+        power = (Double) args[0];
+        powerWrites++;
+        return null;
+      case "getPower":
+        return power;
+      case "getCurrentPosition":
+        return (int) Math.round(position);
+      case "getVelocity":
+        return velocity;
+      default:
+        return defaultValue(method.getReturnType());
+    }
+  }
+
+  private static Object defaultValue(Class<?> type) {
+    if (type == boolean.class) {
+      return false;
+    } else if (type == int.class) {
+      return 0;
+    } else if (type == long.class) {
+      return 0L;
+    } else if (type == double.class) {
+      return 0.0;
+    } else if (type == float.class) {
+      return 0.0f;
+    }
+    return null;
+  }
+
+  /** A HardwareMap that serves the given devices by configured name. */
+  public static HardwareMap hardwareMap(final Map<String, ?> devices) {
+    return new HardwareMap(null, null) {
+      @Override
+      @SuppressWarnings("unchecked")
+      public <T> T get(Class<? extends T> classOrInterface, String deviceName) {
+        Object device = devices.get(deviceName);
+        if (device == null) {
+          throw new IllegalArgumentException("No device named " + deviceName);
+        }
+        return (T) device;
+      }
+    };
+  }
+}
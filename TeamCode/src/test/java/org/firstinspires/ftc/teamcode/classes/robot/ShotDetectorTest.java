@@ -0,0 +1,109 @@
+package org.firstinspires.ftc.teamcode.classes.robot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * ShotDetector against flywheel velocity traces shaped like ones logged from
+ * the shooter: one sample per 10 ms loop, a few RPM of encoder noise, and a
+ * ball taking 300-400 RPM out of the wheel within a few loops.
+ */
+public class ShotDetectorTest {
+  private static final long LOOP_NANOS = 10000000L;
+  private static final long START_NANOS = 1000000000L;
+
+  // Holding 3000 RPM, one ball, then recovery
+  private static final double[] SINGLE_SHOT = {
+    3005, 2998, 3003, 2995, 3002, 3008, 2790, 2650, 2610, 2660,
+    2740, 2830, 2910, 2960, 2990, 3004, 2999, 3001, 2996, 3003,
+  };
+
+  // Second ball arrives before the wheel is fully back to speed
+  private static final double[] BACK_TO_BACK = {
+    3000, 3003, 2998, 2850, 2690, 2640, 2690, 2770, 2850, 2920,
+    2960, 2800, 2660, 2610, 2660, 2750, 2840, 2920, 2970, 2995,
+    3000, 2998, 3004,
+  };
+
+  /** Replay a trace and return the sample indexes at which shots were detected. */
+  private static int[] replay(ShotDetector detector, double[] rpm) {
+    int[] shots = new int[rpm.length];
+    int count = 0;
+    for (int i = 0; i < rpm.length; i++) {
+      if (detector.update(START_NANOS + i * LOOP_NANOS, rpm[i])) {
+        shots[count++] = i;
+      }
+    }
+    int[] result = new int[count];
+    System.arraycopy(shots, 0, result, 0, count);
+    return result;
+  }
+
+  /** A steady slowdown from one speed to another, in RPM per second. */
+  private static double[] slowdown(double fromRpm, double toRpm, double rpmPerSec) {
+    double step = rpmPerSec * LOOP_NANOS / 1e9;
+    int samples = (int) Math.ceil((fromRpm - toRpm) / step) + 10;
+    double[] rpm = new double[samples];
+    for (int i = 0; i < samples; i++) {
+      // Alternating noise like the encoder velocity readout
+      double noise = i % 2 == 0 ? 4 : -4;
+      rpm[i] = Math.max(toRpm, fromRpm - i * step) + noise;
+    }
+    return rpm;
+  }
+
+  @Test
+  public void singleShotCountsOnce() {
+    ShotDetector detector = new ShotDetector();
+    int[] shots = replay(detector, SINGLE_SHOT);
+    assertEquals(1, shots.length);
+    // Detected on the first sample of the dip deep enough, not at the bottom
+    assertEquals(6, shots[0]);
+    assertEquals(1, detector.getShotCount());
+    assertEquals(3008, detector.getLastReleaseRpm(), 1e-9);
+    assertEquals(START_NANOS + 6 * LOOP_NANOS, detector.getLastShotNanos());
+  }
+
+  @Test
+  public void backToBackShotsCountSeparately() {
+    ShotDetector detector = new ShotDetector();
+    int[] shots = replay(detector, BACK_TO_BACK);
+    assertEquals(2, shots.length);
+    assertEquals(4, shots[0]);
+    assertEquals(12, shots[1]);
+    assertEquals(2960, detector.getLastReleaseRpm(), 1e-9);
+  }
+
+  @Test
+  public void slowdownToLowerTargetIsNotAShot() {
+    ShotDetector detector = new ShotDetector();
+    // Coasting down to a closer shot's RPM: drops far more than DIP_RPM, but slowly
+    assertEquals(0, replay(detector, slowdown(3000, 2000, 2500)).length);
+    // Even a hard slowdown stays under MIN_DIP_RATE_RPM_PER_SEC
+    assertEquals(0, replay(new ShotDetector(), slowdown(3000, 2000, 5000)).length);
+    assertEquals(0, detector.getShotCount());
+  }
+
+  @Test
+  public void dipBelowMinShotRpmIsNotAShot() {
+    ShotDetector detector = new ShotDetector();
+    double[] spinUp = {0, 150, 300, 420, 100, 20, 0};
+    assertEquals(0, replay(detector, spinUp).length);
+  }
+
+  @Test
+  public void rearmsAfterTimeoutWithoutRecovery() {
+    ShotDetector detector = new ShotDetector();
+    replay(detector, new double[] {3000, 3000, 3000, 2600});
+    assertEquals(1, detector.getShotCount());
+    // The wheel never recovers; after REARM_TIMEOUT_MS the next dip counts again
+    long t = START_NANOS + 3 * LOOP_NANOS;
+    long rearm = (long) (ShotDetector.REARM_TIMEOUT_MS * 1e6);
+    detector.update(t + rearm, 2600);
+    detector.update(t + rearm + LOOP_NANOS, 2600);
+    assertTrue(detector.update(t + rearm + 2 * LOOP_NANOS, 2300));
+    assertEquals(2, detector.getShotCount());
+  }
+}
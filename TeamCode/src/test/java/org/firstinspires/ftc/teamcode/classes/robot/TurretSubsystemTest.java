@@ -0,0 +1,156 @@
+package org.firstinspires.ftc.teamcode.classes.robot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import org.firstinspires.ftc.teamcode.classes.VisionSnapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * TurretSubsystem's control law closed around a simulated turret. Time is
+ * simulated too: each loop steps the plant and the clock passed to update()
+ * by LOOP_NANOS, so the tests run instantly and the same way every time.
+ */
+public class TurretSubsystemTest {
+  private static final long LOOP_NANOS = 5000000L;
+  private static final long VISION_PERIOD_NANOS = 33000000L; // 30 fps
+
+  /** Turret on a DC motor: speed follows power with a first-order lag. */
+  private static final class TurretPlant {
+    static final double MAX_SPEED_DEG_PER_SEC = 360.0;
+    static final double TIME_CONSTANT_SEC = 0.05;
+    // Friction: power below this does not move the turret
+    static final double STATIC_POWER = 0.02;
+
+    double angleDeg = 0;
+    double speedDegPerSec = 0;
+
+    void step(double power, double dt) {
+      double drive = Math.abs(power) <= STATIC_POWER ? 0
+          : power - Math.copySign(STATIC_POWER, power);
+      double target = drive * MAX_SPEED_DEG_PER_SEC;
+      speedDegPerSec += (target - speedDegPerSec) * Math.min(1.0, dt / TIME_CONSTANT_SEC);
+      angleDeg += speedDegPerSec * dt;
+    }
+  }
+
+  private final FakeMotor motor = new FakeMotor();
+  private final TurretPlant plant = new TurretPlant();
+  private TurretSubsystem turret;
+  private boolean savedCameraOnTurret;
+
+  // Simulated world: the goal's bearing from the robot's start heading
+  private double goalBearingDeg = 0;
+  private double robotHeadingDeg = 0;
+  private double visionLatencyMs = 0;
+  private boolean goalVisible = true;
+  private VisionSnapshot snapshot = null;
+  private long lastFrameNanos = 0;
+  // Simulated System.nanoTime(); never 0, which the controller reads as "no update yet"
+  private long nowNanos = 1000000000L;
+
+  @Before
+  public void setUp() {
+    savedCameraOnTurret = TurretSubsystem.CAMERA_ON_TURRET;
+    TurretSubsystem.CAMERA_ON_TURRET = true;
+    turret = new TurretSubsystem(
+        FakeMotor.hardwareMap(Collections.singletonMap("turret", motor.motor)));
+  }
+
+  @After
+  public void tearDown() {
+    TurretSubsystem.CAMERA_ON_TURRET = savedCameraOnTurret;
+  }
+
+  /** Run the closed loop for a while with the robot turning at a constant rate. */
+  private void run(double seconds, double yawRateDegPerSec) {
+    double dt = LOOP_NANOS / 1e9;
+    long end = nowNanos + (long) (seconds * 1e9);
+    while (nowNanos < end) {
+      nowNanos += LOOP_NANOS;
+      long now = nowNanos;
+      plant.step(motor.power, dt);
+      robotHeadingDeg += yawRateDegPerSec * dt;
+      motor.position = plant.angleDeg * TurretSubsystem.TICKS_PER_DEGREE;
+
+      if (now - lastFrameNanos >= VISION_PERIOD_NANOS) {
+        lastFrameNanos = now;
+        // The camera rides on the turret: tx is the goal's offset from the
+        // turret, positive to the right (clockwise)
+        double goalFromRobot = goalBearingDeg - robotHeadingDeg;
+        snapshot = new VisionSnapshot(goalVisible, 2.0, 0.5, plant.angleDeg - goalFromRobot, 0,
+            24, goalVisible ? 1 : 0, now - (long) (visionLatencyMs * 1e6), 0, 0, 0);
+      }
+      turret.update(now, snapshot, yawRateDegPerSec);
+    }
+  }
+
+  /** How far the turret points from the goal, degrees. */
+  private double aimError() {
+    return plant.angleDeg - (goalBearingDeg - robotHeadingDeg);
+  }
+
+  @Test
+  public void locksOntoStationaryGoal() {
+    goalBearingDeg = 40;
+    turret.setAutoAim(true);
+    run(1.5, 0);
+    assertTrue(turret.hasLock());
+    assertTrue("aim error " + aimError(), Math.abs(aimError()) <= TurretSubsystem.ON_TARGET_DEG);
+    assertTrue(turret.isOnTarget());
+  }
+
+  @Test
+  public void holdsGoalWhileRobotTurns() {
+    goalBearingDeg = 20;
+    turret.setAutoAim(true);
+    run(1.0, 0);
+    // Robot spins CCW; yaw-rate feedforward keeps the turret on the goal
+    visionLatencyMs = 40;
+    run(1.0, 60);
+    assertTrue("aim error " + aimError(), Math.abs(aimError()) <= 3.0);
+  }
+
+  @Test
+  public void holdsFieldHeadingWhenGoalDropsOut() {
+    goalBearingDeg = 10;
+    turret.setAutoAim(true);
+    run(1.0, 0);
+    goalVisible = false;
+    run(1.0, 45);
+    assertFalse(turret.hasLock());
+    // Counter-rotates with the robot: still pointing where the goal was
+    assertTrue("aim error " + aimError(), Math.abs(aimError()) <= 3.0);
+  }
+
+  @Test
+  public void ignoresResultsOverLatencyBudget() {
+    goalBearingDeg = 30;
+    visionLatencyMs = TurretSubsystem.AIM_LATENCY_BUDGET_MS + 50;
+    turret.setAutoAim(true);
+    run(0.5, 0);
+    assertFalse(turret.hasLock());
+    assertEquals(0, plant.angleDeg, 1.0);
+  }
+
+  @Test
+  public void staysInsideSoftLimits() {
+    goalBearingDeg = TurretSubsystem.MAX_ANGLE_DEG + 40;
+    turret.setAutoAim(true);
+    run(1.5, 0);
+    assertEquals(TurretSubsystem.MAX_ANGLE_DEG, turret.getSetpointDegrees(), 1e-9);
+    assertTrue("angle " + plant.angleDeg, plant.angleDeg <= TurretSubsystem.MAX_ANGLE_DEG + 2.0);
+
+    // Manual power further past the limit is dropped; back toward center is not
+    turret.setManualPower(1.0);
+    run(0.1, 0);
+    assertEquals(0, motor.power, 1e-9);
+    turret.setManualPower(-0.5);
+    run(0.1, 0);
+    assertTrue(motor.power < 0);
+  }
+}
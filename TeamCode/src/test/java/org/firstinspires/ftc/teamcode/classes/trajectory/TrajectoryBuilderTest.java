@@ -0,0 +1,153 @@
+package org.firstinspires.ftc.teamcode.classes.trajectory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/** TrajectoryBuilder profiles: short stretches, joins, and the speed limits. */
+public class TrajectoryBuilderTest {
+  private static final double MAX_VELOCITY = 40.0;
+  private static final double MAX_ACCELERATION = 40.0;
+  private static final double MAX_JERK = 200.0;
+
+  private final double[] sample = new double[Trajectory.SAMPLE_SIZE];
+
+  private static TrajectoryBuilder builder(double maxJerk) {
+    return new TrajectoryBuilder(0, 0, 0, MAX_VELOCITY, MAX_ACCELERATION, maxJerk);
+  }
+
+  private static double speed(double[] sample) {
+    return Math.hypot(sample[Trajectory.VX], sample[Trajectory.VY]);
+  }
+
+  /** Every sample is finite and the path ends at rest on the given pose. */
+  private void assertEndsAt(Trajectory path, double x, double y, double heading) {
+    assertTrue(path.getDuration() > 0);
+    for (double t = 0; t <= path.getDuration(); t += 0.001) {
+      path.sample(t, sample);
+      for (double value : sample) {
+        assertTrue("non-finite sample at " + t, Double.isFinite(value));
+      }
+    }
+    assertEquals(x, path.getEndX(), 1e-9);
+    assertEquals(y, path.getEndY(), 1e-9);
+    assertEquals(heading, path.getEndHeading(), 1e-9);
+    path.sample(path.getDuration(), sample);
+    assertEquals(0, speed(sample), 1e-9);
+    assertEquals(0, sample[Trajectory.OMEGA], 1e-9);
+  }
+
+  @Test
+  public void buildsShortLine() {
+    for (double jerk : new double[] {0, MAX_JERK}) {
+      assertEndsAt(builder(jerk).lineTo(0.2, 0).build(), 0.2, 0, 0);
+    }
+  }
+
+  @Test
+  public void buildsShortStretchAfterCorner() {
+    for (double jerk : new double[] {0, MAX_JERK}) {
+      assertEndsAt(builder(jerk).lineTo(24, 0).lineTo(24, 0.2).build(), 24, 0.2, 0);
+    }
+  }
+
+  @Test
+  public void buildsSmallTurn() {
+    double heading = Math.toRadians(0.5);
+    for (double jerk : new double[] {0, MAX_JERK}) {
+      assertEndsAt(builder(jerk).turnTo(heading).build(), 0, 0, heading);
+    }
+  }
+
+  @Test
+  public void shortStretchStaysUnderSlowLimit() {
+    // Slow enough that one 0.2 in step has room to cruise
+    Trajectory path = new TrajectoryBuilder(0, 0, 0, 1.0, MAX_ACCELERATION, 0)
+        .lineTo(0.2, 0).build();
+    assertEndsAt(path, 0.2, 0, 0);
+    for (double t = 0; t <= path.getDuration(); t += 0.001) {
+      path.sample(t, sample);
+      assertTrue(speed(sample) <= 1.0 + 1e-9);
+    }
+    assertEquals(0.2 / 1.0 + 1.0 / MAX_ACCELERATION, path.getDuration(), 0.011);
+  }
+
+  @Test
+  public void keepsSpeedThroughStraightJoin() {
+    Trajectory path = builder(MAX_JERK).lineTo(24, 0).lineTo(48, 0).build();
+    assertEndsAt(path, 48, 0, 0);
+    assertTrue("join speed " + speedAtX(path, 24), speedAtX(path, 24) > 0.95 * MAX_VELOCITY);
+  }
+
+  @Test
+  public void keepsSpeedThroughSplineJoin() {
+    // Both splines leave and arrive along +x at the join: no corner there
+    Trajectory path = builder(MAX_JERK)
+        .splineTo(24, 12, 0)
+        .splineTo(48, 24, 0)
+        .build();
+    assertEndsAt(path, 48, 24, 0);
+    assertTrue("join speed " + speedAtX(path, 24), speedAtX(path, 24) > 0.5 * MAX_VELOCITY);
+  }
+
+  @Test
+  public void stopsAtSharpCorner() {
+    Trajectory path = builder(MAX_JERK).lineTo(24, 0).lineTo(24, 24).build();
+    assertEndsAt(path, 24, 24, 0);
+    assertEquals(0, speedAtX(path, 24), 0.5);
+  }
+
+  @Test
+  public void staysWithinVelocityAndAccelerationLimits() {
+    for (double jerk : new double[] {0, MAX_JERK}) {
+      Trajectory path = builder(jerk)
+          .lineTo(36, 0)
+          .splineTo(60, 24, Math.PI / 2)
+          .lineToHeading(60, 48, Math.PI / 2)
+          .build();
+      double peakSpeed = 0;
+      for (double t = 0; t <= path.getDuration(); t += 0.001) {
+        path.sample(t, sample);
+        peakSpeed = Math.max(peakSpeed, speed(sample));
+        assertTrue("speed at " + t, speed(sample) <= MAX_VELOCITY * 1.001);
+        double accel = Math.hypot(sample[Trajectory.AX], sample[Trajectory.AY]);
+        // Tangential and cornering acceleration are each held to the limit,
+        // so together they stay within sqrt(2) of it
+        assertTrue("acceleration " + accel + " at " + t,
+            accel <= Math.sqrt(2) * MAX_ACCELERATION * 1.05);
+      }
+      assertTrue(peakSpeed > 0.95 * MAX_VELOCITY);
+    }
+  }
+
+  @Test
+  public void straightLineAcceleratesAtTheLimit() {
+    Trajectory path = builder(0).lineTo(48, 0).build();
+    double peakAccel = 0;
+    for (double t = 0; t <= path.getDuration(); t += 0.001) {
+      path.sample(t, sample);
+      double accel = Math.abs(sample[Trajectory.AX]);
+      assertTrue("acceleration " + accel + " at " + t, accel <= MAX_ACCELERATION * 1.001);
+      peakAccel = Math.max(peakAccel, accel);
+    }
+    assertTrue(peakAccel > 0.95 * MAX_ACCELERATION);
+    // Trapezoid: 1 s up to speed, 1 s down, 8 in / 40 in/s cruising between
+    assertEquals(2.2, path.getDuration(), 0.02);
+  }
+
+  /** Target speed when the path is closest to the given x. */
+  private double speedAtX(Trajectory path, double x) {
+    double best = Double.POSITIVE_INFINITY;
+    double speed = 0;
+    for (double t = 0; t <= path.getDuration(); t += 0.001) {
+      path.sample(t, sample);
+      double miss = Math.abs(sample[Trajectory.X] - x);
+      if (miss < best) {
+        best = miss;
+        speed = speed(sample);
+      }
+    }
+    return speed;
+  }
+}